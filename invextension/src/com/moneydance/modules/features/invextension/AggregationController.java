@@ -28,37 +28,63 @@
 
 package com.moneydance.modules.features.invextension;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Aggregation controller sets overall method for aggregation for a given report
+ * <p/>
+ * Aggregators are ordered from the outermost grouping to the innermost, a
+ * subtotal is reported at every level.
  */
 public enum AggregationController {
     INVACCT("Investment Account, then Securities/Cash", new InvestmentAccountWrapper(), new Tradeable()),
     TICKER("Ticker", new CurrencyWrapper(), new InvestmentAccountWrapper()),
-    SECTYPE("Security Type, then Security SubType", new SecurityTypeWrapper(), new SecuritySubTypeWrapper());
+    SECTYPE("Security Type, then Security SubType", new SecurityTypeWrapper(), new SecuritySubTypeWrapper()),
+    INVACCT_SECTYPE("Investment Account, then Security Type, SubType, Ticker", new InvestmentAccountWrapper(),
+            new SecurityTypeWrapper(), new SecuritySubTypeWrapper(), new CurrencyWrapper()),
+    TAG("Tag, then Ticker", new TagAggregator(), new CurrencyWrapper()),
+    INVACCT_TAG("Investment Account, then Tag, Ticker", new InvestmentAccountWrapper(), new TagAggregator(),
+            new CurrencyWrapper());
     private final String description;
-    private final Aggregator firstAggregator;
-    private final Aggregator secondAggregator;
-    AggregationController(String description, Aggregator firstAggregator, Aggregator secondAggregator) {
+    private final List<Aggregator> aggregators;
+    AggregationController(String description, Aggregator... aggregators) {
         this.description = description;
-        this.firstAggregator = firstAggregator;
-        this.secondAggregator = secondAggregator;
+        this.aggregators = Collections.unmodifiableList(Arrays.asList(aggregators));
     }
 
     public String getDescription() {
         return description;
     }
 
+    /**
+     * Aggregators in grouping order, outermost first
+     *
+     * @return list of aggregators
+     */
+    public List<Aggregator> getAggregators() {
+        return aggregators;
+    }
+
     public Aggregator getFirstAggregator() {
-        return firstAggregator;
+        return aggregators.get(0);
     }
 
     public Aggregator getSecondAggregator() {
-        return secondAggregator;
+        return aggregators.get(1);
     }
 
+    /**
+     * Indicates whether each aggregator is a subset of the one before it, in which
+     * case no composites are generated for an inner aggregator alone. Groupings of
+     * more than two levels are always reported as a hierarchy.
+     *
+     * @return true if hierarchy
+     */
     public boolean isHierarchy() {
-        return (this.firstAggregator instanceof SecurityTypeWrapper &&
-                this.secondAggregator instanceof SecuritySubTypeWrapper);
+        return aggregators.size() > 2 || (getFirstAggregator() instanceof SecurityTypeWrapper &&
+                getSecondAggregator() instanceof SecuritySubTypeWrapper);
     }
 
     @Override
@@ -68,4 +94,3 @@ public enum AggregationController {
 
 
 }
-
@@ -121,12 +121,22 @@ public final class BulkSecInfo {
     private static ReportConfig reportConfig;
     /* HashSet of InvestmentAccount Wrappers */
     private final HashSet<InvestmentAccountWrapper> investmentWrappers;
+    /* Security Account Wrappers, indexed by ordinal */
+    private final ArrayList<SecurityAccountWrapper> securityAccountWrappers;
+    /* currency rates read during this run */
+    private final FxRateCache fxRateCache = new FxRateCache();
+    /* business days of this run, from the report's holiday settings */
+    private final BusinessDayCalendar businessDayCalendar;
+    /* currency all values are reported in, null for each investment account's currency */
+    private final CurrencyType reportingCurrency;
 
     public BulkSecInfo(AccountBook accountBook, ReportConfig reportConfig) throws Exception {
         this.accountBook = accountBook;
         this.root = accountBook.getRootAccount();
         BulkSecInfo.reportConfig = reportConfig;
+        this.businessDayCalendar = reportConfig.getBusinessDayCalendar();
         this.gainsCalc = reportConfig.useAverageCostBasis() ? new GainsAverageCalc() : new GainsLotMatchCalc();
+        this.reportingCurrency = getReportingCurrency(accountBook, reportConfig.getReportingCurrencyId());
         transactionSet = accountBook.getTransactionSet();
         firstDateInt = getFirstDateInt(transactionSet);
         LogController.logMessage(Level.FINE, String.format("First Date Defined for Transaction Set %s", firstDateInt));
@@ -135,6 +145,13 @@ public final class BulkSecInfo {
         currencyWrappers = getCurrencyWrappersFromRoot();
         LogController.logMessage(Level.FINE, "SECURITY type currencies loaded, loading investment accounts...");
         investmentWrappers = getInvestmentAccountInfo(reportConfig);
+        securityAccountWrappers = new ArrayList<>();
+        for (InvestmentAccountWrapper investmentWrapper : investmentWrappers) {
+            for (SecurityAccountWrapper securityAccountWrapper : investmentWrapper.getSecurityAccountWrappers()) {
+                securityAccountWrapper.setOrdinal(securityAccountWrappers.size());
+                securityAccountWrappers.add(securityAccountWrapper);
+            }
+        }
         LogController.logMessage(Level.FINE, "All investment accounts, security acounts, and transactions loaded");
     }
 
@@ -148,6 +165,31 @@ public final class BulkSecInfo {
 
     public static ReportConfig getReportConfig() { return BulkSecInfo.reportConfig;}
 
+    private static CurrencyType getReportingCurrency(AccountBook accountBook, String reportingCurrencyId) {
+        if (reportingCurrencyId == null || reportingCurrencyId.isEmpty()) return null;
+        CurrencyType currencyType = accountBook.getCurrencies().getCurrencyByIDString(reportingCurrencyId);
+        if (currencyType == null) {
+            LogController.logMessage(Level.WARNING, String.format("Reporting currency %s not found, " +
+                    "reporting in account currencies", reportingCurrencyId));
+        }
+        return currencyType;
+    }
+
+    public FxRateCache getFxRateCache() {
+        return fxRateCache;
+    }
+
+    public BusinessDayCalendar getBusinessDayCalendar() {
+        return businessDayCalendar;
+    }
+
+    /**
+     * @return currency all values are reported in, null for each investment account's currency
+     */
+    public CurrencyType getReportingCurrency() {
+        return reportingCurrency;
+    }
+
     /**
      * loads selected accounts into HashSet
      *
@@ -248,7 +290,7 @@ public final class BulkSecInfo {
      * @param snapshot   index of currency snapshot
      * @return String array of currency and price info
      */
-    public static String[] loadCurrencySnapshotArray(CurrencyType cur, CurrencySnapshot snapshot) {
+    public String[] loadCurrencySnapshotArray(CurrencyType cur, CurrencySnapshot snapshot) {
         ArrayList<String> currencyInfo = new ArrayList<>();
         currencyInfo.add(cur.getParameter("id"));
         currencyInfo.add(cur.getName());
@@ -257,7 +299,7 @@ public final class BulkSecInfo {
         } else {
             currencyInfo.add(cur.getTickerSymbol());
         }
-        int todayDate = DateUtils.getLastCurrentDateInt();
+        int todayDate = businessDayCalendar.getLastCurrentDateInt();
         int dateInt = snapshot.getDateInt();
         double closeRate = snapshot.getRate();
         currencyInfo.add(DateUtils.convertToShort(dateInt));
@@ -334,6 +376,13 @@ public final class BulkSecInfo {
         return investmentWrappers;
     }
 
+    /**
+     * @return all security account wrappers, each at the index of its ordinal
+     */
+    public ArrayList<SecurityAccountWrapper> getSecurityAccountWrappers() {
+        return securityAccountWrappers;
+    }
+
     /**
      * lists all TransactionValues in InvestmentAccountWrappers
      *
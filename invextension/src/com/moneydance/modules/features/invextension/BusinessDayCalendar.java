@@ -0,0 +1,212 @@
+/*
+ * BusinessDayCalendar.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import java.time.DayOfWeek;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Business days from 1970 through 2100, precomputed from a holiday rule and
+ * an optional list of user holidays.  Business days are held in a bitset
+ * indexed by epoch day, with a prefix count of business days and the ordered
+ * list of business days, so all lookups are constant time.  Dates outside the
+ * range fall back to weekdays only.  Instances are immutable.
+ */
+public final class BusinessDayCalendar {
+    public static final int FIRST_YEAR = 1970;
+    public static final int LAST_YEAR = 2100;
+    private static final int FIRST_EPOCH_DAY = (int) DateUtils.toEpochDay(FIRST_YEAR * 10000 + 101);
+    private static final int LAST_EPOCH_DAY = (int) DateUtils.toEpochDay(LAST_YEAR * 10000 + 1231);
+    private static final int[] QUARTER_START_MONTHS = {1, 1, 1, 3, 3, 3, 6, 6, 6, 9, 9, 9};
+    /** holiday settings of a new report: NYSE holidays, no user holidays */
+    public static final BusinessDayCalendar DEFAULT = new BusinessDayCalendar(HolidayCalendar.NYSE,
+            Collections.emptySet());
+
+    private final HolidayCalendar holidayCalendar;
+    private final SortedSet<Integer> userHolidays;
+    private final BitSet businessDays = new BitSet(LAST_EPOCH_DAY - FIRST_EPOCH_DAY + 1);
+    private final int[] businessDaysBefore; // count of business days before each offset (length days + 1)
+    private final int[] businessDayOffsets; // offsets of business days, in order
+
+    /**
+     * @param holidayCalendar holiday rule
+     * @param userHolidays    additional holidays, as dateInts
+     */
+    public BusinessDayCalendar(HolidayCalendar holidayCalendar, Collection<Integer> userHolidays) {
+        this.holidayCalendar = holidayCalendar;
+        this.userHolidays = Collections.unmodifiableSortedSet(new TreeSet<>(userHolidays));
+        int numDays = LAST_EPOCH_DAY - FIRST_EPOCH_DAY + 1;
+        for (int offset = 0; offset < numDays; offset++) {
+            if (isWeekday(FIRST_EPOCH_DAY + offset)) businessDays.set(offset);
+        }
+        for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+            holidayCalendar.addHolidays(year, this::clearDay);
+        }
+        for (int dateInt : this.userHolidays) {
+            clearDay(DateUtils.toEpochDay(dateInt));
+        }
+        businessDaysBefore = new int[numDays + 1];
+        businessDayOffsets = new int[businessDays.cardinality()];
+        int count = 0;
+        for (int offset = 0; offset < numDays; offset++) {
+            businessDaysBefore[offset] = count;
+            if (businessDays.get(offset)) businessDayOffsets[count++] = offset;
+        }
+        businessDaysBefore[numDays] = count;
+    }
+
+    private void clearDay(long epochDay) {
+        if (inRange(epochDay)) businessDays.clear((int) (epochDay - FIRST_EPOCH_DAY));
+    }
+
+    private static boolean inRange(long epochDay) {
+        return epochDay >= FIRST_EPOCH_DAY && epochDay <= LAST_EPOCH_DAY;
+    }
+
+    private static boolean isWeekday(long epochDay) {
+        return DateUtils.getDayOfWeek(epochDay) < DayOfWeek.SATURDAY.getValue();
+    }
+
+    public HolidayCalendar getHolidayCalendar() {
+        return holidayCalendar;
+    }
+
+    public SortedSet<Integer> getUserHolidays() {
+        return userHolidays;
+    }
+
+    public boolean isBusinessDay(int dateInt) {
+        return isBusinessEpochDay(DateUtils.toEpochDay(dateInt));
+    }
+
+    private boolean isBusinessEpochDay(long epochDay) {
+        return inRange(epochDay) ? businessDays.get((int) (epochDay - FIRST_EPOCH_DAY)) : isWeekday(epochDay);
+    }
+
+    /**
+     * @param dateInt reference date
+     * @return latest business day before the date
+     */
+    public int getPrevBusinessDay(int dateInt) {
+        long epochDay = DateUtils.toEpochDay(dateInt);
+        if (epochDay > FIRST_EPOCH_DAY && epochDay <= LAST_EPOCH_DAY + 1) {
+            int count = businessDaysBefore[(int) (epochDay - FIRST_EPOCH_DAY)];
+            if (count > 0) return DateUtils.fromEpochDay(FIRST_EPOCH_DAY + businessDayOffsets[count - 1]);
+        }
+        do {
+            epochDay--;
+        } while (!isBusinessEpochDay(epochDay));
+        return DateUtils.fromEpochDay(epochDay);
+    }
+
+    /**
+     * @param dateInt reference date
+     * @return earliest business day after the date
+     */
+    public int getNextBusinessDay(int dateInt) {
+        long epochDay = DateUtils.toEpochDay(dateInt);
+        if (epochDay >= FIRST_EPOCH_DAY - 1 && epochDay < LAST_EPOCH_DAY) {
+            int count = businessDaysBefore[(int) (epochDay + 1 - FIRST_EPOCH_DAY)];
+            if (count < businessDayOffsets.length) {
+                return DateUtils.fromEpochDay(FIRST_EPOCH_DAY + businessDayOffsets[count]);
+            }
+        }
+        do {
+            epochDay++;
+        } while (!isBusinessEpochDay(epochDay));
+        return DateUtils.fromEpochDay(epochDay);
+    }
+
+    /**
+     * @param dateInt reference date
+     * @return the date if a business day, else the latest business day before it
+     */
+    public int getLatestBusinessDay(int dateInt) {
+        return isBusinessDay(dateInt) ? dateInt : getPrevBusinessDay(dateInt);
+    }
+
+    /**
+     * Counts business days after fromDateInt up to and including toDateInt,
+     * negative if toDateInt precedes fromDateInt.  Both dates must be in
+     * calendar range.
+     *
+     * @param fromDateInt start date (excluded)
+     * @param toDateInt   end date (included)
+     * @return number of business days
+     */
+    public int getBusinessDaysBetween(int fromDateInt, int toDateInt) {
+        long fromEpochDay = DateUtils.toEpochDay(fromDateInt);
+        long toEpochDay = DateUtils.toEpochDay(toDateInt);
+        if (!inRange(fromEpochDay) || !inRange(toEpochDay)) {
+            throw new IllegalArgumentException("Dates outside business day calendar: " + fromDateInt
+                    + ", " + toDateInt);
+        }
+        return businessDaysBefore[(int) (toEpochDay + 1 - FIRST_EPOCH_DAY)]
+                - businessDaysBefore[(int) (fromEpochDay + 1 - FIRST_EPOCH_DAY)];
+    }
+
+    /**
+     * @param dateInt reference date
+     * @return last business day before the start of the date's year
+     */
+    public int getStartYear(int dateInt) {
+        return getPrevBusinessDay(dateInt / 10000 * 10000 + 101);
+    }
+
+    /**
+     * @param dateInt reference date
+     * @return last business day before the start of the date's month
+     */
+    public int getStartMonth(int dateInt) {
+        return getPrevBusinessDay(dateInt / 100 * 100 + 1);
+    }
+
+    /**
+     * @param dateInt reference date
+     * @return last business day before the start of the date's quarter
+     */
+    public int getStartQuarter(int dateInt) {
+        int month = (dateInt / 100) % 100;
+        return getPrevBusinessDay(dateInt / 10000 * 10000 + QUARTER_START_MONTHS[month - 1] * 100 + 1);
+    }
+
+    /**
+     * gets latest business day before "today" (system date)
+     *
+     * @return dateInt of last business day
+     */
+    public int getLastCurrentDateInt() {
+        return getPrevBusinessDay(DateUtils.convertToDateInt(new Date()));
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * CashFlowIndex.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Date-collapsed cash flows held in primitive arrays, together with prefix sums
+ * of the flows and of the date-weighted flows.
+ * <p/>
+ * A return window (start, end] maps to the contiguous slice [lo, hi) of the index,
+ * found by binary search, so the flow sum and the Modified Dietz weighting for any
+ * window are available without walking the individual flows.
+ */
+public final class CashFlowIndex {
+    public static final CashFlowIndex EMPTY = new CashFlowIndex(new int[0], new long[0], 0);
+
+    private final int size;
+    private final int[] dates;          // dateInts, strictly increasing
+    private final long[] dayNumbers;    // day number of each date (excel date value)
+    private final long[] flows;         // collapsed flow on each date
+    private final long[] flowSums;      // flowSums[i] = flows[0] + ... + flows[i-1]
+    private final long[] weightedSums;  // weightedSums[i] = sum of dayNumbers[j] * flows[j] for j < i
+
+    private CashFlowIndex(int[] dates, long[] flows, int size) {
+        this.size = size;
+        this.dates = dates;
+        this.flows = flows;
+        this.dayNumbers = new long[size];
+        this.flowSums = new long[size + 1];
+        this.weightedSums = new long[size + 1];
+        for (int i = 0; i < size; i++) {
+            dayNumbers[i] = DateUtils.getExcelDateValue(dates[i]);
+            flowSums[i + 1] = flowSums[i] + flows[i];
+            weightedSums[i + 1] = weightedSums[i] + dayNumbers[i] * flows[i];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getDate(int i) {
+        return dates[i];
+    }
+
+    public long getFlow(int i) {
+        return flows[i];
+    }
+
+    public long getDayNumber(int i) {
+        return dayNumbers[i];
+    }
+
+    /**
+     * Finds the first entry dated strictly after a given date, so that the
+     * window (start, end] corresponds to [indexAfter(start), indexAfter(end)).
+     *
+     * @param dateInt date to search for
+     * @return index of first entry with date greater than dateInt (size if none)
+     */
+    public int indexAfter(int dateInt) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dates[mid] <= dateInt) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @param lo first index (inclusive)
+     * @param hi last index (exclusive)
+     * @return sum of flows in slice
+     */
+    public long sumFlows(int lo, int hi) {
+        return flowSums[hi] - flowSums[lo];
+    }
+
+    /**
+     * Sum of each flow in the slice multiplied by the number of days from its
+     * date to the end date, i.e. the unnormalized Modified Dietz weighting.
+     *
+     * @param lo         first index (inclusive)
+     * @param hi         last index (exclusive)
+     * @param endDateInt end of return window, on or after all dates in slice
+     * @return date-weighted sum of flows in slice
+     */
+    public long sumWeightedFlows(int lo, int hi, int endDateInt) {
+        long endDayNumber = DateUtils.getExcelDateValue(endDateInt);
+        return endDayNumber * sumFlows(lo, hi) - (weightedSums[hi] - weightedSums[lo]);
+    }
+
+    /**
+     * Accumulates (date, flow) pairs and collapses them into a CashFlowIndex.
+     * Pairs are normally added in date order; if not, they are sorted on build.
+     */
+    public static final class Builder {
+        private int[] dates = new int[16];
+        private long[] flows = new long[16];
+        private int size = 0;
+        private boolean sorted = true;
+
+        public Builder add(int dateInt, long flow) {
+            if (size > 0 && dates[size - 1] == dateInt) {
+                flows[size - 1] += flow;
+                return this;
+            }
+            if (size > 0 && dates[size - 1] > dateInt) sorted = false;
+            if (size == dates.length) {
+                dates = Arrays.copyOf(dates, size * 2);
+                flows = Arrays.copyOf(flows, size * 2);
+            }
+            dates[size] = dateInt;
+            flows[size] = flow;
+            size++;
+            return this;
+        }
+
+        public CashFlowIndex build() {
+            if (size == 0) return EMPTY;
+            if (sorted) return new CashFlowIndex(dates, flows, size);
+
+            // Rare: pairs arrived out of order, so sort by date and collapse again
+            long[] packed = new long[size];
+            for (int i = 0; i < size; i++) {
+                packed[i] = ((long) dates[i] << 32) | i;
+            }
+            Arrays.sort(packed);
+            Builder sortedBuilder = new Builder();
+            for (long entry : packed) {
+                int i = (int) entry;
+                sortedBuilder.add(dates[i], flows[i]);
+            }
+            return sortedBuilder.build();
+        }
+    }
+
+    /**
+     * Combines slices of already-collapsed indices (e.g. the members of a composite)
+     * into a single collapsed index.  Slices are merged pairwise, so combining k slices
+     * holding n flows in total costs O(n log k) primitive copies.
+     */
+    public static final class Merger {
+        private final ArrayList<Run> runs = new ArrayList<>();
+
+        public Merger add(CashFlowIndex index, int lo, int hi) {
+            if (hi > lo) {
+                runs.add(new Run(Arrays.copyOfRange(index.dates, lo, hi),
+                        Arrays.copyOfRange(index.flows, lo, hi), hi - lo));
+            }
+            return this;
+        }
+
+        public CashFlowIndex build() {
+            if (runs.isEmpty()) return EMPTY;
+            ArrayList<Run> current = runs;
+            while (current.size() > 1) {
+                ArrayList<Run> next = new ArrayList<>((current.size() + 1) / 2);
+                for (int i = 0; i < current.size(); i += 2) {
+                    next.add(i + 1 < current.size() ? merge(current.get(i), current.get(i + 1)) : current.get(i));
+                }
+                current = next;
+            }
+            Run run = current.getFirst();
+            return new CashFlowIndex(run.dates, run.flows, run.size);
+        }
+
+        private static Run merge(Run a, Run b) {
+            int[] dates = new int[a.size + b.size];
+            long[] flows = new long[a.size + b.size];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < a.size || j < b.size) {
+                if (j == b.size || (i < a.size && a.dates[i] < b.dates[j])) {
+                    dates[n] = a.dates[i];
+                    flows[n++] = a.flows[i++];
+                } else if (i == a.size || b.dates[j] < a.dates[i]) {
+                    dates[n] = b.dates[j];
+                    flows[n++] = b.flows[j++];
+                } else {
+                    dates[n] = a.dates[i];
+                    flows[n++] = a.flows[i++] + b.flows[j++];
+                }
+            }
+            return new Run(dates, flows, n);
+        }
+
+        private static final class Run {
+            final int[] dates;
+            final long[] flows;
+            final int size;
+
+            Run(int[] dates, long[] flows, int size) {
+                this.dates = dates;
+                this.flows = flows;
+                this.size = size;
+            }
+        }
+    }
+}
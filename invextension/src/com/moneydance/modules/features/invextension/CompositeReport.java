@@ -27,11 +27,17 @@
  */
 package com.moneydance.modules.features.invextension;
 
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 
 /**
  * Aggregator for one or more Security (Leaf-Level) Reports
  * <p/>
+ * A composite is identified by one value per level of the aggregation
+ * controller's grouping; levels which are not specified hold the controller's
+ * aggregator itself (i.e. "all types" at that level).
+ * <p/>
  * Version 1.0
  *
  * @author Dale Furrow
@@ -39,8 +45,7 @@ import java.util.HashSet;
 public final class CompositeReport extends ComponentReport {
 
     private final AggregationController aggregationController;
-    private Aggregator firstAggregator; //aggregator value of first Aggregate Type
-    private Aggregator secondAggregator;//aggregator value of first Aggregate Type
+    private final Aggregator[] aggregatorValues; //aggregator value for each level of the grouping
     private final COMPOSITE_TYPE compositeType; //composite type
     // security report which contains aggregated values
     private SecurityReport aggregateReport;
@@ -57,33 +62,46 @@ public final class CompositeReport extends ComponentReport {
      */
     public CompositeReport(SecurityReport securityReport, AggregationController aggregationController,
                            COMPOSITE_TYPE compositeType) {
+        this(securityReport, aggregationController, compositeType,
+                getAggregatorValues(securityReport, aggregationController, compositeType));
+    }
+
+    /**
+     * Constructor which creates composite with given aggregator values from
+     * "seed" SecurityReport
+     *
+     * @param securityReport        security report which requires composite
+     * @param aggregationController input AggregationMode
+     * @param compositeType         input Composite Type
+     * @param aggregatorValues      aggregator value for each level
+     */
+    public CompositeReport(SecurityReport securityReport, AggregationController aggregationController,
+                           COMPOSITE_TYPE compositeType, Aggregator[] aggregatorValues) {
         this.aggregationController = aggregationController;
         this.compositeType = compositeType;
-
-        switch (compositeType) {
-            //aggregate first value only
-            case FIRST -> {
-                this.firstAggregator = securityReport.getAggregator(aggregationController.getFirstAggregator());
-                this.secondAggregator = aggregationController.getSecondAggregator();
-            }
-            //aggregate second value only
-            case SECOND -> {
-                this.firstAggregator = aggregationController.getFirstAggregator();
-                this.secondAggregator = securityReport.getAggregator(aggregationController.getSecondAggregator());
-            }
-            //aggregate by both first and second value
-            case BOTH -> {
-                this.firstAggregator = securityReport.getAggregator(aggregationController.getFirstAggregator());
-                this.secondAggregator = securityReport.getAggregator(aggregationController.getSecondAggregator());
-            }
-            //used for All-Security aggregate
-            case ALL -> throw new UnsupportedOperationException();
-        }
+        this.aggregatorValues = aggregatorValues;
         this.securityReports = new HashSet<>();
         securityReports.add(securityReport);
         this.aggregateReport = securityReport.getAggregateSecurityReport(this);
     }
 
+    /**
+     * Constructor which creates composite from "seed" composite one level
+     * below it, used to roll up subtotals
+     *
+     * @param compositeReport  composite which rolls up into this composite
+     * @param compositeType    input Composite Type
+     * @param aggregatorValues aggregator value for each level
+     */
+    public CompositeReport(CompositeReport compositeReport, COMPOSITE_TYPE compositeType,
+                           Aggregator[] aggregatorValues) {
+        this.aggregationController = compositeReport.aggregationController;
+        this.compositeType = compositeType;
+        this.aggregatorValues = aggregatorValues;
+        this.securityReports = new HashSet<>(compositeReport.securityReports);
+        this.aggregateReport = compositeReport.aggregateReport.getAggregateSecurityReport(this);
+    }
+
     /**
      * Creates "All" Composite report
      * @param aggregationController report config aggregation controller
@@ -91,25 +109,102 @@ public final class CompositeReport extends ComponentReport {
     public CompositeReport(AggregationController aggregationController){
         this.aggregationController = aggregationController;
         this.compositeType = COMPOSITE_TYPE.ALL;
-        this.firstAggregator = null;
-        this.secondAggregator = null;
+        this.aggregatorValues = null;
         this.securityReports = new HashSet<>();
         this.aggregateReport = null;
     }
 
-
-
+    private static Aggregator[] getAggregatorValues(SecurityReport securityReport,
+                                                    AggregationController aggregationController,
+                                                    COMPOSITE_TYPE compositeType) {
+        List<Aggregator> aggregators = aggregationController.getAggregators();
+        Aggregator[] aggregatorValues = aggregators.toArray(new Aggregator[0]);
+        switch (compositeType) {
+            //aggregate leading values, down to the level above the last (or
+            //the first level without a value, as rolled up)
+            case FIRST -> {
+                for (int level = 0; level < aggregatorValues.length - 1; level++) {
+                    Aggregator aggregator = securityReport.getAggregator(aggregators.get(level));
+                    if (aggregator == AllAggregate.getInstance()) break;
+                    aggregatorValues[level] = aggregator;
+                }
+            }
+            //aggregate all values but the first
+            case SECOND -> {
+                for (int level = 1; level < aggregatorValues.length; level++) {
+                    aggregatorValues[level] = securityReport.getAggregator(aggregators.get(level));
+                }
+            }
+            //aggregate by all values
+            case BOTH -> {
+                for (int level = 0; level < aggregatorValues.length; level++) {
+                    aggregatorValues[level] = securityReport.getAggregator(aggregators.get(level));
+                }
+            }
+            //used for All-Security aggregate
+            case ALL -> throw new UnsupportedOperationException();
+        }
+        return aggregatorValues;
+    }
 
     public HashSet<SecurityReport> getSecurityReports() {
         return securityReports;
     }
 
     public Aggregator getFirstAggregator() {
-        return firstAggregator;
+        return getAggregatorValue(0);
     }
 
     public Aggregator getSecondAggregator() {
-        return secondAggregator;
+        return getAggregatorValue(1);
+    }
+
+    /**
+     * Returns aggregator value at a given level of the grouping
+     *
+     * @param level level of grouping, starting at 0
+     * @return aggregator value, null for the "All" composite
+     */
+    public Aggregator getAggregatorValue(int level) {
+        return aggregatorValues == null || level >= aggregatorValues.length ? null : aggregatorValues[level];
+    }
+
+    /**
+     * Copy of the aggregator values of this composite, one per level
+     *
+     * @return aggregator values, null for the "All" composite
+     */
+    public Aggregator[] getAggregatorValues() {
+        return aggregatorValues == null ? null : aggregatorValues.clone();
+    }
+
+    /**
+     * Determines whether a level of this composite holds a specific aggregate value
+     * (as opposed to all types of the controller's aggregator)
+     *
+     * @param level level of grouping, starting at 0
+     * @return true if value at level is specified
+     */
+    public boolean isSpecified(int level) {
+        return aggregatorValues != null && level < aggregatorValues.length
+                && aggregatorValues[level] != aggregationController.getAggregators().get(level);
+    }
+
+    /**
+     * Name of this composite at a given level, as shown in the report's label columns
+     *
+     * @param level level of grouping, starting at 0
+     * @return aggregate name
+     */
+    public String getLevelName(int level) {
+        if (!isSpecified(level)) {
+            return aggregationController.getAggregators().get(level).getAllTypesName();
+        } else if (compositeType == COMPOSITE_TYPE.FIRST && !isSpecified(level + 1)) {
+            // trailing space sorts subtotal after the rows it totals
+            return aggregatorValues[level].getAggregateName() + " ";
+        } else {
+            return aggregatorValues[level].getAggregateName();
+        }
     }
 
     public SecurityReport getAggregateReport() {
@@ -128,35 +223,65 @@ public final class CompositeReport extends ComponentReport {
     @Override
     public void addTo(SecurityReport securityReport) {
         if (this.isCompositeFor(securityReport)) {
-            this.aggregateReport.addTo(securityReport);
-            this.securityReports.add(securityReport);
-            if (this.aggregateReport.getInvestmentAccountWrapper() != null
-                    && !this.aggregateReport.getInvestmentAccountWrapper()
-                    .equals(securityReport.getInvestmentAccountWrapper()))
-                this.aggregateReport.setInvestmentAccountWrapper(null);
-
-            if (this.aggregateReport.getSecurityTypeWrapper() != null
-                    && !this.aggregateReport.getSecurityTypeWrapper()
-                    .equals(securityReport.getSecurityTypeWrapper()))
-                this.aggregateReport.setSecuritySubTypeWrapper(null);
-
-            if (this.aggregateReport.getSecuritySubTypeWrapper() != null
-                    && !this.aggregateReport.getSecuritySubTypeWrapper()
-                    .equals(securityReport.getSecuritySubTypeWrapper()))
-                this.aggregateReport.setSecuritySubTypeWrapper(null);
-
-            if (this.aggregateReport.getTradeable() != null
-                    && !this.aggregateReport.getTradeable()
-                    .equals(securityReport.getTradeable()))
-                this.aggregateReport.setTradeable(null);
-
-            if (this.aggregateReport.getCurrencyWrapper() != null
-                    && !this.aggregateReport.getCurrencyWrapper()
-                    .equals(securityReport.getCurrencyWrapper())) {
-                this.aggregateReport.setCurrencyWrapper(null);
+            add(securityReport);
+        }
+    }
+
+    /**
+     * Adds security report already known to belong to this composite
+     *
+     * @param securityReport security report to be added
+     */
+    void add(SecurityReport securityReport) {
+        this.aggregateReport.addTo(securityReport);
+        this.securityReports.add(securityReport);
+        clearDifferingAggregators(securityReport);
+    }
+
+    /**
+     * Rolls up composite one level below which is already known to belong to
+     * this composite
+     *
+     * @param compositeReport composite to be added
+     */
+    void add(CompositeReport compositeReport) {
+        this.aggregateReport.addTo(compositeReport.aggregateReport);
+        this.securityReports.addAll(compositeReport.securityReports);
+        clearDifferingAggregators(compositeReport.aggregateReport);
+    }
+
+    private void clearDifferingAggregators(SecurityReport securityReport) {
+        if (this.aggregateReport.getInvestmentAccountWrapper() != null
+                && !this.aggregateReport.getInvestmentAccountWrapper()
+                .equals(securityReport.getInvestmentAccountWrapper()))
+            this.aggregateReport.setInvestmentAccountWrapper(null);
+
+        if (this.aggregateReport.getSecurityTypeWrapper() != null
+                && !this.aggregateReport.getSecurityTypeWrapper()
+                .equals(securityReport.getSecurityTypeWrapper()))
+            this.aggregateReport.setSecuritySubTypeWrapper(null);
+
+        if (this.aggregateReport.getSecuritySubTypeWrapper() != null
+                && !this.aggregateReport.getSecuritySubTypeWrapper()
+                .equals(securityReport.getSecuritySubTypeWrapper()))
+            this.aggregateReport.setSecuritySubTypeWrapper(null);
+
+        if (this.aggregateReport.getTradeable() != null
+                && !this.aggregateReport.getTradeable()
+                .equals(securityReport.getTradeable()))
+            this.aggregateReport.setTradeable(null);
+
+        if (this.aggregateReport.getCurrencyWrapper() != null
+                && !this.aggregateReport.getCurrencyWrapper()
+                .equals(securityReport.getCurrencyWrapper())) {
+            this.aggregateReport.setCurrencyWrapper(null);
 
-            }
         }
+
+        if (this.aggregateReport.getTagAggregator() != null
+                && !this.aggregateReport.getTagAggregator()
+                .equals(securityReport.getTagAggregator()))
+            this.aggregateReport.setTagAggregator(null);
     }
 
     @Override
@@ -170,37 +295,16 @@ public final class CompositeReport extends ComponentReport {
         CompositeReport other = (CompositeReport) obj;
         if (compositeType != other.compositeType)
             return false;
-        if (firstAggregator == null) {
-            if (other.firstAggregator != null)
-                return false;
-        } else if (!firstAggregator.equals(other.firstAggregator))
-            return false;
-        if (secondAggregator == null) {
-            return other.secondAggregator == null;
-        } else return secondAggregator.equals(other.secondAggregator);
+        return Arrays.equals(aggregatorValues, other.aggregatorValues);
     }
 
     public String getName() throws SecurityException, IllegalArgumentException,
             NoSuchFieldException, IllegalAccessException {
         StringBuilder name = new StringBuilder();
-        String firstAggStrName;
-        String secondAggStrName;
-
-        if (this.compositeType == COMPOSITE_TYPE.ALL) {
-            firstAggStrName = aggregationController.getFirstAggregator().getAllTypesName();
-            secondAggStrName = aggregationController.getSecondAggregator().getAllTypesName();
-        } else if (this.compositeType == COMPOSITE_TYPE.FIRST) {
-            firstAggStrName = firstAggregator.getAggregateName() + " ";
-            secondAggStrName = secondAggregator.getAllTypesName();
-        } else if (this.compositeType == COMPOSITE_TYPE.SECOND) {
-            firstAggStrName = firstAggregator.getAllTypesName();
-            secondAggStrName = secondAggregator.getAggregateName();
-        } else { //"Both" Case
-            firstAggStrName = firstAggregator.getAggregateName();
-            secondAggStrName = secondAggregator.getAggregateName();
+        for (int level = 0; level < aggregationController.getAggregators().size(); level++) {
+            name.append(getLevelName(level)).append(": ");
         }
-        name.append(firstAggStrName).append(": ").append(secondAggStrName)
-                .append(": ").append(this.compositeType);
+        name.append(this.compositeType);
         return name.toString();
     }
 
@@ -209,15 +313,8 @@ public final class CompositeReport extends ComponentReport {
         final int prime = 31;
         int result = 1;
         result = prime * result
-                + ((compositeType == null) ? 0 : compositeType.hashCode());
-        result = prime
-                * result
-                + ((firstAggregator == null) ? 0 : firstAggregator
-                .hashCode());
-        result = prime
-                * result
-                + ((secondAggregator == null) ? 0 : secondAggregator
-                .hashCode());
+                + ((compositeType == null) ? 0 : compositeType.ordinal());
+        result = prime * result + Arrays.hashCode(aggregatorValues);
         return result;
     }
 
@@ -230,26 +327,14 @@ public final class CompositeReport extends ComponentReport {
      * composite report
      */
     public boolean isCompositeFor(SecurityReport securityReport) {
-        boolean compositeFor = false;
-        if (this.compositeType == COMPOSITE_TYPE.ALL) {
-            compositeFor = true;
-        } else if (this.compositeType == COMPOSITE_TYPE.SECOND) {
-            if (this.secondAggregator.equals(securityReport
-                    .getAggregator(aggregationController.getSecondAggregator())))
-                compositeFor = true;
-        } else if (this.compositeType == COMPOSITE_TYPE.FIRST) {
-            if (this.firstAggregator.equals(securityReport
-                    .getAggregator(aggregationController.getFirstAggregator())))
-                compositeFor = true;
-        } else {
-            if (this.firstAggregator.equals(securityReport
-                    .getAggregator(aggregationController.getFirstAggregator()))
-                    && this.secondAggregator.equals(securityReport
-                    .getAggregator(aggregationController.getSecondAggregator())))
-                compositeFor = true;
-
+        if (this.compositeType == COMPOSITE_TYPE.ALL) return true;
+        List<Aggregator> aggregators = aggregationController.getAggregators();
+        for (int level = 0; level < aggregatorValues.length; level++) {
+            if (isSpecified(level) && !aggregatorValues[level]
+                    .equals(securityReport.getAggregator(aggregators.get(level))))
+                return false;
         }
-        return compositeFor;
+        return true;
     }
 
     @Override
@@ -264,8 +349,39 @@ public final class CompositeReport extends ComponentReport {
         return aggregationController;
     }
 
+    /**
+     * Identifies a composite by (composite type, aggregator value at each level),
+     * so that a security report or composite can be routed to its composites by hash lookup.
+     */
+    public static final class Key {
+        private final COMPOSITE_TYPE compositeType;
+        private final Aggregator[] aggregatorValues;
+        private final int hash;
+
+        public Key(COMPOSITE_TYPE compositeType, Aggregator[] aggregatorValues) {
+            this.compositeType = compositeType;
+            this.aggregatorValues = aggregatorValues;
+            this.hash = 31 * compositeType.ordinal() + Arrays.hashCode(aggregatorValues);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key other)) return false;
+            return compositeType == other.compositeType
+                    && Arrays.equals(aggregatorValues, other.aggregatorValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
     //COMPOSITE_TYPE controls type of Aggregation (i.e. first aggregator only,
     // second aggregator only, or both (i.e. A, B, A && B)
+    // With more than two levels, FIRST is a subtotal over the leading levels,
+    // SECOND specifies all levels but the first and BOTH specifies every level
     public enum COMPOSITE_TYPE {
         FIRST, SECOND, BOTH, ALL
     }
@@ -0,0 +1,133 @@
+/*
+ * DailyValuation.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+/**
+ * Market value of a security at the end of each day, held in a primitive array
+ * indexed by day number, so that the value on any date is a single lookup.
+ * <p/>
+ * Values are split-adjusted position times price, scaled as in
+ * ExtractorBase.qXp; days before the first transaction have zero value.
+ */
+public final class DailyValuation {
+    public static final DailyValuation EMPTY = new DailyValuation(0, 0, new long[0]);
+
+    private final int firstDateInt;
+    private final int lastDateInt;
+    private final long firstDay;    // day number (excel date value) of values[0]
+    private final long[] values;    // values[i] = value at end of day firstDay + i
+
+    DailyValuation(int firstDateInt, int lastDateInt, long[] values) {
+        this.firstDateInt = firstDateInt;
+        this.lastDateInt = lastDateInt;
+        this.firstDay = values.length == 0 ? 0 : DateUtils.getExcelDateValue(firstDateInt);
+        this.values = values;
+    }
+
+    /**
+     * Builds the valuation from a security's positions and daily prices.  The
+     * position is constant from one position date to the next, except that it is
+     * adjusted for splits on the given adjustment days.
+     *
+     * @param positionDates dates on which position changes, increasing; the first is the first date valued
+     * @param positions     position held from each position date
+     * @param prices        price on each day from the first date, one per day valued
+     * @param pXqScale      divisor of price times position, as ExtractorBase.qXp
+     * @param adjustDays    days (counted from the first date) on which split adjustment may change, increasing
+     * @param adjuster      split adjustment of positions
+     * @return daily valuation
+     */
+    static DailyValuation build(int[] positionDates, long[] positions, long[] prices, long pXqScale,
+                                int[] adjustDays, PositionAdjuster adjuster) {
+        if (positionDates.length == 0 || prices.length == 0) return EMPTY;
+        int firstDateInt = positionDates[0];
+        int days = prices.length;
+        long[] values = new long[days];
+        int adjustIndex = 0;
+        for (int t = 0; t < positionDates.length; t++) {
+            int from = DateUtils.getDaysBetween(firstDateInt, positionDates[t]);
+            int to = t + 1 < positionDates.length
+                    ? Math.min(days, DateUtils.getDaysBetween(firstDateInt, positionDates[t + 1])) : days;
+            if (from >= to || positions[t] == 0) continue;
+            while (adjustIndex < adjustDays.length && adjustDays[adjustIndex] <= from) adjustIndex++;
+            long position = positions[t];
+            for (int i = from, a = adjustIndex; i < to; i++) {
+                if (a < adjustDays.length && adjustDays[a] == i) {
+                    position = adjuster.adjust(positions[t], positionDates[t], DateUtils.addDaysInt(firstDateInt, i));
+                    a++;
+                }
+                values[i] = prices[i] * position / pXqScale;
+            }
+        }
+        return new DailyValuation(firstDateInt, DateUtils.addDaysInt(firstDateInt, days - 1), values);
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public int getFirstDateInt() {
+        return firstDateInt;
+    }
+
+    public int getLastDateInt() {
+        return lastDateInt;
+    }
+
+    /**
+     * @param dateInt date to check
+     * @return true if value on given date is known
+     */
+    public boolean covers(int dateInt) {
+        return values.length == 0 || dateInt <= lastDateInt;
+    }
+
+    /**
+     * @param dateInt date of valuation
+     * @return value at end of given date, or at end of last date covered if later
+     */
+    public long getValue(int dateInt) {
+        if (values.length == 0 || dateInt < firstDateInt) return 0;
+        if (dateInt >= lastDateInt) return values[values.length - 1];
+        return values[(int) (DateUtils.getExcelDateValue(dateInt) - firstDay)];
+    }
+
+    /**
+     * Adjusts a position for splits
+     */
+    interface PositionAdjuster {
+        /**
+         * @param position         position held from reference date
+         * @param referenceDateInt date position was last changed
+         * @param dateInt          date of valuation
+         * @return position in shares of given date
+         */
+        long adjust(long position, int referenceDateInt, int dateInt);
+    }
+}
@@ -61,23 +61,29 @@ public final class DateRange {
         snapDateIsRefDate = null;
     }
 
-    public DateRange(REF_DATE refDate, DATE_RULE dateRule, boolean snapDateIsRefDate) {
+    /**
+     * @param refDate           reference date
+     * @param dateRule          rule giving start date from reference date
+     * @param snapDateIsRefDate true if snapshot date is reference date, else start date
+     * @param calendar          business days of the report
+     */
+    public DateRange(REF_DATE refDate, DATE_RULE dateRule, boolean snapDateIsRefDate, BusinessDayCalendar calendar) {
         this.refDate = refDate;
         this.dateRule = dateRule;
         int refDateInt = DateUtils.convertToDateInt(new Date());
-        if (refDate == REF_DATE.LAST_TRADE_DATE) refDateInt = DateUtils.getLastCurrentDateInt();
+        if (refDate == REF_DATE.LAST_TRADE_DATE) refDateInt = calendar.getLastCurrentDateInt();
         this.snapDateIsRefDate = snapDateIsRefDate;
         int startDateInt = switch (dateRule) {
-            case ONE_DAY -> DateUtils.getPrevBusinessDay(refDateInt);
-            case ONE_WEEK -> DateUtils.getLatestBusinessDay(DateUtils.addDaysInt(refDateInt, -7));
-            case ONE_MONTH -> DateUtils.getLatestBusinessDay(DateUtils.addMonthsInt(refDateInt, -1));
-            case ONE_YEAR -> DateUtils.getLatestBusinessDay(DateUtils.addMonthsInt(refDateInt, -12));
-            case MONTH_TO_DATE -> DateUtils.getStartMonth(refDateInt);
-            case QUARTER_TO_DATE -> DateUtils.getStartQuarter(refDateInt);
-            case YEAR_TO_DATE -> DateUtils.getStartYear(refDateInt);
-            case THREE_YEARS -> DateUtils.getLatestBusinessDay(DateUtils.addMonthsInt(refDateInt, -36));
-            case FIVE_YEARS -> DateUtils.getLatestBusinessDay(DateUtils.addMonthsInt(refDateInt, -60));
-            case TEN_YEARS -> DateUtils.getLatestBusinessDay(DateUtils.addMonthsInt(refDateInt, -120));
+            case ONE_DAY -> calendar.getPrevBusinessDay(refDateInt);
+            case ONE_WEEK -> calendar.getLatestBusinessDay(DateUtils.addDaysInt(refDateInt, -7));
+            case ONE_MONTH -> calendar.getLatestBusinessDay(DateUtils.addMonthsInt(refDateInt, -1));
+            case ONE_YEAR -> calendar.getLatestBusinessDay(DateUtils.addMonthsInt(refDateInt, -12));
+            case MONTH_TO_DATE -> calendar.getStartMonth(refDateInt);
+            case QUARTER_TO_DATE -> calendar.getStartQuarter(refDateInt);
+            case YEAR_TO_DATE -> calendar.getStartYear(refDateInt);
+            case THREE_YEARS -> calendar.getLatestBusinessDay(DateUtils.addMonthsInt(refDateInt, -36));
+            case FIVE_YEARS -> calendar.getLatestBusinessDay(DateUtils.addMonthsInt(refDateInt, -60));
+            case TEN_YEARS -> calendar.getLatestBusinessDay(DateUtils.addMonthsInt(refDateInt, -120));
             default -> refDateInt;
         };
         this.fromDateInt = startDateInt;
@@ -108,18 +114,19 @@ public final class DateRange {
     }
 
     public static DateRange getDefaultDateRange() {
-        return new DateRange(REF_DATE.LAST_TRADE_DATE, DATE_RULE.YEAR_TO_DATE, true);
+        return new DateRange(REF_DATE.LAST_TRADE_DATE, DATE_RULE.YEAR_TO_DATE, true, BusinessDayCalendar.DEFAULT);
     }
 
     /**
      * @param prefString String from preferences
+     * @param calendar   business days of the report
      * @return DateRange stored in preferences
      */
-    public static DateRange getDateRangeFromString(String prefString) {
+    public static DateRange getDateRangeFromString(String prefString, BusinessDayCalendar calendar) {
             String[] prefElements = prefString.split(",");
             if (!prefElements[3].equals(REF_DATE.NONE.name()) && !prefElements[4].equals(DATE_RULE.NONE.name())) { //DateRule
                 return new DateRange(REF_DATE.valueOf(prefElements[3]),
-                        DATE_RULE.valueOf(prefElements[4]), prefElements[5].equals("true"));
+                        DATE_RULE.valueOf(prefElements[4]), prefElements[5].equals("true"), calendar);
             } else {
                 int fromDateInt = Integer.parseInt(prefElements[0]);
                 int toDateInt = Integer.parseInt(prefElements[1]);
@@ -43,8 +43,6 @@ import java.awt.event.*;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.Serial;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.List;
 import java.util.prefs.BackingStoreException;
@@ -54,9 +52,7 @@ import java.util.prefs.BackingStoreException;
  */
 public final class DateRangePanel extends JPanel {
 
-    public static final String DATE_PATTERN = ((SimpleDateFormat) DateFormat
-            .getDateInstance(DateFormat.SHORT, Locale.getDefault()))
-            .toPattern();
+    public static final String DATE_PATTERN = DateUtils.SHORT_DATE_PATTERN;
     public static final CustomDateFormat THIS_DATE_FORMAT = new CustomDateFormat(DATE_PATTERN);
     public static final String DATE_RANGE_CHANGED = "dateRangeChanged";
     private final transient List<PropertyChangeListener> listeners = new ArrayList<>();
@@ -66,6 +62,7 @@ public final class DateRangePanel extends JPanel {
     @Serial
     private static final long serialVersionUID = -5752555026802594107L;
     private transient DateRange dateRange;
+    private transient BusinessDayCalendar businessDayCalendar = BusinessDayCalendar.DEFAULT;
     private final JComboBox<DateRange.REF_DATE> refDateComboBox = new JComboBox<>(new DefaultComboBoxModel<>(DateRange.REF_DATE.values()));
     private final JComboBox<DateRange.DATE_RULE> dateRuleComboBox = new JComboBox<>(new DefaultComboBoxModel<>(DateRange.DATE_RULE.values()));
     private final JCheckBox isSnapDateRefDateCheckbox = new JCheckBox("Snapshot Date = 'To' Date (else 'From' Date)",
@@ -87,7 +84,7 @@ public final class DateRangePanel extends JPanel {
         //set up listeners
         JButton resetButton = new JButton("Reset Dates");
         resetButton.addActionListener(e -> {
-            int lastCurrentDateInt = DateUtils.getLastCurrentDateInt();
+            int lastCurrentDateInt = businessDayCalendar.getLastCurrentDateInt();
             populateDateRangePanel(new DateRange(19700101, lastCurrentDateInt,
                     lastCurrentDateInt));
         });
@@ -263,6 +260,13 @@ public final class DateRangePanel extends JPanel {
 
 
 
+    /**
+     * @param businessDayCalendar business days of the report, used to resolve date rules
+     */
+    public void setBusinessDayCalendar(BusinessDayCalendar businessDayCalendar) {
+        this.businessDayCalendar = businessDayCalendar;
+    }
+
     public void populateDateRangePanel(DateRange dateRange) {
         this.dateRange = dateRange == null ? new DateRange() : dateRange;
         //initialize fields
@@ -321,7 +325,7 @@ public final class DateRangePanel extends JPanel {
             DateRange oldDateRange = dateRange == null ? new DateRange() : dateRange;
             DateRange newDateRange = new DateRange((DateRange.REF_DATE) refDateComboBox.getSelectedItem(),
                     (DateRange.DATE_RULE) dateRuleComboBox.getSelectedItem(),
-                    isSnapDateRefDateCheckbox.isSelected());
+                    isSnapDateRefDateCheckbox.isSelected(), businessDayCalendar);
             fromDateField.setDateInt(newDateRange.getFromDateInt());
             toDateField.setDateInt(newDateRange.getToDateInt());
             snapDateField.setDateInt(newDateRange.getSnapDateInt());
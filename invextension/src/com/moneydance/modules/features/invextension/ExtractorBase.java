@@ -123,7 +123,13 @@ public class ExtractorBase<R> {
     /* <p>Aggregate the financial data from an extractor in this extractor. The financial results
      * for the aggregated data is not computed until ComputeAggregatedFinancialResults is invoked. </p>
      *
-     * @param operand Another extractors whose metric is aggregated into this one. The argument is not modified.
+     * <p>Merge contract: aggregation must be associative and commutative, and the operand may
+     * itself be an aggregate, so that members can be reduced into partial aggregates in any
+     * grouping (possibly on different threads) and the partials merged. An operand is only ever
+     * merged by one thread at a time.</p>
+     *
+     * @param operand Another extractors whose metric is aggregated into this one. The argument is
+     *                not modified, except that it may resolve its own lazily built flows.
      *
      * @return None.
      */
@@ -165,7 +171,7 @@ public class ExtractorBase<R> {
         CurrencyType currency = currencyWrapper.getCurrencyType();
         double splitAdjust = 1.0;
         if (currency != null) {
-            double currentRate = currency.getRate(null, currentDateInt);
+            double currentRate = securityAccount.getFxRateCache().getRate(currency, currentDateInt);
             splitAdjust = currency.adjustRateForSplitsInt(referenceDateInt, currentRate, currentDateInt) / currentRate;
         }
         return Math.round(referencePosition * splitAdjust);
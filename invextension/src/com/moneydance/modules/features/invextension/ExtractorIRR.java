@@ -29,10 +29,8 @@
 package com.moneydance.modules.features.invextension;
 
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
-import java.util.TreeSet;
 
 /**
  * Created by larus on 11/27/14.
@@ -41,7 +39,12 @@ import java.util.TreeSet;
  */
 @SuppressWarnings("ALL")
 public final class ExtractorIRR extends ExtractorModifiedDietzReturn {
-    private TreeSet<ReturnValueElement> incomeValues;
+    // income flows, held like the capital flows in ExtractorReturnBase
+    private CashFlowIndex incomeFlowIndex = null;
+    private int incomeStart = 0;
+    private int incomeEnd = 0;
+    private CashFlowIndex.Merger incomeFlowMerger = null;
+    private final String cacheKey; // row and window, for XIRRCache
 
     private boolean resultCurrent = false;
     private double result = 0;
@@ -50,25 +53,14 @@ public final class ExtractorIRR extends ExtractorModifiedDietzReturn {
     public ExtractorIRR(SecurityAccountWrapper securityAccount, SecurityReport securityReport,
                         int startDateInt, int endDateInt, ReturnWindowType windowType) {
         super(securityAccount, securityReport, startDateInt, endDateInt, windowType);
-        incomeValues = new TreeSet<>();
+        cacheKey = description + tab + windowType.name() + tab + this.startDateInt + tab + this.endDateInt;
 
     }
 
+    // the Modified Dietz result is only the starting guess, no alternate is stored
     @Override
-    public boolean processNextTransaction(TransactionValues transaction, int transactionDateInt) {
-        if (!super.processNextTransaction(transaction, transactionDateInt)) {
-            return false;
-        }
-
-        if (startDateInt < transactionDateInt && transactionDateInt <= endDateInt) {
-            long incomeFlows = transaction.getIncomeExpenseFlows();
-            if (incomeFlows != 0) {
-                incomeValues.add(new ReturnValueElement(transactionDateInt, incomeFlows,
-                        transaction.getTxnID()));
-            }
-        }
-
-        return true;
+    public boolean hasAlternateReturn() {
+        return false;
     }
 
     @Override
@@ -90,16 +82,33 @@ public final class ExtractorIRR extends ExtractorModifiedDietzReturn {
     public void aggregateResults(ExtractorBase<?> op) {
         ExtractorIRR operand = (ExtractorIRR) op;
         super.aggregateResults(operand);
-        incomeValues.addAll(operand.incomeValues);
+        if (incomeFlowMerger == null) {
+            incomeFlowMerger = new CashFlowIndex.Merger();
+            if (incomeFlowIndex != null) incomeFlowMerger.add(incomeFlowIndex, incomeStart, incomeEnd);
+        }
+        incomeFlowMerger.add(operand.incomeFlowIndex, operand.incomeStart, operand.incomeEnd);
         resultCurrent = false;
     }
 
-    private Double computeFinancialResults(double mdReturn) {
-        LinkedList<ReturnValueElement> allTuples = collapseAnnualReturnElements();
+    @Override
+    protected void resolveFlows() {
+        super.resolveFlows();
+        if (securityAccount != null) {
+            if (incomeFlowIndex == null) {
+                incomeFlowIndex = securityAccount.getIncomeFlowIndex();
+                incomeStart = incomeFlowIndex.indexAfter(startDateInt);
+                incomeEnd = incomeFlowIndex.indexAfter(endDateInt);
+            }
+        } else if (incomeFlowMerger != null || incomeFlowIndex == null) {
+            incomeFlowIndex = incomeFlowMerger == null ? CashFlowIndex.EMPTY : incomeFlowMerger.build();
+            incomeFlowMerger = null;
+            incomeStart = 0;
+            incomeEnd = incomeFlowIndex.size();
+        }
+    }
 
-        int outputArraySize = allTuples.size();
-        if (startValue != 0) outputArraySize++;
-        if (endValue != 0) outputArraySize++;
+    private Double computeFinancialResults(double mdReturn) {
+        int outputArraySize = (flowEnd - flowStart) + (incomeEnd - incomeStart) + 2;
         double[] returns = new double[outputArraySize];
         double[] excelDates = new double[outputArraySize];
         int next = 0;
@@ -110,11 +119,7 @@ public final class ExtractorIRR extends ExtractorModifiedDietzReturn {
             next++;
         }
 
-        for (ReturnValueElement returnValueElement : allTuples) {
-            excelDates[next] = DateUtils.getExcelDateValue(returnValueElement.date);
-            returns[next] = (double) returnValueElement.value;
-            next++;
-        }
+        next = mergeAnnualFlows(null, excelDates, returns, next);
 
         if (endValue != 0) {
             excelDates[next] = DateUtils.getExcelDateValue(endDateInt);
@@ -134,15 +139,41 @@ public final class ExtractorIRR extends ExtractorModifiedDietzReturn {
                     guess = Math.max((1 + mdReturn / totYrs), 0.01);
                 }
 
-                XIRRData thisData = new XIRRData(next, guess, returns, excelDates);
-                double xirr = XIRR.xirr(thisData);
-                return xirr;
+                return XIRRCache.xirr(cacheKey, next, guess, returns, excelDates);
             }
         }
 
         return SecurityReport.UndefinedReturn; // No flow in interval, so return is undefined.
     }
 
+    /**
+     * Merges capital flows (sign reversed to comport with annual returns calc) and income
+     * flows by date, one entry per date, into the given arrays starting at position next.
+     *
+     * @return position following last entry written
+     */
+    private int mergeAnnualFlows(int[] dates, double[] excelDates, double[] values, int next) {
+        int i = flowStart;
+        int j = incomeStart;
+        while (i < flowEnd || j < incomeEnd) {
+            int capitalDate = i < flowEnd ? capitalFlowIndex.getDate(i) : Integer.MAX_VALUE;
+            int incomeDate = j < incomeEnd ? incomeFlowIndex.getDate(j) : Integer.MAX_VALUE;
+            long value = 0;
+            if (capitalDate <= incomeDate) {
+                excelDates[next] = capitalFlowIndex.getDayNumber(i);
+                value -= capitalFlowIndex.getFlow(i++);
+            }
+            if (incomeDate <= capitalDate) {
+                excelDates[next] = incomeFlowIndex.getDayNumber(j);
+                value += incomeFlowIndex.getFlow(j++);
+            }
+            if (dates != null) dates[next] = Math.min(capitalDate, incomeDate);
+            values[next] = (double) value;
+            next++;
+        }
+        return next;
+    }
+
     @Override
     public String getAuditString(){
         StringBuilder auditString = new StringBuilder();
@@ -163,33 +194,16 @@ public final class ExtractorIRR extends ExtractorModifiedDietzReturn {
     }
 
     private LinkedList<ReturnValueElement> collapseAnnualReturnElements() {
-        ArrayList<ReturnValueElement> startList = new ArrayList<>();
-
-        // reverse sign to comport with annual returns calc
-        for (ReturnValueElement returnValueElement : capitalValues) {
-            ReturnValueElement newReturnValueElement = returnValueElement.clone();
-            newReturnValueElement.value *= -1;
-            startList.add(newReturnValueElement);
-        }
-        for (ReturnValueElement returnValueElement : incomeValues) {
-            ReturnValueElement newReturnValueElement = returnValueElement.clone();
-            startList.add(newReturnValueElement);
-        }
-
-        Collections.sort(startList);
+        resolveFlows();
+        HashMap<Integer, String> txnIds = getAuditTxnIds(true);
         LinkedList<ReturnValueElement> collapsedList = new LinkedList<>();
-        // Collapse returns on same date to single entry to speed computation
-        for (ReturnValueElement returnValueElement : startList) {
-            if (collapsedList.isEmpty()) {
-                collapsedList.add(returnValueElement.clone());
-            } else {
-                ReturnValueElement lastValue = collapsedList.peekLast();
-                if (lastValue.date == returnValueElement.date) {
-                    lastValue.value += returnValueElement.value;
-                } else {
-                    collapsedList.add(returnValueElement.clone());
-                }
-            }
+        int size = (flowEnd - flowStart) + (incomeEnd - incomeStart);
+        int[] dates = new int[size];
+        double[] values = new double[size];
+        int n = mergeAnnualFlows(dates, new double[size], values, 0);
+        for (int i = 0; i < n; i++) {
+            collapsedList.add(new ReturnValueElement(dates[i], (long) values[i],
+                    txnIds.getOrDefault(dates[i], "")));
         }
         return collapsedList;
     }
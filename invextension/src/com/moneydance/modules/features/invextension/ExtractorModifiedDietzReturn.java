@@ -28,6 +28,9 @@
 
 package com.moneydance.modules.features.invextension;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 
 /**
  * Created by larus on 11/27/14.
@@ -36,6 +39,9 @@ package com.moneydance.modules.features.invextension;
  */
 @SuppressWarnings("ALL")
 public class ExtractorModifiedDietzReturn extends ExtractorReturnBase {
+    static final int TOP_CONTRIBUTORS = 10; // contributors listed in the audit display
+    // leaf extractors rolled up into this aggregate, used for return attribution
+    private ArrayList<ExtractorModifiedDietzReturn> members;
 
 
     // Returns are not defined over an range in which the underlying security is not held, except for the
@@ -48,32 +54,70 @@ public class ExtractorModifiedDietzReturn extends ExtractorReturnBase {
         super(secAccountWrapper, securityReport, startDateInt, endDateInt, returnWindowType);
     }
 
-    public ExtractorModifiedDietzReturn(ExtractorOrdinaryReturn extractorOrdinaryReturn){
-        super(extractorOrdinaryReturn);
-        /* getResult(); removed, causes compilation warning */
-    }
-
     // Compute Modified Dietz return
     @Override
     public double computeReturn() {
-        int intervalDays = 0;
-        double unnormalizedWeightedCF = 0.0;
-        double weightedCF = 0.0;
-        int weightedDays = 0;
-        long sumCF = 0;
-        intervalDays = DateUtils.getDaysBetween(this.startDateInt, this.endDateInt);
-        for (ReturnValueElement returnValueElement : collapseTotalReturnElements()) {
-            weightedDays = DateUtils.getDaysBetween(returnValueElement.date, endDateInt);
-            unnormalizedWeightedCF += weightedDays * returnValueElement.value;
-            sumCF += returnValueElement.value;
+        return computeModifiedDietzReturn();
+    }
+
+    // ordinary return is stored alongside, so switching return type only swaps results
+    @Override
+    public boolean hasAlternateReturn() {
+        return true;
+    }
+
+    @Override
+    protected double computeAlternateReturn() {
+        return computeOrdinaryReturn();
+    }
+
+    // Compiler warning (unchecked cast) because Java v7 type system is too weak to express this.
+    @Override
+    public void aggregateResults(ExtractorBase<?> op) {
+        ExtractorModifiedDietzReturn operand = (ExtractorModifiedDietzReturn) op;
+        super.aggregateResults(operand);
+        if (members == null) members = new ArrayList<>();
+        if (operand.securityAccount != null) {
+            members.add(operand);
+        } else if (operand.members != null) {
+            members.addAll(operand.members);
         }
+    }
 
-        if (intervalDays != 0) {
-            weightedCF = unnormalizedWeightedCF / intervalDays;
-            return ((double) ((endValue + incomeExpenseScalar) - startValue - sumCF))
-                    / (startValue + weightedCF);
-        } else {
-            return SecurityReport.UndefinedReturn;
+    /**
+     * Attributes the return of an aggregate to its securities.  Each contribution is the
+     * gain of a security divided by the average capital of the aggregate, so that the
+     * contributions add up to the aggregate return.  Only valid once the result is solved,
+     * and only while the Modified Dietz return is shown.
+     *
+     * @return contribution by security description, largest first, empty if undefined
+     */
+    public LinkedHashMap<String, Double> getContributions() {
+        LinkedHashMap<String, Double> contributions = new LinkedHashMap<>();
+        int intervalDays = DateUtils.getDaysBetween(this.startDateInt, this.endDateInt);
+        if (members == null || intervalDays == 0 || alternateShown
+                || result == SecurityReport.UndefinedReturn) return contributions;
+        double averageCapital = getAverageCapital(intervalDays);
+        members.stream().sorted(Comparator.comparingDouble(
+                        (ExtractorModifiedDietzReturn member) -> member.getGain()).reversed())
+                .forEach(member -> contributions.merge(member.getDescription(),
+                        member.getGain() / averageCapital, Double::sum));
+        return contributions;
+    }
+
+    @Override
+    public String getAuditString() {
+        StringBuilder auditString = new StringBuilder(super.getAuditString());
+        LinkedHashMap<String, Double> contributions = getContributions();
+        if (!contributions.isEmpty()) {
+            auditString.append(nl).append("Top Contributors (share of aggregate return)").append(nl);
+            contributions.entrySet().stream().limit(TOP_CONTRIBUTORS).forEach(entry -> auditString
+                    .append(entry.getKey()).append(tab).append(entry.getValue()).append(nl));
+            if (contributions.size() > TOP_CONTRIBUTORS) {
+                auditString.append("(").append(contributions.size() - TOP_CONTRIBUTORS)
+                        .append(" more securities)").append(nl);
+            }
         }
+        return auditString.toString();
     }
 }
\ No newline at end of file
@@ -43,27 +43,21 @@ public final class ExtractorOrdinaryReturn extends ExtractorReturnBase {
         super(secAccountWrapper, securityReport, startDateInt, endDateInt, returnWindowType);
     }
 
-    public ExtractorOrdinaryReturn(ExtractorModifiedDietzReturn extractorModifiedDietzReturn){
-        super(extractorModifiedDietzReturn);
-        getResult();
+    // Compute ordinary return
+    @Override
+    public double computeReturn() {
+        return computeOrdinaryReturn();
     }
 
-    // Compute Modified Dietz return
+    // Modified Dietz return is stored alongside, so switching return type only swaps results
     @Override
-    public double computeReturn() {
-        int intervalDays = 0;
-        long sumCF = 0;
-        intervalDays = DateUtils.getDaysBetween(this.startDateInt, this.endDateInt);
-        for (ReturnValueElement returnValueElement : collapseTotalReturnElements()) {
-            sumCF += returnValueElement.value;
-        }
+    public boolean hasAlternateReturn() {
+        return true;
+    }
 
-        if (intervalDays != 0) {
-            return ((double) ((endValue + incomeExpenseScalar) - startValue - sumCF))
-                    / (startValue + sumCF);
-        } else {
-            return SecurityReport.UndefinedReturn;
-        }
+    @Override
+    protected double computeAlternateReturn() {
+        return computeModifiedDietzReturn();
     }
 
 
@@ -40,7 +40,7 @@ public final class ExtractorPriceChanges extends ExtractorBase<List<Number>> {
     }
 
     public List<Number> getResult() {  // PriceChange, ValueChange, PercentPriceChange
-        int prevToSnapDateInt = DateUtils.getPrevBusinessDay(endDateInt);
+        int prevToSnapDateInt = securityAccount.getBusinessDayCalendar().getPrevBusinessDay(endDateInt);
         long prevPrice = securityAccount.getPrice(prevToSnapDateInt);
         long lastPrice = securityAccount.getPrice(endDateInt);
         long endPosition = getEndPosition(securityAccount);
@@ -31,8 +31,8 @@ package com.moneydance.modules.features.invextension;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
-import java.util.TreeSet;
 
 /**
  * Created by larus on 3/1/15.
@@ -42,9 +42,15 @@ import java.util.TreeSet;
 @SuppressWarnings("ALL")
 public class ExtractorReturnBase extends ExtractorBase<Double> {
     protected ReturnWindowType returnWindowType;
-    protected TreeSet<ReturnValueElement> capitalValues;
     protected TransactionValues firstTransaction = null;
     protected long incomeExpenseScalar = 0;
+    // Leaf extractors read capital flows from the security's CashFlowIndex, the slice
+    // [flowStart, flowEnd) covering the window is fixed on first evaluation.
+    // Aggregate extractors hold the merged flows of their members in the same form.
+    protected CashFlowIndex capitalFlowIndex = null;
+    protected int flowStart = 0;
+    protected int flowEnd = 0;
+    private CashFlowIndex.Merger capitalFlowMerger = null; // member slices awaiting merge
 
     protected long startPosition = 0;
     protected long startValue = 0;
@@ -53,9 +59,13 @@ public class ExtractorReturnBase extends ExtractorBase<Double> {
 
     protected boolean resultCurrent = false;
     protected double result = 0;
+    // the other return type (ordinary or Modified Dietz), computed in the same evaluation
+    protected double alternateResult = SecurityReport.UndefinedReturn;
+    protected boolean alternateShown = false; // result and alternateResult switched
     protected String description = "";
 
     protected double priceScale;
+    protected final BusinessDayCalendar businessDayCalendar; // business days of the report
 
     public static final String tab = "\t";
     public static final String nl = "\n";
@@ -64,12 +74,13 @@ public class ExtractorReturnBase extends ExtractorBase<Double> {
     public ExtractorReturnBase(SecurityAccountWrapper secAccountWrapper, SecurityReport securityReport, int startDateInt, int endDateInt,
                                ReturnWindowType returnWindowType) {
         super(secAccountWrapper, startDateInt, endDateInt);
+        businessDayCalendar = secAccountWrapper != null ? secAccountWrapper.getBusinessDayCalendar()
+                : securityReport.reportConfig.getBusinessDayCalendar();
         if (securityReport != null) {
             description = securityReport.getDescription();
             priceScale = securityReport.getPriceScale();
         }
         this.returnWindowType = returnWindowType;
-        capitalValues = new TreeSet<>();
         switch (returnWindowType) {
             case ALL:
                 if (secAccountWrapper == null) {
@@ -79,7 +90,7 @@ public class ExtractorReturnBase extends ExtractorBase<Double> {
                     ArrayList<TransactionValues> transSet = new ArrayList<>(secAccountWrapper
                             .getTransactionValues().values());
                     if (!transSet.isEmpty()) {
-                        this.startDateInt = DateUtils.getPrevBusinessDay(transSet.get(0).getDateInt());
+                        this.startDateInt = businessDayCalendar.getPrevBusinessDay(transSet.get(0).getDateInt());
                         this.endDateInt = endDateInt;
                     } else {
                         break;
@@ -95,22 +106,6 @@ public class ExtractorReturnBase extends ExtractorBase<Double> {
         }
     }
 
-    public ExtractorReturnBase(ExtractorReturnBase extractorReturnBase){
-        super(extractorReturnBase);
-        this.returnWindowType = extractorReturnBase.returnWindowType;
-        this.capitalValues = extractorReturnBase.capitalValues;
-        this.firstTransaction = extractorReturnBase.firstTransaction;
-        this.incomeExpenseScalar = extractorReturnBase.incomeExpenseScalar;
-        this.startPosition = extractorReturnBase.startPosition;
-        this.startValue = extractorReturnBase.startValue;
-        this.endPosition = extractorReturnBase.endPosition;
-        this.endValue = extractorReturnBase.endValue;
-        this.resultCurrent = false;
-        this.result = 0;
-        this.description = extractorReturnBase.description;
-        this.priceScale = extractorReturnBase.priceScale;
-    }
-
     protected static ExtractorReturnBase factory(SecurityAccountWrapper secAccountWrapper, SecurityReport securityReport, int startDateInt,
                                                  int endDateInt, ReturnWindowType returnWindowType, boolean useOrdinary) {
         if (useOrdinary) {
@@ -133,10 +128,8 @@ public class ExtractorReturnBase extends ExtractorBase<Double> {
             if (firstTransaction == null) {
                 firstTransaction = transaction;
             }
+            // capital flows are read from the security's CashFlowIndex, see resolveFlows
             incomeExpenseScalar += transaction.getIncomeExpenseFlows();
-            long cashFlow = transaction.getBuySellFlows();
-            if (cashFlow != 0) capitalValues.add(new ReturnValueElement(transactionDateInt,
-                    cashFlow, transaction.getTxnID()));
         }
 
         return true;
@@ -152,6 +145,9 @@ public class ExtractorReturnBase extends ExtractorBase<Double> {
         if (operand.lastTransactionWithinDateRange != null) {
             this.endDateInt = Math.max(this.endDateInt, operand.endDateInt);
         }
+        // carry transaction markers so that this aggregate can itself be rolled up
+        if (firstTransaction == null) firstTransaction = operand.firstTransaction;
+        if (lastTransactionWithinDateRange == null) lastTransactionWithinDateRange = operand.lastTransactionWithinDateRange;
 
         startPosition += operand.startPosition;
         startValue += operand.startValue;
@@ -159,7 +155,12 @@ public class ExtractorReturnBase extends ExtractorBase<Double> {
         endValue += operand.endValue;
 
         incomeExpenseScalar += operand.incomeExpenseScalar;
-        capitalValues.addAll(operand.capitalValues);
+        operand.resolveFlows();
+        if (capitalFlowMerger == null) {
+            capitalFlowMerger = new CashFlowIndex.Merger();
+            if (capitalFlowIndex != null) capitalFlowMerger.add(capitalFlowIndex, flowStart, flowEnd);
+        }
+        capitalFlowMerger.add(operand.capitalFlowIndex, operand.flowStart, operand.flowEnd);
         resultCurrent = false;
     }
 
@@ -199,6 +200,7 @@ public class ExtractorReturnBase extends ExtractorBase<Double> {
 
     public Double getResult() {
         if (!resultCurrent) {
+            resolveFlows(); // window may move below, so fix slice of flows first
             if (securityAccount != null) {
                 // Not aggregate account
                 startPosition = getStartPosition(securityAccount);
@@ -210,43 +212,169 @@ public class ExtractorReturnBase extends ExtractorBase<Double> {
             }
             switch (returnWindowType) {
                 case DEFAULT:
-                    if (startValue == 0) return SecurityReport.UndefinedReturn;
-                    if (endValue == 0 && !capitalValues.isEmpty()) {
-                        this.endDateInt = capitalValues.last().date;
+                    if (startValue == 0) return setUndefinedResult();
+                    if (endValue == 0 && hasCapitalFlows()) {
+                        this.endDateInt = getLastCapitalFlowDate();
                     }
                     break;
                 case STUB: //returns same as 'ANY' IFF DEFAULT returns undefined
-                    if (startValue != 0) return SecurityReport.UndefinedReturn;
-                    if (startValue == 0 && !capitalValues.isEmpty()) {
-                        this.startDateInt = DateUtils.getPrevBusinessDay(capitalValues.first().date);
+                    if (startValue != 0) return setUndefinedResult();
+                    if (startValue == 0 && hasCapitalFlows()) {
+                        this.startDateInt = businessDayCalendar.getPrevBusinessDay(getFirstCapitalFlowDate());
                     }
-                    if (endValue == 0 && !capitalValues.isEmpty()) {
-                        this.endDateInt = capitalValues.last().date;
+                    if (endValue == 0 && hasCapitalFlows()) {
+                        this.endDateInt = getLastCapitalFlowDate();
                     }
                     break;
                 case ANY:
-                    if (startValue == 0 && !capitalValues.isEmpty()) {
-                        this.startDateInt = DateUtils.getPrevBusinessDay(capitalValues.first().date);
+                    if (startValue == 0 && hasCapitalFlows()) {
+                        this.startDateInt = businessDayCalendar.getPrevBusinessDay(getFirstCapitalFlowDate());
                     }
-                    if (endValue == 0 && !capitalValues.isEmpty()) {
-                        this.endDateInt = capitalValues.last().date;
+                    if (endValue == 0 && hasCapitalFlows()) {
+                        this.endDateInt = getLastCapitalFlowDate();
                     }
                     break;
                 case ALL:
-                    if (endValue == 0 && !capitalValues.isEmpty()) {
-                        this.endDateInt = capitalValues.last().date;
+                    if (endValue == 0 && hasCapitalFlows()) {
+                        this.endDateInt = getLastCapitalFlowDate();
                     }
                     break;
             }
             result = computeReturn();
+            if (hasAlternateReturn()) {
+                alternateResult = computeAlternateReturn();
+                if (alternateShown) swapResults();
+            }
             resultCurrent = true;
         }
 
         return result;
     }
 
-    public TreeSet<ReturnValueElement> getCapitalValues() {
-        return capitalValues;
+    // the window has no return of this type, so neither return type is defined
+    private Double setUndefinedResult() {
+        result = SecurityReport.UndefinedReturn;
+        alternateResult = SecurityReport.UndefinedReturn;
+        resultCurrent = true;
+        return result;
+    }
+
+    /**
+     * Switches the result between the return type of this extractor and its
+     * alternate.  Both are stored by one evaluation, so nothing is recomputed.
+     *
+     * @return new result
+     */
+    public Double switchReturnType() {
+        alternateShown = !alternateShown;
+        if (resultCurrent) swapResults();
+        return getResult();
+    }
+
+    private void swapResults() {
+        double shown = alternateResult;
+        alternateResult = result;
+        result = shown;
+    }
+
+    /**
+     * @return true if the other return type is computed along with the result
+     */
+    public boolean hasAlternateReturn() {
+        return false;
+    }
+
+    /**
+     * @return the other return type over the same window, once the window is fixed
+     */
+    protected double computeAlternateReturn() {
+        return SecurityReport.UndefinedReturn;
+    }
+
+    /**
+     * @return Modified Dietz return: gain over start value plus time-weighted capital flows
+     */
+    protected double computeModifiedDietzReturn() {
+        int intervalDays = DateUtils.getDaysBetween(this.startDateInt, this.endDateInt);
+        if (intervalDays != 0) {
+            return ((double) getGain()) / getAverageCapital(intervalDays);
+        } else {
+            return SecurityReport.UndefinedReturn;
+        }
+    }
+
+    /**
+     * @param intervalDays days in return window
+     * @return start value plus capital flows, each weighted by its time in the window
+     */
+    protected double getAverageCapital(int intervalDays) {
+        return startValue + getWeightedCapitalFlowSum() / intervalDays;
+    }
+
+    /**
+     * @return ordinary return: gain over start value plus all capital flows
+     */
+    protected double computeOrdinaryReturn() {
+        int intervalDays = DateUtils.getDaysBetween(this.startDateInt, this.endDateInt);
+        if (intervalDays != 0) {
+            long sumCF = getCapitalFlowSum();
+            return ((double) ((endValue + incomeExpenseScalar) - startValue - sumCF))
+                    / (startValue + sumCF);
+        } else {
+            return SecurityReport.UndefinedReturn;
+        }
+    }
+
+    /**
+     * Fixes the flows seen by this extractor: for a security, the slice of its flow index
+     * within the window; for an aggregate, the merge of all member slices added so far.
+     */
+    protected void resolveFlows() {
+        if (securityAccount != null) {
+            if (capitalFlowIndex == null) {
+                capitalFlowIndex = securityAccount.getCapitalFlowIndex();
+                flowStart = capitalFlowIndex.indexAfter(startDateInt);
+                flowEnd = capitalFlowIndex.indexAfter(endDateInt);
+            }
+        } else if (capitalFlowMerger != null || capitalFlowIndex == null) {
+            capitalFlowIndex = capitalFlowMerger == null ? CashFlowIndex.EMPTY : capitalFlowMerger.build();
+            capitalFlowMerger = null;
+            flowStart = 0;
+            flowEnd = capitalFlowIndex.size();
+        }
+    }
+
+    protected boolean hasCapitalFlows() {
+        return flowEnd > flowStart;
+    }
+
+    protected int getFirstCapitalFlowDate() {
+        return capitalFlowIndex.getDate(flowStart);
+    }
+
+    protected int getLastCapitalFlowDate() {
+        return capitalFlowIndex.getDate(flowEnd - 1);
+    }
+
+    /**
+     * @return change in value over the window, net of capital flows and including income
+     */
+    protected long getGain() {
+        return (endValue + incomeExpenseScalar) - startValue - getCapitalFlowSum();
+    }
+
+    /**
+     * @return sum of capital flows in window
+     */
+    protected long getCapitalFlowSum() {
+        return capitalFlowIndex.sumFlows(flowStart, flowEnd);
+    }
+
+    /**
+     * @return sum of capital flows in window, each weighted by days remaining to end of window
+     */
+    protected double getWeightedCapitalFlowSum() {
+        return capitalFlowIndex.sumWeightedFlows(flowStart, flowEnd, endDateInt);
     }
 
     public String getDescription() {
@@ -254,21 +382,35 @@ public class ExtractorReturnBase extends ExtractorBase<Double> {
     }
 
     public LinkedList<ReturnValueElement> collapseTotalReturnElements() {
+        resolveFlows();
+        HashMap<Integer, String> txnIds = getAuditTxnIds(false);
         LinkedList<ReturnValueElement> collapsedList = new LinkedList<>();
-        // Collapse returns on same date to single entry to speed computation
-        for (ReturnValueElement returnValueElement : capitalValues) {
-            if (collapsedList.isEmpty()) {
-                collapsedList.add(returnValueElement.clone());
-            } else {
-                ReturnValueElement lastValue = collapsedList.peekLast();
-                if (lastValue.date == returnValueElement.date) {
-                    lastValue.value += returnValueElement.value;
-                } else {
-                    collapsedList.add(returnValueElement.clone());
+        for (int i = flowStart; i < flowEnd; i++) {
+            int dateInt = capitalFlowIndex.getDate(i);
+            collapsedList.add(new ReturnValueElement(dateInt, capitalFlowIndex.getFlow(i),
+                    txnIds.getOrDefault(dateInt, "")));
+        }
+        return collapsedList;
+    }
+
+    /**
+     * For audit display only: finds the first transaction bearing a flow on each date.
+     * Aggregates have no transactions of their own, so their flows show no id.
+     *
+     * @param includeIncome true to count income/expense flows as well as buy/sells
+     * @return map of date to transaction id
+     */
+    protected HashMap<Integer, String> getAuditTxnIds(boolean includeIncome) {
+        HashMap<Integer, String> txnIds = new HashMap<>();
+        if (securityAccount != null && securityAccount.getTransactionValues() != null) {
+            for (TransactionValues transaction : securityAccount.getTransactionValues().values()) {
+                if (transaction.getBuySellFlows() != 0
+                        || (includeIncome && transaction.getIncomeExpenseFlows() != 0)) {
+                    txnIds.putIfAbsent(transaction.getDateInt(), transaction.getTxnID());
                 }
             }
         }
-        return collapsedList;
+        return txnIds;
     }
 
     public double computeReturn() {
@@ -0,0 +1,148 @@
+/*
+ * ExtractorTimeWeightedReturn.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compute the time-weighted return for an investment.
+ * <p/>
+ * The window is split at each date bearing a capital or income flow; the return of each
+ * sub-period is taken from the values at its ends, read from the daily valuation of the
+ * security (or the sum over the members of an aggregate), and the sub-period returns are
+ * linked geometrically.  Flows are taken to occur at the end of their day.
+ */
+@SuppressWarnings("ALL")
+public final class ExtractorTimeWeightedReturn extends ExtractorReturnBase {
+    // income flows, held like the capital flows in ExtractorReturnBase
+    private CashFlowIndex incomeFlowIndex = null;
+    private int incomeStart = 0;
+    private int incomeEnd = 0;
+    private CashFlowIndex.Merger incomeFlowMerger = null;
+    // daily valuation of the security, or of each member of an aggregate
+    private final ArrayList<DailyValuation> valuations = new ArrayList<>();
+
+
+    public ExtractorTimeWeightedReturn(SecurityAccountWrapper securityAccount, SecurityReport securityReport,
+                                       int startDateInt, int endDateInt, ReturnWindowType windowType) {
+        super(securityAccount, securityReport, startDateInt, endDateInt, windowType);
+    }
+
+    // Compiler warning (unchecked cast) because Java v7 type system is too weak to express this.
+    @Override
+    public void aggregateResults(ExtractorBase<?> op) {
+        ExtractorTimeWeightedReturn operand = (ExtractorTimeWeightedReturn) op;
+        super.aggregateResults(operand);
+        if (incomeFlowMerger == null) {
+            incomeFlowMerger = new CashFlowIndex.Merger();
+            if (incomeFlowIndex != null) incomeFlowMerger.add(incomeFlowIndex, incomeStart, incomeEnd);
+        }
+        incomeFlowMerger.add(operand.incomeFlowIndex, operand.incomeStart, operand.incomeEnd);
+        valuations.addAll(operand.valuations);
+    }
+
+    @Override
+    protected void resolveFlows() {
+        super.resolveFlows();
+        if (securityAccount != null) {
+            if (incomeFlowIndex == null) {
+                incomeFlowIndex = securityAccount.getIncomeFlowIndex();
+                incomeStart = incomeFlowIndex.indexAfter(startDateInt);
+                incomeEnd = incomeFlowIndex.indexAfter(endDateInt);
+                valuations.add(securityAccount.getDailyValuation(endDateInt));
+            }
+        } else if (incomeFlowMerger != null || incomeFlowIndex == null) {
+            incomeFlowIndex = incomeFlowMerger == null ? CashFlowIndex.EMPTY : incomeFlowMerger.build();
+            incomeFlowMerger = null;
+            incomeStart = 0;
+            incomeEnd = incomeFlowIndex.size();
+        }
+    }
+
+    @Override
+    public double computeReturn() {
+        return linkReturns(startDateInt, endDateInt, capitalFlowIndex, flowStart, flowEnd,
+                incomeFlowIndex, incomeStart, incomeEnd, valuations);
+    }
+
+    /**
+     * Links the returns of the sub-periods between flow dates.
+     *
+     * @param startDateInt  start of return window
+     * @param endDateInt    end of return window
+     * @param capitalFlows  buy/sell flows
+     * @param capitalStart  first capital flow in window
+     * @param capitalEnd    end (exclusive) of capital flows in window
+     * @param incomeFlows   income/expense flows
+     * @param incomeStart   first income flow in window
+     * @param incomeEnd     end (exclusive) of income flows in window
+     * @param valuations    daily valuation of each security valued
+     * @return time-weighted return, or UndefinedReturn if nothing was held
+     */
+    static double linkReturns(int startDateInt, int endDateInt, CashFlowIndex capitalFlows, int capitalStart,
+                              int capitalEnd, CashFlowIndex incomeFlows, int incomeStart, int incomeEnd,
+                              List<DailyValuation> valuations) {
+        double growth = 1.0;
+        boolean linked = false;
+        long periodStartValue = getValue(valuations, startDateInt);
+        int lastDateInt = startDateInt;
+        int i = capitalStart;
+        int j = incomeStart;
+        while (i < capitalEnd || j < incomeEnd) {
+            int capitalDate = i < capitalEnd ? capitalFlows.getDate(i) : Integer.MAX_VALUE;
+            int incomeDate = j < incomeEnd ? incomeFlows.getDate(j) : Integer.MAX_VALUE;
+            int dateInt = Math.min(capitalDate, incomeDate);
+            // purchases add to value without return, income is return paid out of value
+            long flow = 0;
+            if (capitalDate == dateInt) flow -= capitalFlows.getFlow(i++);
+            if (incomeDate == dateInt) flow += incomeFlows.getFlow(j++);
+            long value = getValue(valuations, dateInt);
+            if (periodStartValue != 0) {
+                growth *= (value + flow) / (double) periodStartValue;
+                linked = true;
+            }
+            periodStartValue = value;
+            lastDateInt = dateInt;
+        }
+        if (lastDateInt < endDateInt && periodStartValue != 0) {
+            growth *= getValue(valuations, endDateInt) / (double) periodStartValue;
+            linked = true;
+        }
+        return linked ? growth - 1.0 : SecurityReport.UndefinedReturn;
+    }
+
+    private static long getValue(List<DailyValuation> valuations, int dateInt) {
+        long value = 0;
+        for (DailyValuation valuation : valuations) {
+            value += valuation.getValue(dateInt);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * FxRateCache.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import com.infinitekind.moneydance.model.CurrencySnapshot;
+import com.infinitekind.moneydance.model.CurrencyType;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches currency rates for one report run, so that pricing a security on a date
+ * or converting an amount to the reporting currency reads a primitive series by
+ * binary search instead of walking the currency's snapshots each time.
+ * <p/>
+ * Each series is built on first use from the rates Moneydance reports on the
+ * snapshot dates, so lookups agree with CurrencyType.getRate.  Report threads
+ * may read the cache concurrently.
+ */
+public final class FxRateCache {
+    private final ConcurrentHashMap<CurrencyType, FxRateSeries> seriesByCurrency = new ConcurrentHashMap<>();
+
+    /**
+     * @param currencyType currency
+     * @param dateInt      date of rate
+     * @return rate of currency relative to base currency, as CurrencyType.getRate(null, dateInt)
+     */
+    public double getRate(CurrencyType currencyType, int dateInt) {
+        return getSeries(currencyType).getRate(dateInt);
+    }
+
+    /**
+     * @param currencyType security currency
+     * @param dateInt      date of price
+     * @return rate of security relative to base currency, the first snapshot's rate before any snapshot
+     */
+    public double getPriceRate(CurrencyType currencyType, int dateInt) {
+        return getSeries(currencyType).getPriceRate(dateInt);
+    }
+
+    /**
+     * @param currencyType currency
+     * @param firstDateInt date of first rate
+     * @param days         number of days
+     * @param priceRates   true for the rates of getPriceRate, false for those of getRate
+     * @return rate on each day from the first date
+     */
+    public double[] getDailyRates(CurrencyType currencyType, int firstDateInt, int days, boolean priceRates) {
+        return getSeries(currencyType).getDailyRates(firstDateInt, days, priceRates);
+    }
+
+    /**
+     * @param from    currency of amount
+     * @param to      currency to convert to
+     * @param dateInt date of conversion
+     * @return factor converting an amount in one currency to the other
+     */
+    public double getConversionRate(CurrencyType from, CurrencyType to, int dateInt) {
+        return from == to ? 1.0 : getRate(to, dateInt) / getRate(from, dateInt);
+    }
+
+    private FxRateSeries getSeries(CurrencyType currencyType) {
+        return seriesByCurrency.computeIfAbsent(currencyType, FxRateCache::buildSeries);
+    }
+
+    private static FxRateSeries buildSeries(CurrencyType currencyType) {
+        int[] dateInts = currencyType.getSnapshots().stream().mapToInt(CurrencySnapshot::getDateInt)
+                .sorted().distinct().toArray();
+        double[] rates = new double[dateInts.length];
+        for (int i = 0; i < dateInts.length; i++) {
+            rates[i] = currencyType.getRate(null, dateInts[i]);
+        }
+        int beforeFirstDateInt = dateInts.length == 0 ? DateUtils.convertToDateInt(new Date())
+                : DateUtils.addDaysInt(dateInts[0], -1);
+        return new FxRateSeries(dateInts, rates, currencyType.getRate(null, beforeFirstDateInt));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * FxRateSeries.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import java.util.Arrays;
+
+/**
+ * Rates of one currency relative to the base currency held in primitive arrays,
+ * one rate per snapshot date.  The rate on any date is the rate of the latest
+ * snapshot on or before it, found by binary search.
+ */
+public final class FxRateSeries {
+    private final int[] dateInts;        // snapshot dateInts, strictly increasing
+    private final double[] rates;        // rate in effect from each snapshot date
+    private final double rateBeforeFirst; // rate before the first snapshot, or of a currency without snapshots
+
+    /**
+     * @param dateInts        snapshot dates, strictly increasing
+     * @param rates           rate in effect from each snapshot date
+     * @param rateBeforeFirst rate for dates before the first snapshot
+     */
+    public FxRateSeries(int[] dateInts, double[] rates, double rateBeforeFirst) {
+        if (dateInts.length != rates.length) throw new IllegalArgumentException("dates and rates differ in length");
+        this.dateInts = dateInts;
+        this.rates = rates;
+        this.rateBeforeFirst = rateBeforeFirst;
+    }
+
+    public int size() {
+        return dateInts.length;
+    }
+
+    /**
+     * @param dateInt date of rate
+     * @return rate of latest snapshot on or before the date
+     */
+    public double getRate(int dateInt) {
+        int i = floorIndex(dateInt);
+        return i < 0 ? rateBeforeFirst : rates[i];
+    }
+
+    /**
+     * Rate used to price a security: dates before the first snapshot take the rate of
+     * the first snapshot rather than the current rate.
+     *
+     * @param dateInt date of rate
+     * @return rate of latest snapshot on or before the date, else of the first snapshot
+     */
+    public double getPriceRate(int dateInt) {
+        int i = floorIndex(dateInt);
+        return i >= 0 ? rates[i] : dateInts.length > 0 ? rates[0] : rateBeforeFirst;
+    }
+
+    /**
+     * Rates on consecutive days, each snapshot's rate filled forward to the next
+     * snapshot date.
+     *
+     * @param firstDateInt date of first rate
+     * @param days         number of days
+     * @param priceRates   true for the rates of getPriceRate, false for those of getRate
+     * @return rates[i] = rate on i-th day after first date
+     */
+    public double[] getDailyRates(int firstDateInt, int days, boolean priceRates) {
+        double[] daily = new double[days];
+        long firstDay = DateUtils.toEpochDay(firstDateInt);
+        int i = floorIndex(firstDateInt);
+        int from = 0;
+        while (from < days) {
+            int next = i + 1;
+            int to = next < dateInts.length
+                    ? (int) Math.min(days, DateUtils.toEpochDay(dateInts[next]) - firstDay) : days;
+            Arrays.fill(daily, from, to, i >= 0 ? rates[i]
+                    : priceRates && dateInts.length > 0 ? rates[0] : rateBeforeFirst);
+            from = to;
+            i = next;
+        }
+        return daily;
+    }
+
+    private int floorIndex(int dateInt) {
+        int i = Arrays.binarySearch(dateInts, dateInt);
+        return i >= 0 ? i : -i - 2;
+    }
+}
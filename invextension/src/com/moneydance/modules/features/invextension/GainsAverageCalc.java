@@ -113,7 +113,8 @@ public final class GainsAverageCalc implements GainsCalc {
 
         int currentDateInt = thisTransactionValues.getParentTxn().getDateInt();
         CurrencyType cur = thisTransactionValues.getReferenceAccount().getCurrencyType();
-        double currentRate = cur.getRate(null, currentDateInt);
+        double currentRate = thisTransactionValues.getSecurityAccountWrapper().getFxRateCache()
+                .getRate(cur, currentDateInt);
         int prevDateInt = prevTransValues == null ? Integer.MIN_VALUE
                 : prevTransValues.getParentTxn().getDateInt();
         double splitAdjust = cur.adjustRateForSplitsInt(prevDateInt, currentRate,
@@ -70,7 +70,7 @@ public final class GainsLotMatchCalc implements GainsCalc {
     private static double calcSplitAdjust(TransactionValues thisTrans, TransactionValues prevTransValues) {
         int currentDateInt = thisTrans.getParentTxn().getDateInt();
         CurrencyType cur = thisTrans.getReferenceAccount().getCurrencyType();
-        double currentRate = cur.getRate(null, currentDateInt);
+        double currentRate = thisTrans.getSecurityAccountWrapper().getFxRateCache().getRate(cur, currentDateInt);
         int prevDateInt = prevTransValues == null ? Integer.MIN_VALUE
                 : prevTransValues.getParentTxn().getDateInt();
         return cur.adjustRateForSplitsInt( prevDateInt, currentRate, currentDateInt) / currentRate;
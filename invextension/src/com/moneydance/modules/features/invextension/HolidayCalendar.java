@@ -0,0 +1,186 @@
+/*
+ * HolidayCalendar.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import java.time.DayOfWeek;
+import java.util.function.IntConsumer;
+
+/**
+ * Holiday rules for the business day calendar.  Each rule supplies the
+ * exchange holidays (as epoch days) falling in a given year; weekends are
+ * handled by BusinessDayCalendar.  One-off closures are not included and can
+ * be added through the user holiday list.
+ */
+public enum HolidayCalendar {
+    NYSE("New York Stock Exchange") {
+        @Override
+        void addHolidays(int year, IntConsumer holidays) {
+            // New Year's Day falling on Saturday is not observed on the prior Friday
+            long newYear = DateUtils.toEpochDay(year * 10000 + 101);
+            if (DateUtils.getDayOfWeek(newYear) != DayOfWeek.SATURDAY.getValue()) {
+                holidays.accept((int) nearestWeekday(newYear));
+            }
+            if (year >= 1998) holidays.accept((int) nthWeekday(year, 1, 3, DayOfWeek.MONDAY)); // MLK Day
+            holidays.accept((int) nthWeekday(year, 2, 3, DayOfWeek.MONDAY));                   // Presidents Day
+            holidays.accept((int) (easterSunday(year) - 2));                                  // Good Friday
+            holidays.accept((int) nthWeekday(year, 5, 0, DayOfWeek.MONDAY));                   // Memorial Day
+            if (year >= 2022) {
+                holidays.accept((int) nearestWeekday(DateUtils.toEpochDay(year * 10000 + 619))); // Juneteenth
+            }
+            holidays.accept((int) nearestWeekday(DateUtils.toEpochDay(year * 10000 + 704)));    // Independence Day
+            holidays.accept((int) nthWeekday(year, 9, 1, DayOfWeek.MONDAY));                   // Labor Day
+            holidays.accept((int) nthWeekday(year, 11, 4, DayOfWeek.THURSDAY));                // Thanksgiving
+            holidays.accept((int) nearestWeekday(DateUtils.toEpochDay(year * 10000 + 1225)));   // Christmas
+        }
+    },
+    TSX("Toronto Stock Exchange") {
+        @Override
+        void addHolidays(int year, IntConsumer holidays) {
+            holidays.accept((int) nextWeekday(DateUtils.toEpochDay(year * 10000 + 101)));        // New Year's Day
+            if (year >= 2008) holidays.accept((int) nthWeekday(year, 2, 3, DayOfWeek.MONDAY)); // Family Day
+            holidays.accept((int) (easterSunday(year) - 2));                                  // Good Friday
+            holidays.accept((int) lastWeekdayOnOrBefore(DateUtils.toEpochDay(year * 10000 + 524),
+                    DayOfWeek.MONDAY));                                                        // Victoria Day
+            holidays.accept((int) nextWeekday(DateUtils.toEpochDay(year * 10000 + 701)));        // Canada Day
+            holidays.accept((int) nthWeekday(year, 8, 1, DayOfWeek.MONDAY));                   // Civic Holiday
+            holidays.accept((int) nthWeekday(year, 9, 1, DayOfWeek.MONDAY));                   // Labour Day
+            holidays.accept((int) nthWeekday(year, 10, 2, DayOfWeek.MONDAY));                  // Thanksgiving
+            addChristmasAndBoxingDay(year, holidays);
+        }
+    },
+    LSE("London Stock Exchange") {
+        @Override
+        void addHolidays(int year, IntConsumer holidays) {
+            holidays.accept((int) nextWeekday(DateUtils.toEpochDay(year * 10000 + 101)));        // New Year's Day
+            long easter = easterSunday(year);
+            holidays.accept((int) (easter - 2));                                              // Good Friday
+            holidays.accept((int) (easter + 1));                                              // Easter Monday
+            if (year >= 1978) holidays.accept((int) nthWeekday(year, 5, 1, DayOfWeek.MONDAY)); // Early May
+            holidays.accept((int) nthWeekday(year, 5, 0, DayOfWeek.MONDAY));                   // Spring
+            holidays.accept((int) nthWeekday(year, 8, 0, DayOfWeek.MONDAY));                   // Summer
+            addChristmasAndBoxingDay(year, holidays);
+        }
+    },
+    USER_LIST("User Holiday List Only") {
+        @Override
+        void addHolidays(int year, IntConsumer holidays) {
+        }
+    };
+
+    private final String description;
+
+    HolidayCalendar(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * supplies holidays of the year, as epoch days, to the consumer
+     *
+     * @param year     calendar year
+     * @param holidays receives epoch day of each holiday
+     */
+    abstract void addHolidays(int year, IntConsumer holidays);
+
+    /*
+     * nth (0 for last) occurrence of dayOfWeek in month (1-12) of year
+     */
+    static long nthWeekday(int year, int month, int nth, DayOfWeek dayOfWeek) {
+        if (nth <= 0) {
+            long lastOfMonth = DateUtils.toEpochDay(DateUtils.addDaysInt(
+                    DateUtils.addMonthsInt(year * 10000 + month * 100 + 1, 1), -1));
+            return lastWeekdayOnOrBefore(lastOfMonth, dayOfWeek);
+        }
+        long firstOfMonth = DateUtils.toEpochDay(year * 10000 + month * 100 + 1);
+        int offset = Math.floorMod(dayOfWeek.getValue() - DateUtils.getDayOfWeek(firstOfMonth), 7);
+        return firstOfMonth + offset + (nth - 1) * 7L;
+    }
+
+    static long lastWeekdayOnOrBefore(long epochDay, DayOfWeek dayOfWeek) {
+        return epochDay - Math.floorMod(DateUtils.getDayOfWeek(epochDay) - dayOfWeek.getValue(), 7);
+    }
+
+    /*
+     * US observance: Saturday holiday moves to Friday, Sunday holiday to Monday
+     */
+    static long nearestWeekday(long epochDay) {
+        int dayOfWeek = DateUtils.getDayOfWeek(epochDay);
+        if (dayOfWeek == DayOfWeek.SATURDAY.getValue()) return epochDay - 1;
+        if (dayOfWeek == DayOfWeek.SUNDAY.getValue()) return epochDay + 1;
+        return epochDay;
+    }
+
+    /*
+     * UK/Canada observance: weekend holiday moves to following Monday
+     */
+    static long nextWeekday(long epochDay) {
+        int dayOfWeek = DateUtils.getDayOfWeek(epochDay);
+        return dayOfWeek >= DayOfWeek.SATURDAY.getValue() ? epochDay + 8 - dayOfWeek : epochDay;
+    }
+
+    /*
+     * Christmas and Boxing Day, each moved past the weekend and past each other
+     */
+    static void addChristmasAndBoxingDay(int year, IntConsumer holidays) {
+        long christmas = nextWeekday(DateUtils.toEpochDay(year * 10000 + 1225));
+        long boxingDay = nextWeekday(DateUtils.toEpochDay(year * 10000 + 1226));
+        if (boxingDay <= christmas) boxingDay = christmas + 1;
+        holidays.accept((int) christmas);
+        holidays.accept((int) boxingDay);
+    }
+
+    /*
+     * Easter Sunday as epoch day (anonymous Gregorian algorithm, Meeus)
+     */
+    static long easterSunday(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return DateUtils.toEpochDay(year * 10000 + month * 100 + day);
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
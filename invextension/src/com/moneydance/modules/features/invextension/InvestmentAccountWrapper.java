@@ -111,9 +111,10 @@ public final class InvestmentAccountWrapper implements Aggregator {
 
         // add initial balance as a transValues object (use day before first
         // transaction date if available, creation date if not
+        BusinessDayCalendar businessDayCalendar = getBulkSecInfo().getBusinessDayCalendar();
         int firstDateInt = tempTransValues.isEmpty()
-                ? DateUtils.getPrevBusinessDay(this.investmentAccount.getCreationDateInt())
-                : DateUtils.getPrevBusinessDay(tempTransValues.firstEntry().getValue().getDateInt());
+                ? businessDayCalendar.getPrevBusinessDay(this.investmentAccount.getCreationDateInt())
+                : businessDayCalendar.getPrevBusinessDay(tempTransValues.firstEntry().getValue().getDateInt());
         TransactionValues initialTransactionValues = new TransactionValues(this, firstDateInt);
         String initialId = initialTransactionValues.getTxnID();
         cashTransactions.put(initialId, initialTransactionValues);
@@ -269,7 +270,32 @@ public final class InvestmentAccountWrapper implements Aggregator {
     }
 
     public double getAccountCurrencyUserRateByDateInt(int dateInt){
-        return  this.getAccountCurrency().getRate(null, dateInt);
+        return getBulkSecInfo().getFxRateCache().getRate(this.getAccountCurrency(), dateInt);
+    }
+
+    /**
+     * @param dateInt date of rate
+     * @return rate of the currency values are reported in, the reporting currency
+     * if one is chosen, else the account currency
+     */
+    public double getReportingCurrencyRateByDateInt(int dateInt) {
+        CurrencyType reportingCurrency = getBulkSecInfo().getReportingCurrency();
+        return reportingCurrency == null ? getAccountCurrencyUserRateByDateInt(dateInt)
+                : getBulkSecInfo().getFxRateCache().getRate(reportingCurrency, dateInt);
+    }
+
+    /**
+     * @param dateInt date of conversion
+     * @return factor converting an account currency amount to the reporting currency
+     */
+    public double getReportingConversionRate(int dateInt) {
+        CurrencyType reportingCurrency = getBulkSecInfo().getReportingCurrency();
+        return reportingCurrency == null ? 1.0 : getBulkSecInfo().getFxRateCache()
+                .getConversionRate(getAccountCurrency(), reportingCurrency, dateInt);
+    }
+
+    public boolean hasReportingCurrency() {
+        return getBulkSecInfo().getReportingCurrency() != null;
     }
 
 
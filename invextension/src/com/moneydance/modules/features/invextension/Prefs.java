@@ -50,6 +50,7 @@ public final class Prefs {
     static Preferences REPORT_PREFS = Preferences.userRoot().node(REPORT_PREFS_PATH);
     static final String RUN_ACTIVITY = "RUN_TRANS_ACTIVITY_REPORT";
     static final String RUN_SECURITIES_PRICES = "RUN_SECURITY_PRICES_REPORT";
+    static final String RUN_ROLLING_RETURNS = "RUN_ROLLING_RETURNS_REPORT";
     static final String LAST_REPORT_TYPE_RUN = "LAST_REPORT_TYPE_RUN";
     static final String LAST_REPORT_NAME_RUN = "LAST_REPORT_NAME_RUN";
     static final String USE_AVERAGE_COST_BASIS = "USE_AVERAGE_COST_BASIS";
@@ -63,6 +64,10 @@ public final class Prefs {
     static final String EXCLUDEDACCOUNTIDS = "EXCLUDEDACCOUNTIDS";
     static final String INVESTMENTEXPENSEIDS = "INVESTMENTEXPENSEIDS";
     static final String INVESTMENTINCOMEIDS = "INVESTMENTINCOMEIDS";
+    static final String SECURITYTAGS = "SECURITYTAGS";
+    static final String REPORTING_CURRENCY = "REPORTING_CURRENCY";
+    static final String HOLIDAY_CALENDAR = "HOLIDAY_CALENDAR";
+    static final String USER_HOLIDAYS = "USER_HOLIDAYS";
     static final String DATERANGE = "DATERANGE";
     static final String ISSTANDARD = "ISSTANDARD";
     static final String FRAMEINFO = "FRAMEINFO";
@@ -0,0 +1,250 @@
+/*
+ * ReportColumns.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Report table values held by column: one double[] of display values per
+ * numeric column and one String[] of display names per label column.  Built
+ * once from the report's object table, so that renderers, filters and sort
+ * comparators read primitives instead of unwrapping cell objects.
+ * <p/>
+ * Rows are sorted by their index: the sorter sees each row as its (shared,
+ * preallocated) Integer id and column comparators look the values up.  Each
+ * label column also holds an int sort key per row, the position of its name
+ * in label order, so label comparisons never touch the strings.
+ */
+public final class ReportColumns {
+    // label endings ranked so that cash and aggregate rows sort after their members
+    private static final String[] RANKED_ENDINGS = {"CASH", "CASH  ", "-ALL", "-ALL "};
+    private static final char KEY_SEPARATOR = '\u001f';
+    static final Comparator<String> LABEL_ORDER = Comparator.comparingInt(ReportColumns::getLabelRank)
+            .thenComparing(Comparator.naturalOrder());
+
+    private final int rowCount;
+    private final double[][] numbers; // [column][row], null for label columns
+    private final String[][] labels;  // [column][row], null for numeric columns
+    private final int[][] labelKeys;  // [column][row], null for numeric columns
+    private final Integer[] rowIds;
+
+    /**
+     * @param data           report table, [row][column]
+     * @param numericColumns true for each column holding numbers
+     * @param numberOf       display value of a numeric cell (NaN if undefined)
+     * @param labelOf        display name of a label cell
+     */
+    public ReportColumns(Object[][] data, boolean[] numericColumns, ToDoubleFunction<Object> numberOf,
+                         Function<Object, String> labelOf) {
+        this.rowCount = data.length;
+        this.numbers = new double[numericColumns.length][];
+        this.labels = new String[numericColumns.length][];
+        this.labelKeys = new int[numericColumns.length][];
+        for (int col = 0; col < numericColumns.length; col++) {
+            if (numericColumns[col]) {
+                double[] column = new double[rowCount];
+                for (int row = 0; row < rowCount; row++) column[row] = numberOf.applyAsDouble(data[row][col]);
+                numbers[col] = column;
+            } else {
+                String[] column = new String[rowCount];
+                for (int row = 0; row < rowCount; row++) column[row] = labelOf.apply(data[row][col]);
+                labels[col] = column;
+                labelKeys[col] = getSortKeys(column);
+            }
+        }
+        this.rowIds = new Integer[rowCount];
+        for (int row = 0; row < rowCount; row++) rowIds[row] = row;
+    }
+
+    private ReportColumns(ReportColumns columns, int start, int end) {
+        this.rowCount = columns.rowCount - (end - start + 1);
+        this.numbers = new double[columns.numbers.length][];
+        this.labels = new String[columns.numbers.length][];
+        this.labelKeys = new int[columns.numbers.length][];
+        for (int col = 0; col < numbers.length; col++) {
+            if (columns.numbers[col] != null) {
+                numbers[col] = removeRows(columns.numbers[col], start, end);
+            } else {
+                labels[col] = removeRows(columns.labels[col], start, end);
+                labelKeys[col] = removeRows(columns.labelKeys[col], start, end);
+            }
+        }
+        this.rowIds = Arrays.copyOf(columns.rowIds, rowCount);
+    }
+
+    /**
+     * Removes a range of rows without reading the cells again.  Sort keys of
+     * the remaining rows keep their order, so they stay valid.
+     *
+     * @param start first row to remove
+     * @param end   last row to remove
+     * @return copy of the columns without the rows
+     */
+    public ReportColumns withoutRows(int start, int end) {
+        return new ReportColumns(this, start, end);
+    }
+
+    /**
+     * @param rows  array with one entry per row, of objects or primitives
+     * @param start first row to remove
+     * @param end   last row to remove
+     * @return copy of rows without the range
+     */
+    @SuppressWarnings("unchecked")
+    static <A> A removeRows(A rows, int start, int end) {
+        int length = Array.getLength(rows);
+        A remaining = (A) Array.newInstance(rows.getClass().getComponentType(), length - (end - start + 1));
+        System.arraycopy(rows, 0, remaining, 0, start);
+        System.arraycopy(rows, end + 1, remaining, start, length - end - 1);
+        return remaining;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return numbers.length;
+    }
+
+    public boolean isNumeric(int col) {
+        return numbers[col] != null;
+    }
+
+    public double getNumber(int row, int col) {
+        return numbers[col][row];
+    }
+
+    public String getLabel(int row, int col) {
+        return labels[col][row];
+    }
+
+    /**
+     * @param row model row
+     * @return row index as Integer, the same instance on every call
+     */
+    public Integer getRowId(int row) {
+        return rowIds[row];
+    }
+
+    /**
+     * Keys identifying each row across report refreshes: the row's labels
+     * (its aggregate identity), numbered when several rows share them.
+     *
+     * @return key per row
+     */
+    public String[] getRowKeys() {
+        String[] keys = new String[rowCount];
+        HashMap<String, Integer> occurrences = new HashMap<>();
+        StringBuilder builder = new StringBuilder();
+        for (int row = 0; row < rowCount; row++) {
+            builder.setLength(0);
+            for (String[] column : labels) {
+                if (column != null) builder.append(column[row]).append(KEY_SEPARATOR);
+            }
+            String labelKey = builder.toString();
+            int occurrence = occurrences.merge(labelKey, 1, Integer::sum);
+            keys[row] = occurrence == 1 ? labelKey : labelKey + occurrence;
+        }
+        return keys;
+    }
+
+    /**
+     * @param row      row of this table
+     * @param other    table to compare with, same columns
+     * @param otherRow row of the other table
+     * @return true if both rows hold the same values
+     */
+    public boolean isRowEqual(int row, ReportColumns other, int otherRow) {
+        for (int col = 0; col < numbers.length; col++) {
+            if (numbers[col] != null) {
+                if (Double.compare(numbers[col][row], other.numbers[col][otherRow]) != 0) return false;
+            } else if (!labels[col][row].equals(other.labels[col][otherRow])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares two rows on one column: numbers in natural order, labels ranked
+     * by ending (cash, then aggregates, last) and then alphabetically, which
+     * places aggregate rows after their members.
+     *
+     * @param col  model column
+     * @param row1 first model row
+     * @param row2 second model row
+     * @return comparison result
+     */
+    public int compare(int col, int row1, int row2) {
+        if (numbers[col] != null) return Double.compare(numbers[col][row1], numbers[col][row2]);
+        return Integer.compare(labelKeys[col][row1], labelKeys[col][row2]);
+    }
+
+    /**
+     * @param col model column
+     * @return comparator of row ids on the column
+     */
+    public Comparator<Integer> getComparator(int col) {
+        return (row1, row2) -> compare(col, row1, row2);
+    }
+
+    /**
+     * @param column display names of one column
+     * @return per row, the position of the row's name among the column's
+     * distinct names in label order
+     */
+    private static int[] getSortKeys(String[] column) {
+        HashMap<String, Integer> positions = new HashMap<>();
+        for (String label : column) positions.put(label, 0);
+        String[] distinct = positions.keySet().toArray(new String[0]);
+        Arrays.sort(distinct, LABEL_ORDER);
+        for (int i = 0; i < distinct.length; i++) positions.put(distinct[i], i);
+        int[] keys = new int[column.length];
+        for (int row = 0; row < column.length; row++) keys[row] = positions.get(column[row]);
+        return keys;
+    }
+
+    /**
+     * @param label display name
+     * @return -1 for ordinary names, else rank of the name's ending
+     */
+    static int getLabelRank(String label) {
+        int rank = -1;
+        for (int i = 0; i < RANKED_ENDINGS.length; i++) {
+            if (label.endsWith(RANKED_ENDINGS[i])) rank = i;
+        }
+        return rank;
+    }
+}
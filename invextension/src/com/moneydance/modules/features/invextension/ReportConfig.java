@@ -62,6 +62,11 @@ public final class ReportConfig {
     private HashSet<String> excludedAccountIds;
     private HashSet<String> investmentExpenseIds;
     private HashSet<String> investmentIncomeIds;
+    private HashMap<String, String> securityTags; // tag by security account id
+    private String reportingCurrencyId = ""; // currency id string, blank to report in account currency
+    private HolidayCalendar holidayCalendar = HolidayCalendar.NYSE;
+    private TreeSet<Integer> userHolidays = new TreeSet<>(); // additional holidays as dateInts
+    private BusinessDayCalendar businessDayCalendar; // built on demand from holiday settings
     private DateRange dateRange;
     private boolean isDefaultConfig = false;
     private boolean isVerbose = false;
@@ -81,6 +86,7 @@ public final class ReportConfig {
         this.excludedAccountIds = new HashSet<>();
         this.investmentExpenseIds = new HashSet<>();
         this.investmentIncomeIds = new HashSet<>();
+        this.securityTags = new HashMap<>();
         this.dateRange = new DateRange();
         this.isDefaultConfig = false;
         this.frameInfo = new FrameInfo();
@@ -122,6 +128,7 @@ public final class ReportConfig {
         this.excludedAccountIds = excludedAccountIds;
         this.investmentExpenseIds = investmentExpenseIds;
         this.investmentIncomeIds = investmentIncomeIds;
+        this.securityTags = new HashMap<>();
         this.dateRange = dateRange;
         this.frameInfo = new FrameInfo();
     }
@@ -167,8 +174,13 @@ public final class ReportConfig {
                 accountListToString(standardConfig.getInvestmentExpenseIds())));
         this.investmentIncomeIds = stringToHashSet(thisReportPrefs.get(Prefs.INVESTMENTINCOMEIDS,
                 accountListToString(standardConfig.getInvestmentIncomeIds())));
+        this.securityTags = stringToTagMap(thisReportPrefs.get(Prefs.SECURITYTAGS, ""));
+        this.reportingCurrencyId = thisReportPrefs.get(Prefs.REPORTING_CURRENCY, "");
+        this.holidayCalendar = getHolidayCalendarFromPrefs(thisReportPrefs);
+        this.userHolidays = stringToDateIntSet(thisReportPrefs.get(Prefs.USER_HOLIDAYS, ""));
+        this.businessDayCalendar = null;
         this.dateRange = DateRange.getDateRangeFromString(thisReportPrefs.get(Prefs.DATERANGE,
-                standardConfig.getDateRange().toString()));
+                standardConfig.getDateRange().toString()), getBusinessDayCalendar());
         this.isDefaultConfig = thisReportPrefs.getBoolean(Prefs.ISSTANDARD, standardConfig.isOutputSingle());
         this.frameInfo = getFrameInfoFromPrefs(thisReportPrefs);
     }
@@ -499,6 +511,20 @@ public final class ReportConfig {
 
     }
 
+    /*
+    Gets holiday calendar from stored preferences, NYSE if none stored
+     */
+    private static HolidayCalendar getHolidayCalendarFromPrefs(Preferences reportPref) {
+        String holidayCalendarStr = reportPref.get(Prefs.HOLIDAY_CALENDAR, null);
+        try {
+            return holidayCalendarStr == null ? HolidayCalendar.NYSE : HolidayCalendar.valueOf(holidayCalendarStr);
+        } catch (IllegalArgumentException e) {
+            LogController.logMessage(Level.WARNING, "Unknown holiday calendar " + holidayCalendarStr
+                    + ", using NYSE");
+            return HolidayCalendar.NYSE;
+        }
+    }
+
     public void clearReportConfigFromPrefs()
             throws NoSuchFieldException, IllegalAccessException, BackingStoreException {
         Class<? extends TotalReport> reportClass = this.reportClass;
@@ -591,6 +617,68 @@ public final class ReportConfig {
         this.investmentIncomeIds = investmentIncomeIds;
     }
     
+    public HashMap<String, String> getSecurityTags() {
+        return securityTags;
+    }
+
+    /**
+     * Assigns tag to security account, a blank tag removes the assignment
+     *
+     * @param securityAccountId id of security account
+     * @param tag               tag name
+     */
+    public void setSecurityTag(String securityAccountId, String tag) {
+        String cleanTag = tag == null ? "" : tag.replace(",", " ").replace("=", " ").trim();
+        if (cleanTag.isEmpty()) {
+            securityTags.remove(securityAccountId);
+        } else {
+            securityTags.put(securityAccountId, cleanTag);
+        }
+    }
+
+    /**
+     * @return id string of currency all values are reported in, blank for each
+     * investment account's own currency
+     */
+    public String getReportingCurrencyId() {
+        return reportingCurrencyId;
+    }
+
+    public void setReportingCurrencyId(String reportingCurrencyId) {
+        this.reportingCurrencyId = reportingCurrencyId == null ? "" : reportingCurrencyId.trim();
+    }
+
+    public HolidayCalendar getHolidayCalendar() {
+        return holidayCalendar;
+    }
+
+    public void setHolidayCalendar(HolidayCalendar holidayCalendar) {
+        this.holidayCalendar = holidayCalendar;
+        this.businessDayCalendar = null;
+    }
+
+    /**
+     * @return holidays observed in addition to the holiday calendar, as dateInts
+     */
+    public TreeSet<Integer> getUserHolidays() {
+        return userHolidays;
+    }
+
+    public void setUserHolidays(TreeSet<Integer> userHolidays) {
+        this.userHolidays = userHolidays;
+        this.businessDayCalendar = null;
+    }
+
+    /**
+     * @return business day calendar for this report's holiday settings
+     */
+    public BusinessDayCalendar getBusinessDayCalendar() {
+        if (businessDayCalendar == null) {
+            businessDayCalendar = new BusinessDayCalendar(holidayCalendar, userHolidays);
+        }
+        return businessDayCalendar;
+    }
+
     public void setDateRange(DateRange dateRange) {
         this.dateRange = dateRange;
     }
@@ -678,6 +766,36 @@ public final class ReportConfig {
         return sb.toString();
     }
 
+    /**
+     * reads comma separated dateInts, skipping entries which are not valid dates
+     *
+     * @param prefString string from preferences or user entry
+     * @return sorted dateInts
+     */
+    static TreeSet<Integer> stringToDateIntSet(String prefString) {
+        TreeSet<Integer> dateInts = new TreeSet<>();
+        if (prefString == null) return dateInts;
+        for (String dateStr : prefString.split(",")) {
+            String trimmed = dateStr.trim();
+            if (trimmed.isEmpty()) continue;
+            try {
+                int dateInt = Integer.parseInt(trimmed);
+                if (DateUtils.fromEpochDay(DateUtils.toEpochDay(dateInt)) == dateInt) {
+                    dateInts.add(dateInt);
+                } else {
+                    LogController.logMessage(Level.WARNING, "Invalid holiday date " + trimmed + " ignored");
+                }
+            } catch (NumberFormatException e) {
+                LogController.logMessage(Level.WARNING, "Invalid holiday date " + trimmed + " ignored");
+            }
+        }
+        return dateInts;
+    }
+
+    static String dateIntSetToString(Collection<Integer> dateInts) {
+        return dateInts.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
     /**
      * Generic method to get Hash Set from String where significant values
      * are separated by commas
@@ -695,6 +813,36 @@ public final class ReportConfig {
     }
 
 
+    /**
+     * writes tag assignments to a string of id=tag pairs separated by commas
+     *
+     * @param tagMap tag by security account id
+     * @return string to be saved to preferences
+     */
+    static String tagMapToString(Map<String, String> tagMap) {
+        return tagMap.entrySet().stream().map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * reads tag assignments from a string of id=tag pairs separated by commas
+     *
+     * @param prefString input String
+     * @return tag by security account id
+     */
+    static HashMap<String, String> stringToTagMap(String prefString) {
+        HashMap<String, String> tagMap = new HashMap<>();
+        if (prefString != null && !prefString.isEmpty()) {
+            for (String pair : prefString.split(",")) {
+                int separator = pair.indexOf('=');
+                if (separator > 0 && separator < pair.length() - 1) {
+                    tagMap.put(pair.substring(0, separator), pair.substring(separator + 1));
+                }
+            }
+        }
+        return tagMap;
+    }
+
     public String toString() {
         String nl = "\n";
         return "Report Class: " + reportTypeName + nl
@@ -709,6 +857,10 @@ public final class ReportConfig {
                 + "Excluded Account Nums: " + accountListToString(excludedAccountIds) + nl
                 + "Investment Expense Nums: " + accountListToString(investmentExpenseIds) + nl
                 + "Investment Income Nums: " + accountListToString(investmentIncomeIds) + nl
+                + "Security Tags: " + tagMapToString(securityTags) + nl
+                + "Reporting Currency: " + (reportingCurrencyId.isEmpty() ? "Account" : reportingCurrencyId) + nl
+                + "Holiday Calendar: " + holidayCalendar.getDescription() + nl
+                + "User Holidays: " + dateIntSetToString(userHolidays) + nl
                 + "DateRange: " + dateRange.toString() + nl
                 + "Is Default? " + isDefaultConfig + nl
                 + "Frame Info: " + frameInfo.toString();
@@ -730,6 +882,10 @@ public final class ReportConfig {
         thisReportPrefs.put(Prefs.EXCLUDEDACCOUNTIDS, accountListToString(excludedAccountIds));
         thisReportPrefs.put(Prefs.INVESTMENTEXPENSEIDS, accountListToString(investmentExpenseIds));
         thisReportPrefs.put(Prefs.INVESTMENTINCOMEIDS, accountListToString(investmentIncomeIds));
+        thisReportPrefs.put(Prefs.SECURITYTAGS, tagMapToString(securityTags));
+        thisReportPrefs.put(Prefs.REPORTING_CURRENCY, reportingCurrencyId);
+        thisReportPrefs.put(Prefs.HOLIDAY_CALENDAR, holidayCalendar.name());
+        thisReportPrefs.put(Prefs.USER_HOLIDAYS, dateIntSetToString(userHolidays));
         thisReportPrefs.put(Prefs.DATERANGE, dateRange.toString());
         thisReportPrefs.putBoolean(Prefs.ISSTANDARD, isDefaultConfig);
         thisReportPrefs.put(Prefs.FRAMEINFO, frameInfo.writeFrameInfoForPrefs());
@@ -28,6 +28,7 @@
 
 package com.moneydance.modules.features.invextension;
 
+import com.infinitekind.moneydance.model.CurrencyType;
 import com.moneydance.awt.AwtUtil;
 
 import javax.swing.*;
@@ -72,6 +73,9 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
     private static final String SET_FROZEN_COLUMNS = "setFrozenColumns";
     private static final String HIDE_CLOSED_POSITIONS = "hideClosedPositions";
     private static final String USE_ORDINARY_RETURN = "useOrdinaryReturn";
+    private static final String SET_REPORTING_CURRENCY = "setReportingCurrency";
+    private static final String SET_HOLIDAY_CALENDAR = "setHolidayCalendar";
+    private static final String SET_USER_HOLIDAYS = "setUserHolidays";
     private static final String VERBOSE_LOGGING = "verboseLogging";
 
     private static File outputDirectory;
@@ -86,6 +90,7 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
     private final JComboBox<String> fromToReportComboBox = new JComboBox<>();
     private final JCheckBox transActivityCheckbox = new javax.swing.JCheckBox("Transactions");
     private final JCheckBox secPricesCheckbox = new javax.swing.JCheckBox("Securities Prices");
+    private final JCheckBox rollingReturnsCheckbox = new javax.swing.JCheckBox("Rolling Returns");
     private final JButton runReportsButton = new javax.swing.JButton("Run Reports");
     private final JButton saveCustomReportsButton = new javax.swing.JButton("Save Custom Report");
     private final JButton removeCustomReportButton = new JButton("Remove Custom Report");
@@ -234,6 +239,8 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
         downloadsPanel.add(transActivityCheckbox, c);
         c.gridx++;
         downloadsPanel.add(secPricesCheckbox, c);
+        c.gridx++;
+        downloadsPanel.add(rollingReturnsCheckbox, c);
 
         // run sub-panel (for program results)
         runPanel.setLayout(new GridBagLayout());
@@ -452,6 +459,8 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
                 transActivityCheckbox.isSelected());
         Prefs.REPORT_PREFS.putBoolean(Prefs.RUN_SECURITIES_PRICES,
                 secPricesCheckbox.isSelected());
+        Prefs.REPORT_PREFS.putBoolean(Prefs.RUN_ROLLING_RETURNS,
+                rollingReturnsCheckbox.isSelected());
         folderPanel.savePreferences();
         reportConfig.saveReportConfig();
     }
@@ -459,6 +468,7 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
     public void setDownloadPreferences(){
         transActivityCheckbox.setSelected(Prefs.REPORT_PREFS.getBoolean(Prefs.RUN_ACTIVITY, false));
         secPricesCheckbox.setSelected(Prefs.REPORT_PREFS.getBoolean(Prefs.RUN_SECURITIES_PRICES, false));
+        rollingReturnsCheckbox.setSelected(Prefs.REPORT_PREFS.getBoolean(Prefs.RUN_ROLLING_RETURNS, false));
     }
 
 
@@ -559,6 +569,23 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
             case USE_ORDINARY_RETURN:
                 reportConfig.setUseOrdinaryReturn(reportOptionsPanel.useOrdinaryReturnCheckBox.isSelected());
                 break;
+            case SET_REPORTING_CURRENCY:
+                Object reportingCurrencyId = reportOptionsPanel.reportingCurrencyComboBox.getSelectedItem();
+                reportConfig.setReportingCurrencyId(reportingCurrencyId == null ? ""
+                        : reportingCurrencyId.toString().trim());
+                break;
+            case SET_HOLIDAY_CALENDAR:
+                reportConfig.setHolidayCalendar((HolidayCalendar) reportOptionsPanel
+                        .holidayCalendarComboBox.getSelectedItem());
+                dateRangePanel.setBusinessDayCalendar(reportConfig.getBusinessDayCalendar());
+                break;
+            case SET_USER_HOLIDAYS:
+                reportConfig.setUserHolidays(ReportConfig.stringToDateIntSet(
+                        reportOptionsPanel.userHolidaysField.getText()));
+                reportOptionsPanel.userHolidaysField.setText(
+                        ReportConfig.dateIntSetToString(reportConfig.getUserHolidays()));
+                dateRangePanel.setBusinessDayCalendar(reportConfig.getBusinessDayCalendar());
+                break;
             case SHOW_HELP_FILE:
                 try {
                     HelpFileDisplay helpFileDisplay = new HelpFileDisplay();
@@ -806,6 +833,13 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
         public JCheckBox hideClosedPosCheckBox = new JCheckBox("Hide Positions with Zero Value", true);
         public JCheckBox useOrdinaryReturnCheckBox = new JCheckBox("Use Ordinary Return Calculation", false);
         public JCheckBox verboseLoggingCheckBox = new JCheckBox("Verbose Logging", false);
+        public JLabel reportingCurrencyLabel = new JLabel("Reporting Currency");
+        public JComboBox<String> reportingCurrencyComboBox = new JComboBox<>();
+        public JLabel holidayCalendarLabel = new JLabel("Holiday Calendar");
+        public JComboBox<HolidayCalendar> holidayCalendarComboBox =
+                new JComboBox<>(new DefaultComboBoxModel<>(HolidayCalendar.values()));
+        public JLabel userHolidaysLabel = new JLabel("User Holidays");
+        public JTextField userHolidaysField = new JTextField(16);
 
 
 
@@ -821,6 +855,9 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
             hideClosedPosCheckBox.setActionCommand(HIDE_CLOSED_POSITIONS);
             useOrdinaryReturnCheckBox.setActionCommand(USE_ORDINARY_RETURN);
             verboseLoggingCheckBox.setActionCommand(VERBOSE_LOGGING);
+            reportingCurrencyComboBox.setActionCommand(SET_REPORTING_CURRENCY);
+            holidayCalendarComboBox.setActionCommand(SET_HOLIDAY_CALENDAR);
+            userHolidaysField.setActionCommand(SET_USER_HOLIDAYS);
             // add action listeners
             resetReportOptions.addActionListener(ReportControlPanel.this);
             aggregationOptionsComboBox.addActionListener(ReportControlPanel.this);
@@ -830,11 +867,20 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
             hideClosedPosCheckBox.addActionListener(ReportControlPanel.this);
             useOrdinaryReturnCheckBox.addActionListener(ReportControlPanel.this);
             verboseLoggingCheckBox.addActionListener(ReportControlPanel.this);
+            reportingCurrencyComboBox.addActionListener(ReportControlPanel.this);
+            holidayCalendarComboBox.addActionListener(ReportControlPanel.this);
+            userHolidaysField.addActionListener(ReportControlPanel.this);
 
 
             String ordinaryReturnsCBToolTip = "<html> If checked, uses non-time-weighted ('Ordinary') returns" +
                     "<br>" + "otherwise uses Modified-Dietz returns </html>";
             useOrdinaryReturnCheckBox.setToolTipText(ordinaryReturnsCBToolTip);
+            String reportingCurrencyToolTip = "<html> Currency ID (e.g. USD) in which all values are reported" +
+                    "<br>" + "leave blank to report in each account's own currency </html>";
+            reportingCurrencyComboBox.setToolTipText(reportingCurrencyToolTip);
+            reportingCurrencyComboBox.setEditable(true);
+            userHolidaysField.setToolTipText("<html> Additional holidays as YYYYMMDD, separated by commas" +
+                    "<br>" + "press Enter to apply </html>");
 
             //initialize sub-panels
             JPanel topPanel = new JPanel();
@@ -859,6 +905,21 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
             topPanel.add(costBasisOptionsLabel, c);
             c.gridx = 1;
             topPanel.add(costBasisOptionsComboBox, c);
+            c.gridx = 0;
+            c.gridy++;
+            topPanel.add(reportingCurrencyLabel, c);
+            c.gridx = 1;
+            topPanel.add(reportingCurrencyComboBox, c);
+            c.gridx = 0;
+            c.gridy++;
+            topPanel.add(holidayCalendarLabel, c);
+            c.gridx = 1;
+            topPanel.add(holidayCalendarComboBox, c);
+            c.gridx = 0;
+            c.gridy++;
+            topPanel.add(userHolidaysLabel, c);
+            c.gridx = 1;
+            topPanel.add(userHolidaysField, c);
             c.gridx = 1;
             c.gridy++;
             topPanel.add(hideClosedPosCheckBox, c);
@@ -899,6 +960,10 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
             numFrozenColumnsComboBox.setSelectedItem(5);
             hideClosedPosCheckBox.setSelected(true);
             useOrdinaryReturnCheckBox.setSelected(false);
+            reportingCurrencyComboBox.setSelectedItem("");
+            holidayCalendarComboBox.setSelectedItem(HolidayCalendar.NYSE);
+            userHolidaysField.setText("");
+            userHolidaysField.postActionEvent();
         }
 
         public void setReportConfigInOptionsPanel() {
@@ -908,6 +973,27 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
             numFrozenColumnsComboBox.setSelectedItem(reportConfig.getNumFrozenColumns());
             hideClosedPosCheckBox.setSelected(reportConfig.isClosedPosHidden());
             useOrdinaryReturnCheckBox.setSelected(reportConfig.useOrdinaryReturn());
+            loadReportingCurrencies();
+            reportingCurrencyComboBox.setSelectedItem(reportConfig.getReportingCurrencyId());
+            holidayCalendarComboBox.setSelectedItem(reportConfig.getHolidayCalendar());
+            userHolidaysField.setText(ReportConfig.dateIntSetToString(reportConfig.getUserHolidays()));
+            dateRangePanel.setBusinessDayCalendar(reportConfig.getBusinessDayCalendar());
+        }
+
+        /**
+         * fills reporting currency choices from the open file, blank entry
+         * (report in account currency) first
+         */
+        private void loadReportingCurrencies() {
+            if (reportingCurrencyComboBox.getItemCount() > 1 || mdData.getAccountBook() == null) return;
+            reportingCurrencyComboBox.removeActionListener(ReportControlPanel.this);
+            reportingCurrencyComboBox.removeAllItems();
+            reportingCurrencyComboBox.addItem("");
+            mdData.getAccountBook().getCurrencies().getAllCurrencies().stream()
+                    .filter(currencyType -> currencyType.getCurrencyType() == CurrencyType.Type.CURRENCY)
+                    .map(CurrencyType::getIDString).sorted()
+                    .forEach(reportingCurrencyComboBox::addItem);
+            reportingCurrencyComboBox.addActionListener(ReportControlPanel.this);
         }
     }
 
@@ -930,6 +1016,7 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
             publish(reportConfig.getDescription() + " is running...\n");
             if(transActivityCheckbox.isSelected()) publish("writing transaction data to file\n");
             if(secPricesCheckbox.isSelected()) publish("writing security price data to file\n");
+            if(rollingReturnsCheckbox.isSelected()) publish("writing rolling returns to file\n");
             if(reportOptionsPanel.verboseLoggingCheckBox.isSelected()){
                 reportConfig.logReportConfig();
                 reportConfig.setVerbose();
@@ -951,10 +1038,12 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
             if (logLevel != Level.SEVERE.intValue() && mdData.getCurrentInfo() != null) {
                 LogController.logMessage(Level.FINE, "Proceeding to run reports...");
                 try {
+                    TotalReport rollingReturnsReport = null;
                     if (snapReportComboBox.getSelectedIndex() != 0) {
                         LogController.logMessage(Level.FINE, "Running Snapshot Report...");
                         TotalReport report = new TotalSnapshotReport(reportConfig, MDData
                                 .getInstance().getCurrentInfo());
+                        rollingReturnsReport = report;
                         report.calcReport();
                         if (reportConfig.validateReportConfig() == false){
                             publish("invalid report columns, reverting to standard...");
@@ -970,6 +1059,7 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
                         TotalReport report = new TotalFromToReport(reportConfig, MDData.
                                 getInstance().getCurrentInfo());
                         report.calcReport();
+                        if (rollingReturnsReport == null) rollingReturnsReport = report;
                         if (reportConfig.validateReportConfig() == false){
                             publish("invalid report columns, reverting to standard...");
                             report.setViewHeader(reportConfig.getViewHeader());
@@ -993,7 +1083,19 @@ public final class ReportControlPanel extends javax.swing.JPanel implements Acti
                                 secPricesReport, secPricesReportFile);
                     }
 
-                    if (transActivityCheckbox.isSelected() || secPricesCheckbox.isSelected()) {
+                    if (rollingReturnsCheckbox.isSelected()) {
+                        if (rollingReturnsReport == null) {
+                            rollingReturnsReport = new TotalSnapshotReport(reportConfig, MDData
+                                    .getInstance().getCurrentInfo());
+                            rollingReturnsReport.calcReport();
+                        }
+                        File rollingReturnsReportFile = getOutputFile("rollingReturnsReport.csv");
+                        IOUtils.writeArrayListToCSV(RollingReturnSeries.listInfoHeader(),
+                                rollingReturnsReport.listRollingReturns(), rollingReturnsReportFile);
+                    }
+
+                    if (transActivityCheckbox.isSelected() || secPricesCheckbox.isSelected()
+                            || rollingReturnsCheckbox.isSelected()) {
                         openBrowserToDownloadFile();
                     }
 
@@ -0,0 +1,210 @@
+/*
+ * RollingReturnSeries.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Trailing-window returns for one report row, sampled monthly over the history
+ * of the row's securities.
+ * <p/>
+ * Windows follow the snapshot report's rules (start at the latest business day a whole
+ * number of months before the end, Modified Dietz or ordinary return, undefined if the
+ * start value is zero).  The sample windows are slid forward together over the
+ * date-sorted flow indices, so each flow enters and leaves the window once, and values
+ * at the window ends are read from the daily valuations.
+ */
+public final class RollingReturnSeries {
+    public static final int ONE_YEAR_MONTHS = 12;
+    public static final int THREE_YEAR_MONTHS = 36;
+
+    private final String[] labels;
+    private final int windowMonths;
+    private final int[] dates;        // window end dates, increasing
+    private final double[] returns;   // return for window ending on date (UndefinedReturn if none)
+
+    private RollingReturnSeries(String[] labels, int windowMonths, int[] dates, double[] returns) {
+        this.labels = labels;
+        this.windowMonths = windowMonths;
+        this.dates = dates;
+        this.returns = returns;
+    }
+
+    /**
+     * Generates series for a leaf or composite report row
+     *
+     * @param componentReport security or composite report
+     * @param windowMonths    length of trailing window in months
+     * @param endDateInt      end of last window
+     * @param useOrdinary     true for ordinary returns, false for Modified Dietz
+     * @return rolling return series for row
+     */
+    public static RollingReturnSeries generate(ComponentReport componentReport, int windowMonths,
+                                               int endDateInt, boolean useOrdinary) {
+        SecurityReport rowReport;
+        ArrayList<SecurityAccountWrapper> securityAccounts = new ArrayList<>();
+        if (componentReport instanceof CompositeReport compositeReport) {
+            rowReport = compositeReport.getAggregateReport();
+            for (SecurityReport securityReport : compositeReport.getSecurityReports()) {
+                securityAccounts.add(securityReport.getSecurityAccountWrapper());
+            }
+        } else {
+            rowReport = (SecurityReport) componentReport;
+            securityAccounts.add(rowReport.getSecurityAccountWrapper());
+        }
+
+        CashFlowIndex.Merger capitalMerger = new CashFlowIndex.Merger();
+        CashFlowIndex.Merger incomeMerger = new CashFlowIndex.Merger();
+        DailyValuation[] valuations = new DailyValuation[securityAccounts.size()];
+        int firstDateInt = Integer.MAX_VALUE;
+        for (int i = 0; i < valuations.length; i++) {
+            SecurityAccountWrapper securityAccount = securityAccounts.get(i);
+            CashFlowIndex capital = securityAccount.getCapitalFlowIndex();
+            CashFlowIndex income = securityAccount.getIncomeFlowIndex();
+            capitalMerger.add(capital, 0, capital.size());
+            incomeMerger.add(income, 0, income.size());
+            valuations[i] = securityAccount.getDailyValuation(endDateInt);
+            if (!valuations[i].isEmpty()) firstDateInt = Math.min(firstDateInt, valuations[i].getFirstDateInt());
+        }
+        return generate(rowReport.getRowLabels(), capitalMerger.build(), incomeMerger.build(), valuations,
+                windowMonths, firstDateInt, endDateInt, useOrdinary, securityAccounts.get(0).getBusinessDayCalendar());
+    }
+
+    static RollingReturnSeries generate(String[] labels, CashFlowIndex capital, CashFlowIndex income,
+                                        DailyValuation[] valuations, int windowMonths, int firstDateInt,
+                                        int endDateInt, boolean useOrdinary, BusinessDayCalendar calendar) {
+        // sample window ends monthly back from end date, while window starts within history
+        int[] ends = new int[16];
+        int[] starts = new int[16];
+        int size = 0;
+        int sampleEndDateInt = endDateInt;
+        int sampleStartDateInt = calendar.getLatestBusinessDay(DateUtils.addMonthsInt(endDateInt, -windowMonths));
+        while (sampleStartDateInt >= firstDateInt) {
+            if (size == ends.length) {
+                ends = Arrays.copyOf(ends, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+            }
+            ends[size] = sampleEndDateInt;
+            starts[size] = sampleStartDateInt;
+            size++;
+            sampleEndDateInt = calendar.getLatestBusinessDay(DateUtils.addMonthsInt(endDateInt, -size));
+            sampleStartDateInt = calendar.getLatestBusinessDay(DateUtils.addMonthsInt(sampleEndDateInt,
+                    -windowMonths));
+        }
+
+        int[] dates = new int[size];
+        double[] returns = new double[size];
+        int capitalLo = 0;
+        int capitalHi = 0;
+        int incomeLo = 0;
+        int incomeHi = 0;
+        for (int i = 0; i < size; i++) {
+            int startDateInt = starts[size - 1 - i];
+            int endDate = ends[size - 1 - i];
+            // slide window (start, end] forward over flows
+            while (capitalHi < capital.size() && capital.getDate(capitalHi) <= endDate) capitalHi++;
+            while (capitalLo < capitalHi && capital.getDate(capitalLo) <= startDateInt) capitalLo++;
+            while (incomeHi < income.size() && income.getDate(incomeHi) <= endDate) incomeHi++;
+            while (incomeLo < incomeHi && income.getDate(incomeLo) <= startDateInt) incomeLo++;
+
+            dates[i] = endDate;
+            returns[i] = computeReturn(capital, capitalLo, capitalHi, income.sumFlows(incomeLo, incomeHi),
+                    getValue(valuations, startDateInt), getValue(valuations, endDate),
+                    startDateInt, endDate, useOrdinary);
+        }
+        return new RollingReturnSeries(labels, windowMonths, dates, returns);
+    }
+
+    private static long getValue(DailyValuation[] valuations, int dateInt) {
+        long value = 0;
+        for (DailyValuation valuation : valuations) {
+            value += valuation.getValue(dateInt);
+        }
+        return value;
+    }
+
+    // Same rules as ExtractorModifiedDietzReturn/ExtractorOrdinaryReturn with DEFAULT window
+    private static double computeReturn(CashFlowIndex capital, int lo, int hi, long income,
+                                        long startValue, long endValue, int startDateInt, int endDateInt,
+                                        boolean useOrdinary) {
+        if (startValue == 0) return SecurityReport.UndefinedReturn;
+        if (endValue == 0 && hi > lo) endDateInt = capital.getDate(hi - 1);
+        int intervalDays = DateUtils.getDaysBetween(startDateInt, endDateInt);
+        if (intervalDays == 0) return SecurityReport.UndefinedReturn;
+        long sumCF = capital.sumFlows(lo, hi);
+        double denominator = useOrdinary ? startValue + sumCF
+                : startValue + capital.sumWeightedFlows(lo, hi, endDateInt) / (double) intervalDays;
+        return ((double) ((endValue + income) - startValue - sumCF)) / denominator;
+    }
+
+    public String[] getLabels() {
+        return labels;
+    }
+
+    public int getWindowMonths() {
+        return windowMonths;
+    }
+
+    public int size() {
+        return dates.length;
+    }
+
+    public int getDate(int i) {
+        return dates[i];
+    }
+
+    public double getReturn(int i) {
+        return returns[i];
+    }
+
+    /**
+     * @return csv header for rows produced by listInfo
+     */
+    public static StringBuffer listInfoHeader() {
+        return new StringBuffer("InvAcct,Security,SecType,SecSubType,Ticker,WindowMonths,Date,Return");
+    }
+
+    /**
+     * Lists series as csv rows, one per sample; undefined returns are left blank
+     *
+     * @return list of csv rows
+     */
+    public ArrayList<String[]> listInfo() {
+        ArrayList<String[]> rows = new ArrayList<>(dates.length);
+        for (int i = 0; i < dates.length; i++) {
+            String[] row = Arrays.copyOf(labels, labels.length + 3);
+            row[labels.length] = Integer.toString(windowMonths);
+            row[labels.length + 1] = DateUtils.convertToShort(dates[i]);
+            row[labels.length + 2] = returns[i] == SecurityReport.UndefinedReturn ? "" : Double.toString(returns[i]);
+            rows.add(row);
+        }
+        return rows;
+    }
+}
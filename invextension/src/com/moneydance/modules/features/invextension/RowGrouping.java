@@ -0,0 +1,119 @@
+/*
+ * RowGrouping.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Position of one report row in the aggregation hierarchy: for each level of
+ * the grouping, the aggregate the row belongs to, or a marker for the rows
+ * which are not grouped at that level.
+ * <p/>
+ * Sorting rows on the keys of every level, in level order, places each
+ * subtotal after the rows it totals, however many levels the grouping has.
+ */
+final class RowGrouping {
+    // level kinds, in their sort order within a level
+    static final byte VALUE = 0;     // specific aggregate value
+    static final byte UNGROUPED = 1; // leaf without a value at this level (nor below)
+    static final byte SUBTOTAL = 2;  // subtotal over the levels above
+    static final byte ALL = 3;       // all values of the level
+
+    private final byte[] kinds;
+    private final String[] names; // aggregate name at each VALUE level, else ""
+    private final boolean leaf;
+
+    /**
+     * @param kinds level kind of each level, see constants above
+     * @param names aggregate name at each level
+     * @param leaf  true for a security row, false for a composite
+     */
+    RowGrouping(byte[] kinds, String[] names, boolean leaf) {
+        if (kinds.length != names.length) throw new IllegalArgumentException("kinds and names differ in length");
+        this.kinds = kinds;
+        this.names = names;
+        this.leaf = leaf;
+    }
+
+    int getLevelCount() {
+        return kinds.length;
+    }
+
+    byte getKind(int level) {
+        return kinds[level];
+    }
+
+    boolean isLeaf() {
+        return leaf;
+    }
+
+    /**
+     * Sort keys of each level.  Rows compare on their level kind and then on
+     * the aggregate name; on the last level, leaves with the same grouping
+     * come before their composite, in order of their own labels.
+     *
+     * @param groupings      grouping of each row
+     * @param lastLevelLabels display label of each row in the last level's column
+     * @return per level, the position of each row's grouping in sort order, [level][row]
+     */
+    static int[][] getLevelKeys(RowGrouping[] groupings, String[] lastLevelLabels) {
+        int levels = groupings.length == 0 ? 0 : groupings[0].getLevelCount();
+        int[][] keys = new int[levels][];
+        for (int level = 0; level < levels; level++) {
+            int thisLevel = level;
+            Comparator<Integer> order = Comparator.<Integer>comparingInt(row -> groupings[row].kinds[thisLevel])
+                    .thenComparing(row -> groupings[row].names[thisLevel], ReportColumns.LABEL_ORDER);
+            if (level == levels - 1) {
+                order = order.thenComparing(row -> !groupings[row].leaf)
+                        .thenComparing(row -> lastLevelLabels[row], ReportColumns.LABEL_ORDER);
+            }
+            keys[level] = getRanks(groupings.length, order);
+        }
+        return keys;
+    }
+
+    /**
+     * @param rows  number of rows
+     * @param order row order
+     * @return per row, its position among the distinct rows in order
+     */
+    private static int[] getRanks(int rows, Comparator<Integer> order) {
+        Integer[] sorted = new Integer[rows];
+        for (int row = 0; row < rows; row++) sorted[row] = row;
+        Arrays.sort(sorted, order);
+        int[] ranks = new int[rows];
+        int rank = 0;
+        for (int i = 0; i < rows; i++) {
+            if (i > 0 && order.compare(sorted[i - 1], sorted[i]) != 0) rank++;
+            ranks[sorted[i]] = rank;
+        }
+        return ranks;
+    }
+}
@@ -54,6 +54,7 @@ public final class SecurityAccountEditorForm extends JFrame implements ActionLis
     JComboBox<SecurityType> securityTypeComboBox = new JComboBox<>
             (new DefaultComboBoxModel<>(SecurityType.values()));
     JComboBox<String> securitySubTypeComboBox = new JComboBox<>();
+    JTextField tagTextField = new JTextField();
     JButton addSecuritySubTypeButton = new BasicArrowButton(BasicArrowButton.EAST, Color.BLACK,
             Color.lightGray, Color.WHITE, Color.WHITE);
     JButton updateSecurityButton = new JButton("Update Security");
@@ -97,6 +98,7 @@ public final class SecurityAccountEditorForm extends JFrame implements ActionLis
         JLabel tickerTextLabel = new JLabel("Ticker Symbol");
         JLabel securityTypeTextLabel = new JLabel("Security Type");
         JLabel securitySubTypeTextLabel = new JLabel("Security Sub Type");
+        JLabel tagTextLabel = new JLabel("Tag");
 
         //populate
         addSecuritySubTypeButton.setToolTipText("Add Security Subtype");
@@ -104,6 +106,8 @@ public final class SecurityAccountEditorForm extends JFrame implements ActionLis
         tickerTextField.setText(securityAccountWrapper.getCurrencyWrapper().getName());
         securityTypeComboBox.setSelectedItem(securityAccountWrapper.getSecurityType());
         populateSecuritySubTypes(true);
+        tagTextField.setText(table.getReportConfig().getSecurityTags()
+                .getOrDefault(securityAccountWrapper.getSecurityAccount().getUUID(), ""));
 
         securityTypeComboBox.addActionListener(this);
         securityTypeComboBox.setActionCommand(SECURITY_TYPE_CHANGED);
@@ -131,6 +135,8 @@ public final class SecurityAccountEditorForm extends JFrame implements ActionLis
         mainPanel.add(securityTypeTextLabel, c);
         c.gridy++;
         mainPanel.add(securitySubTypeTextLabel, c);
+        c.gridy++;
+        mainPanel.add(tagTextLabel, c);
         // contents
         c.anchor = GridBagConstraints.EAST;
         c.gridx = 1;
@@ -142,7 +148,10 @@ public final class SecurityAccountEditorForm extends JFrame implements ActionLis
         mainPanel.add(securityTypeComboBox, c);
         c.gridy++;
         mainPanel.add(securitySubTypeComboBox, c);
+        c.gridy++;
+        mainPanel.add(tagTextField, c);
         c.gridx = 2;
+        c.gridy--;
         mainPanel.add(addSecuritySubTypeButton, c);
 
         buttonPanel.setLayout(new GridBagLayout());
@@ -221,6 +230,10 @@ public final class SecurityAccountEditorForm extends JFrame implements ActionLis
         securityAccount.setSecuritySubType(newSecuritySubType);
         syncAccountBook(securityAccount, securityAccountWrapper.getAccountBook());
         syncAccountBook(currencyType, securityAccountWrapper.getAccountBook());
+        // tag takes effect on the next report run
+        ReportConfig reportConfig = table.getReportConfig();
+        reportConfig.setSecurityTag(securityAccount.getUUID(), tagTextField.getText());
+        reportConfig.saveReportConfig();
         table.getReportTableModel().fireTableDataChanged();
         this.dispose();
     }
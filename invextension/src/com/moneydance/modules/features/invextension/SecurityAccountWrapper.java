@@ -34,6 +34,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 /**
  * Adds functionality to
@@ -61,6 +62,11 @@ public final class SecurityAccountWrapper implements Aggregator, Comparable<Secu
     private LinkedHashMap<String, TransactionValues> transValueMap;
     private LinkedHashMap<String, String> idMap;
     private DIV_FREQUENCY divFrequency = DIV_FREQUENCY.UNKNOWN;
+    // date-collapsed buy/sell and income/expense flows, built on first use
+    private CashFlowIndex capitalFlowIndex;
+    private CashFlowIndex incomeFlowIndex;
+    private DailyValuation dailyValuation;
+    private int ordinal = -1; // index of this security within BulkSecInfo
 
     public SecurityAccountWrapper(@NotNull Account secAcct,
                                   CurrencyWrapper currencyWrapper, TxnSet txnSet,
@@ -117,6 +123,7 @@ public final class SecurityAccountWrapper implements Aggregator, Comparable<Secu
      */
     public void generateTransValues() throws Exception {
         this.transValueMap = new LinkedHashMap<>();
+        clearFlowIndices();
         ArrayList<ParentTxn> assocTrans = new ArrayList<>();
         Account thisAccount = isCash ? invAcctWrapper.getInvestmentAccount() : this.securityAccount;
         DividendFrequencyAnalyzer dividendFrequencyAnalyzer = new DividendFrequencyAnalyzer();
@@ -147,29 +154,26 @@ public final class SecurityAccountWrapper implements Aggregator, Comparable<Secu
     }
 
     public double getCurrencyRateByDateInt(int dateInt){
-        return this.invAcctWrapper.getAccountCurrencyUserRateByDateInt(dateInt);
+        return this.invAcctWrapper.getReportingCurrencyRateByDateInt(dateInt);
+    }
+
+    public FxRateCache getFxRateCache() {
+        return this.invAcctWrapper.getBulkSecInfo().getFxRateCache();
+    }
+
+    public BusinessDayCalendar getBusinessDayCalendar() {
+        return this.invAcctWrapper.getBulkSecInfo().getBusinessDayCalendar();
     }
 
     public long getPrice(int dateInt) {
         if (currencyWrapper.isCash) {
-            return 100;
+            // cash is held in account currency
+            return invAcctWrapper.hasReportingCurrency()
+                    ? Math.round(invAcctWrapper.getReportingConversionRate(dateInt) * 100) : 100;
         } else {  // Price returned is the latest price if requested date is before first snapshot
-            // Correct that by taking nearest snapshot (i.e. first)
-            List<CurrencySnapshot> snapshots = currencyWrapper.getCurrencyType().getSnapshots();
-            if (!snapshots.isEmpty()) {
-                CurrencySnapshot firstSnapshot = snapshots.getFirst();
-                if (dateInt < firstSnapshot.getDateInt()) {
-                    return Math.round((1.0 / firstSnapshot.getRate() *
-                            this.getCurrencyRateByDateInt(dateInt))* 100);
-                } else {
-                    return Math.round((1.0 / currencyWrapper.getCurrencyType().getRate(null, dateInt)
-                            * this.getCurrencyRateByDateInt(dateInt))* 100);
-                }
-            } else {
-                return Math.round((1.0 / currencyWrapper.getCurrencyType().getRate(null, dateInt) *
-                        this.getCurrencyRateByDateInt(dateInt))  * 100);
-            }
-
+            // Correct that by taking nearest snapshot (i.e. first), see FxRateSeries.getPriceRate
+            return Math.round((1.0 / getFxRateCache().getPriceRate(currencyWrapper.getCurrencyType(), dateInt)
+                    * this.getCurrencyRateByDateInt(dateInt)) * 100);
         }
     }
 
@@ -265,10 +269,138 @@ public final class SecurityAccountWrapper implements Aggregator, Comparable<Secu
     public void setAllTransactionValues(@Nullable LinkedHashMap<String, TransactionValues> transValueMap) {
         if (transValueMap != null) {
             this.transValueMap = transValueMap;
+            clearFlowIndices();
+        }
+
+    }
+
+    /**
+     * Buy/sell flows of this security, collapsed to one entry per date
+     *
+     * @return capital flow index
+     */
+    public synchronized CashFlowIndex getCapitalFlowIndex() {
+        if (capitalFlowIndex == null) buildFlowIndices();
+        return capitalFlowIndex;
+    }
+
+    /**
+     * Income/expense flows of this security, collapsed to one entry per date
+     *
+     * @return income flow index
+     */
+    public synchronized CashFlowIndex getIncomeFlowIndex() {
+        if (incomeFlowIndex == null) buildFlowIndices();
+        return incomeFlowIndex;
+    }
+
+    private void buildFlowIndices() {
+        CashFlowIndex.Builder capitalBuilder = new CashFlowIndex.Builder();
+        CashFlowIndex.Builder incomeBuilder = new CashFlowIndex.Builder();
+        if (transValueMap != null) {
+            for (TransactionValues transactionValues : transValueMap.values()) {
+                int dateInt = transactionValues.getDateInt();
+                long capitalFlow = transactionValues.getBuySellFlows();
+                long incomeFlow = transactionValues.getIncomeExpenseFlows();
+                if (capitalFlow != 0) capitalBuilder.add(dateInt, capitalFlow);
+                if (incomeFlow != 0) incomeBuilder.add(dateInt, incomeFlow);
+            }
         }
+        capitalFlowIndex = capitalBuilder.build();
+        incomeFlowIndex = incomeBuilder.build();
+    }
 
+    private synchronized void clearFlowIndices() {
+        capitalFlowIndex = null;
+        incomeFlowIndex = null;
+        dailyValuation = null;
     }
-    
+
+    /**
+     * Market value of this security at the end of each day, from the first
+     * transaction through at least the given date.  Built once and reused by all
+     * extractors; rebuilt only if a later date is requested.
+     *
+     * @param throughDateInt last date which must be covered
+     * @return daily valuation
+     */
+    public synchronized DailyValuation getDailyValuation(int throughDateInt) {
+        if (dailyValuation == null || !dailyValuation.covers(throughDateInt)) {
+            if (dailyValuation != null) throughDateInt = Math.max(throughDateInt, dailyValuation.getLastDateInt());
+            dailyValuation = buildDailyValuation(throughDateInt);
+        }
+        return dailyValuation;
+    }
+
+    private DailyValuation buildDailyValuation(int throughDateInt) {
+        if (transValueMap == null || transValueMap.isEmpty()) return DailyValuation.EMPTY;
+        int firstDateInt = transValueMap.values().iterator().next().getDateInt();
+        throughDateInt = Math.max(throughDateInt, firstDateInt);
+        int days = DateUtils.getDaysBetween(firstDateInt, throughDateInt) + 1;
+        int[] positionDates = new int[transValueMap.size()];
+        long[] positions = new long[transValueMap.size()];
+        int t = 0;
+        for (TransactionValues transactionValues : transValueMap.values()) {
+            positionDates[t] = transactionValues.getDateInt();
+            positions[t++] = transactionValues.getPosition();
+        }
+
+        // same scaling as ExtractorBase.qXp
+        CurrencyType currency = currencyWrapper.getCurrencyType();
+        long pXqScale = currency == null ? 10000 : (long) Math.pow(10.0, currency.getDecimalPlaces());
+        int[] splitDays = currency == null ? new int[0] : getSplitDays(currency, firstDateInt, days);
+        return DailyValuation.build(positionDates, positions, getDailyPrices(firstDateInt, days), pXqScale,
+                splitDays, (position, referenceDateInt, dateInt) -> {
+                    double currentRate = getFxRateCache().getRate(currency, dateInt);
+                    return Math.round(position * currency.adjustRateForSplitsInt(referenceDateInt, currentRate,
+                            dateInt) / currentRate);
+                });
+    }
+
+    /**
+     * @return price on each day from the first date, as getPrice
+     */
+    private long[] getDailyPrices(int firstDateInt, int days) {
+        FxRateCache fxRateCache = getFxRateCache();
+        CurrencyType reportingCurrency = invAcctWrapper.getBulkSecInfo().getReportingCurrency();
+        CurrencyType accountCurrency = invAcctWrapper.getAccountCurrency();
+        long[] prices = new long[days];
+        if (currencyWrapper.isCash) {
+            if (reportingCurrency == null) {
+                Arrays.fill(prices, 100);
+                return prices;
+            }
+            double[] reportingRates = fxRateCache.getDailyRates(reportingCurrency, firstDateInt, days, false);
+            double[] accountRates = fxRateCache.getDailyRates(accountCurrency, firstDateInt, days, false);
+            for (int i = 0; i < days; i++) {
+                prices[i] = Math.round(reportingRates[i] / accountRates[i] * 100);
+            }
+        } else {
+            double[] priceRates = fxRateCache.getDailyRates(currencyWrapper.getCurrencyType(), firstDateInt,
+                    days, true);
+            double[] reportingRates = fxRateCache.getDailyRates(reportingCurrency == null ? accountCurrency
+                    : reportingCurrency, firstDateInt, days, false);
+            for (int i = 0; i < days; i++) {
+                prices[i] = Math.round((1.0 / priceRates[i] * reportingRates[i]) * 100);
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Days (counted from the first date) on which a split adjustment may change:
+     * each split date and the day after, whichever side of its date Moneydance
+     * applies a split on.
+     */
+    private static int[] getSplitDays(CurrencyType currency, int firstDateInt, int days) {
+        long firstDay = DateUtils.toEpochDay(firstDateInt);
+        return currency.getSplits().stream()
+                .mapToLong(split -> DateUtils.toEpochDay(split.getDateInt()) - firstDay)
+                .flatMap(day -> LongStream.of(day, day + 1))
+                .filter(day -> day > 0 && day < days)
+                .mapToInt(day -> (int) day).sorted().distinct().toArray();
+    }
+
     @Override
     public int compareTo(@NotNull SecurityAccountWrapper o) {
         return BulkSecInfo.acctComp.compare(this.securityAccount, o.securityAccount);
@@ -286,6 +418,14 @@ public final class SecurityAccountWrapper implements Aggregator, Comparable<Secu
         return securityAccount.getSecuritySubType();
     }
 
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
     public Account getSecurityAccount() {
         return securityAccount;
     }
@@ -56,52 +56,57 @@ public final class SecurityFromToReport extends SecurityReport {
         int fromDateInt = dateRange.getFromDateInt();
         int toDateInt = dateRange.getToDateInt();
 
-        // Extractors for metrics
-        ExtractorStartPrice eStartPrice = new ExtractorStartPrice(securityAccount, fromDateInt, toDateInt);
-        ExtractorStartPosition eStartPosition = new ExtractorStartPosition(securityAccount, fromDateInt, toDateInt);
-        ExtractorStartValue eStartValue = new ExtractorStartValue(securityAccount, fromDateInt, toDateInt);
-
-        ExtractorEndPrice eEndPrice = new ExtractorEndPrice(securityAccount, fromDateInt, toDateInt);
-        ExtractorEndPosition eEndPosition = new ExtractorEndPosition(securityAccount, fromDateInt, toDateInt);
-        ExtractorEndValue eEndValue = new ExtractorEndValue(securityAccount, fromDateInt, toDateInt);
-        ExtractorShortBasis eShortBasis = new ExtractorShortBasis(securityAccount, fromDateInt, toDateInt);
-        ExtractorLongBasis eLongBasis = new ExtractorLongBasis(securityAccount, fromDateInt, toDateInt);
-
-        ExtractorBuy eBuys = new ExtractorBuy(securityAccount, fromDateInt, toDateInt);
-        ExtractorCoveredShort eCoverShorts = new ExtractorCoveredShort(securityAccount, fromDateInt, toDateInt);
-        ExtractorExpense eExpense = new ExtractorExpense(securityAccount, fromDateInt, toDateInt);
-        ExtractorIncome eIncome = new ExtractorIncome(securityAccount, fromDateInt, toDateInt);
-        ExtractorSell eSells = new ExtractorSell(securityAccount, fromDateInt, toDateInt);
-        ExtractorShortSell eShortSells = new ExtractorShortSell(securityAccount, fromDateInt, toDateInt);
-
-        // Put them into a table under the appropriate names
-        simpleMetric.put(SMStartPrice, new MetricEntry<>(0L, eStartPrice));
-        simpleMetric.put(SMStartPosition, new MetricEntry<>(0L, eStartPosition));
-        simpleMetric.put(SMStartValue, new MetricEntry<>(0L, eStartValue));
-
-        simpleMetric.put(SMEndPrice, new MetricEntry<>(0L, eEndPrice));
-        simpleMetric.put(SMEndPosition, new MetricEntry<>(0L, eEndPosition));
-        simpleMetric.put(SMEndValue, new MetricEntry<>(0L, eEndValue));
-
-        simpleMetric.put(SMLongBasis, new MetricEntry<>(0L, eLongBasis));
-        simpleMetric.put(SMShortBasis, new MetricEntry<>(0L, eShortBasis));
-
-        simpleMetric.put(SMBuy, new MetricEntry<>(0L, eBuys));
-        simpleMetric.put(SMCoveredShort, new MetricEntry<>(0L, eCoverShorts));
-        simpleMetric.put(SMExpense, new MetricEntry<>(0L, eExpense));
-        simpleMetric.put(SMIncome, new MetricEntry<>(0L, eIncome));
-        simpleMetric.put(SMSell, new MetricEntry<>(0L, eSells));
-        simpleMetric.put(SMShortSell, new MetricEntry<>(0L, eShortSells));
+        if (securityAccount != null) {
+            // Extractors for metrics
+            ExtractorStartPrice eStartPrice = new ExtractorStartPrice(securityAccount, fromDateInt, toDateInt);
+            ExtractorStartPosition eStartPosition = new ExtractorStartPosition(securityAccount, fromDateInt, toDateInt);
+            ExtractorStartValue eStartValue = new ExtractorStartValue(securityAccount, fromDateInt, toDateInt);
+
+            ExtractorEndPrice eEndPrice = new ExtractorEndPrice(securityAccount, fromDateInt, toDateInt);
+            ExtractorEndPosition eEndPosition = new ExtractorEndPosition(securityAccount, fromDateInt, toDateInt);
+            ExtractorEndValue eEndValue = new ExtractorEndValue(securityAccount, fromDateInt, toDateInt);
+            ExtractorShortBasis eShortBasis = new ExtractorShortBasis(securityAccount, fromDateInt, toDateInt);
+            ExtractorLongBasis eLongBasis = new ExtractorLongBasis(securityAccount, fromDateInt, toDateInt);
+
+            ExtractorBuy eBuys = new ExtractorBuy(securityAccount, fromDateInt, toDateInt);
+            ExtractorCoveredShort eCoverShorts = new ExtractorCoveredShort(securityAccount, fromDateInt, toDateInt);
+            ExtractorExpense eExpense = new ExtractorExpense(securityAccount, fromDateInt, toDateInt);
+            ExtractorIncome eIncome = new ExtractorIncome(securityAccount, fromDateInt, toDateInt);
+            ExtractorSell eSells = new ExtractorSell(securityAccount, fromDateInt, toDateInt);
+            ExtractorShortSell eShortSells = new ExtractorShortSell(securityAccount, fromDateInt, toDateInt);
+
+            // Put them into a table under the appropriate names
+            simpleMetric.put(SMStartPrice, new MetricEntry<>(0L, eStartPrice));
+            simpleMetric.put(SMStartPosition, new MetricEntry<>(0L, eStartPosition));
+            simpleMetric.put(SMStartValue, new MetricEntry<>(0L, eStartValue));
+
+            simpleMetric.put(SMEndPrice, new MetricEntry<>(0L, eEndPrice));
+            simpleMetric.put(SMEndPosition, new MetricEntry<>(0L, eEndPosition));
+            simpleMetric.put(SMEndValue, new MetricEntry<>(0L, eEndValue));
+
+            simpleMetric.put(SMLongBasis, new MetricEntry<>(0L, eLongBasis));
+            simpleMetric.put(SMShortBasis, new MetricEntry<>(0L, eShortBasis));
+
+            simpleMetric.put(SMBuy, new MetricEntry<>(0L, eBuys));
+            simpleMetric.put(SMCoveredShort, new MetricEntry<>(0L, eCoverShorts));
+            simpleMetric.put(SMExpense, new MetricEntry<>(0L, eExpense));
+            simpleMetric.put(SMIncome, new MetricEntry<>(0L, eIncome));
+            simpleMetric.put(SMSell, new MetricEntry<>(0L, eSells));
+            simpleMetric.put(SMShortSell, new MetricEntry<>(0L, eShortSells));
+
+            // These extractors return multiple values, which are exploded into values in the normal metrics
+            ExtractorGains eGains = new ExtractorGainsFT(securityAccount, fromDateInt, toDateInt);              // x 3
+
+            multipleMetrics.put(MMGains, new MetricEntry<>(Arrays.asList(0L, 0L, 0L), eGains));
+        } else {
+            putAccumulators(SMStartPrice, SMStartPosition, SMStartValue, SMEndPrice, SMEndPosition, SMEndValue,
+                    SMLongBasis, SMShortBasis, SMBuy, SMCoveredShort, SMExpense, SMIncome, SMSell, SMShortSell);
+        }
 
         simpleMetric.put(SMRealizedGain, new MetricEntry<>(0L, null));
         simpleMetric.put(SMUnrealizedGain, new MetricEntry<>(0L, null));
         simpleMetric.put(SMTotalGain, new MetricEntry<>(0L, null));
 
-        // These extractors return multiple values, which are exploded into values in the normal metrics
-        ExtractorGains eGains = new ExtractorGainsFT(securityAccount, fromDateInt, toDateInt);              // x 3
-
-        multipleMetrics.put(MMGains, new MetricEntry<>(Arrays.asList(0L, 0L, 0L), eGains));
-
         // Extractors for return calculations.
         ExtractorReturnBase aggregatedWindowTotalReturn = ExtractorReturnBase.factory(securityAccount, this,fromDateInt,
                 toDateInt, ExtractorReturnBase.ReturnWindowType.DEFAULT, reportConfig.useOrdinaryReturn());
@@ -117,12 +122,16 @@ public final class SecurityFromToReport extends SecurityReport {
         returnsMetric.put(RMWindowAnnualReturn, new MetricEntry<>(0.0, aggregatedWindowAnnualReturn));
         returnsMetric.put(RMStubTotalReturn, new MetricEntry<>(0.0, aggregatedStubTotalReturn));
         returnsMetric.put(RMStubAnnualReturn, new MetricEntry<>(0.0, aggregatedStubAnnualReturn));
+        returnsMetric.put(RMTwrWindowReturn, new MetricEntry<>(0.0, new ExtractorTimeWeightedReturn(securityAccount,
+                this, fromDateInt, toDateInt, ExtractorReturnBase.ReturnWindowType.ANY)));
 
 
-        // Do the calculations by running the extractors over the transactions in this account.
-        doCalculations(securityAccount);
-        // Distribute the values from extractors that return multiple values
-        explode(MMGains, SMRealizedGain, SMUnrealizedGain, SMTotalGain);
+        if (securityAccount != null) {
+            // Do the calculations by running the extractors over the transactions in this account.
+            doCalculations(securityAccount);
+            // Distribute the values from extractors that return multiple values
+            explode(MMGains, SMRealizedGain, SMUnrealizedGain, SMTotalGain);
+        }
     }
 
     @Override
@@ -180,6 +189,7 @@ public final class SecurityFromToReport extends SecurityReport {
         outputReturn(RMWindowAnnualReturn);
         outputReturn(RMStubTotalReturn);
         outputReturn(RMStubAnnualReturn);
+        outputReturn(RMTwrWindowReturn);
 
     }
 }
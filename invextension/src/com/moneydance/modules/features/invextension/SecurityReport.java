@@ -36,6 +36,7 @@ import com.moneydance.modules.features.invextension.CompositeReport.COMPOSITE_TY
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.TreeMap;
@@ -60,6 +61,8 @@ public abstract class SecurityReport extends ComponentReport {
     private CurrencyWrapper currency;
     private SecurityTypeWrapper securityType;
     private SecuritySubTypeWrapper securitySubType;
+    private TagAggregator tag; // user-defined tag, set for leaf reports by TotalReport
+    private final TagAggregator tagLabel = new TagAggregator(""); // tag column output
 
     private CompositeReport compositeReport = null; //reference to enclosing composite if applicable
 
@@ -88,6 +91,11 @@ public abstract class SecurityReport extends ComponentReport {
     public static final String RMWindowAnnualReturn = "WindowAnnualReturn";
     public static final String RMStubTotalReturn = "StubTotalReturn";
     public static final String RMStubAnnualReturn = "StubAnnualReturn";
+    public static final String RMTwrYTDReturn = "TwrYTDReturn";
+    public static final String RMTwrYearReturn = "TwrYearReturn";
+    public static final String RMTwr3YearReturn = "Twr3YearReturn";
+    public static final String RMTwrAllReturn = "TwrAllReturn";
+    public static final String RMTwrWindowReturn = "TwrWindowReturn";
 
 
     public static final String SMAbsPriceChange = "AbsPriceChange";
@@ -171,26 +179,7 @@ public abstract class SecurityReport extends ComponentReport {
 
         } else {
             assert(compositeReport != null);
-            String firstAggregateName;
-            String secondAggregateName;
-            COMPOSITE_TYPE compositeType = compositeReport.getCompositeType();
             AggregationController aggregationController = compositeReport.getAggregationController();
-            Aggregator firstAggregator = compositeReport.getFirstAggregator();
-            Aggregator secondAggregator = compositeReport.getSecondAggregator();
-
-            if (compositeType == COMPOSITE_TYPE.ALL) {
-                firstAggregateName = aggregationController.getFirstAggregator().getAllTypesName();
-                secondAggregateName = aggregationController.getSecondAggregator().getAllTypesName();
-            } else if (compositeType == COMPOSITE_TYPE.FIRST) {
-                firstAggregateName = firstAggregator.getAggregateName() + " ";
-                secondAggregateName = secondAggregator.getAllTypesName();
-            } else if (compositeType == COMPOSITE_TYPE.SECOND) {
-                firstAggregateName = firstAggregator.getAllTypesName();
-                secondAggregateName = secondAggregator.getAggregateName();
-            } else { //"Both" Case
-                firstAggregateName = firstAggregator.getAggregateName();
-                secondAggregateName = secondAggregator.getAggregateName();
-            }
 
             //generate dummy aggregator objects
             InvestmentAccountWrapper investmentAccountWrapper = new InvestmentAccountWrapper("");
@@ -199,29 +188,23 @@ public abstract class SecurityReport extends ComponentReport {
             SecuritySubTypeWrapper securitySubTypeWrapper = new SecuritySubTypeWrapper("");
             CurrencyWrapper currencyWrapper = new CurrencyWrapper("");
 
-            Aggregator controllerFirstAggregator = aggregationController.getFirstAggregator();
-            //sets name for first aggregator
-            if (controllerFirstAggregator instanceof InvestmentAccountWrapper)
-                investmentAccountWrapper.setName(firstAggregateName);//investmentAccountStr = firstAggStrName;
-            if (controllerFirstAggregator instanceof SecurityTypeWrapper)
-                securityTypeWrapper.setName(firstAggregateName);//securityTypeStr = firstAggStrName;
-            if (controllerFirstAggregator instanceof SecuritySubTypeWrapper)
-                securitySubTypeWrapper.setName(firstAggregateName); //securitySubTypeStr = firstAggStrName;
-            if (controllerFirstAggregator instanceof Tradeable)
-                securityAccountWrapper.setName(firstAggregateName); //securityAccountStr = firstAggStrName;
-            if (controllerFirstAggregator instanceof CurrencyWrapper)
-                currencyWrapper.setTicker(firstAggregateName);
-
-            Aggregator controllerSecondAggregator = aggregationController.getSecondAggregator();
-            //sets name for second aggregator
-            if (controllerSecondAggregator instanceof InvestmentAccountWrapper)
-                investmentAccountWrapper.setName(secondAggregateName);//investmentAccountStr = secondAggStrName;
-            if (controllerSecondAggregator instanceof SecurityTypeWrapper)
-                securityTypeWrapper.setName(secondAggregateName);//securityTypeStr = secondAggStrName;
-            if (controllerSecondAggregator instanceof SecuritySubTypeWrapper)
-                securitySubTypeWrapper.setName(secondAggregateName);//securitySubTypeStr = secondAggStrName;
-            if (controllerSecondAggregator instanceof Tradeable) {
-                securityAccountWrapper.setName(secondAggregateName);//securityAccountStr = secondAggStrName;
+            List<Aggregator> controllerAggregators = aggregationController.getAggregators();
+            //sets name for each aggregator level
+            for (int level = 0; level < controllerAggregators.size(); level++) {
+                String aggregateName = compositeReport.getLevelName(level);
+                Aggregator controllerAggregator = controllerAggregators.get(level);
+                if (controllerAggregator instanceof InvestmentAccountWrapper)
+                    investmentAccountWrapper.setName(aggregateName);
+                if (controllerAggregator instanceof SecurityTypeWrapper)
+                    securityTypeWrapper.setName(aggregateName);
+                if (controllerAggregator instanceof SecuritySubTypeWrapper)
+                    securitySubTypeWrapper.setName(aggregateName);
+                if (controllerAggregator instanceof Tradeable)
+                    securityAccountWrapper.setName(aggregateName);
+                if (controllerAggregator instanceof CurrencyWrapper)
+                    currencyWrapper.setTicker(aggregateName);
+                if (controllerAggregator instanceof TagAggregator)
+                    tagLabel.setName(aggregateName);
             }
             outputLine.add(0, investmentAccountWrapper);
             outputLine.add(1, securityAccountWrapper);
@@ -255,6 +238,18 @@ public abstract class SecurityReport extends ComponentReport {
         }
     }
 
+    /**
+     * Puts simple metrics of an aggregate report.  Aggregates only sum or assign the
+     * values of their members (see addTo), so they carry no per-transaction extractors.
+     *
+     * @param names names of simple metrics
+     */
+    protected void putAccumulators(String... names) {
+        for (String name : names) {
+            simpleMetric.put(name, new MetricEntry<>(0L, null));
+        }
+    }
+
     // Exploit the triple stored under "resultName" into the three metrics whose names are given.
     protected void explode(String resultName, String name0, String name1, String name2) {
         List<Number> result = multipleMetrics.get(resultName).value;
@@ -325,6 +320,7 @@ public abstract class SecurityReport extends ComponentReport {
         aggregate.securitySubType = securitySubType;
         aggregate.tradeable = tradeable;
         aggregate.currency = currency;
+        aggregate.tag = tag;
 
         // Copy values
         aggregate.addTo(this);
@@ -351,6 +347,8 @@ public abstract class SecurityReport extends ComponentReport {
             return tradeable;
         } else if (aggregator instanceof CurrencyWrapper) {
             return currency;
+        } else if (aggregator instanceof TagAggregator) {
+            return tag;
         } else if (aggregator instanceof AllAggregate) {
             return AllAggregate.getInstance();
         } else {
@@ -372,7 +370,11 @@ public abstract class SecurityReport extends ComponentReport {
 
     @Override
     public Object[] toTableRow() throws SecurityException, IllegalArgumentException {
+        // leaf rows are reused when aggregation is switched, so keep only the label columns
+        outputLine.subList(5, outputLine.size()).clear();
         recordMetrics();
+        // tag column follows the metrics, so that saved column indices remain valid
+        outputLine.add(tagLabel);
         return outputLine.toArray();
     }
 
@@ -392,11 +394,41 @@ public abstract class SecurityReport extends ComponentReport {
     }
 
     protected void outputReturn(String name) {
-        MetricEntry<Double> entry = returnsMetric.get(name);
-        entry.value = (Double) entry.extractor.getResult(); // Force calculation if aggregate
+        MetricEntry<Double> entry = returnsMetric.get(name); // solved in TotalReport.solveReturns
         outputLine.add(entry.displayObject(null));
     }
 
+    /**
+     * @return return metrics of this report, each with the extractor which computes it
+     */
+    public Collection<MetricEntry<Double>> getReturnMetricEntries() {
+        return returnsMetric.values();
+    }
+
+    /**
+     * Computes and stores the result of a return metric.  Only entries of aggregate
+     * reports, whose extractors read no Moneydance data, may be solved concurrently;
+     * see TotalReport.solveReturns.
+     *
+     * @param entry return metric entry
+     */
+    public static void solveReturn(MetricEntry<Double> entry) {
+        if (entry.extractor != null) entry.value = (Double) entry.extractor.getResult();
+    }
+
+    /**
+     * Shows the other return type of a return metric (ordinary or Modified Dietz),
+     * if its extractor stores one
+     *
+     * @param entry metric entry
+     */
+    @SuppressWarnings("unchecked")
+    public static void switchReturnType(MetricEntry<?> entry) {
+        if (entry.extractor instanceof ExtractorReturnBase extractor && extractor.hasAlternateReturn()) {
+            ((MetricEntry<Double>) entry).value = extractor.switchReturnType();
+        }
+    }
+
     public String getName() {
         if (securityAccount == null) {
             return "Null SecAccountWrapper";
@@ -405,6 +437,10 @@ public abstract class SecurityReport extends ComponentReport {
         }
     }
 
+    public SecurityAccountWrapper getSecurityAccountWrapper() {
+        return securityAccount;
+    }
+
     public Tradeable getTradeable() {
         return tradeable;
     }
@@ -421,6 +457,15 @@ public abstract class SecurityReport extends ComponentReport {
         this.currency = currencyWrapper;
     }
 
+    public TagAggregator getTagAggregator() {
+        return tag;
+    }
+
+    public void setTagAggregator(TagAggregator tag) {
+        this.tag = tag;
+        if (securityAccount != null && tag != null) tagLabel.setName(tag.getName());
+    }
+
     public SecurityTypeWrapper getSecurityTypeWrapper() {
         return securityType;
     }
@@ -478,6 +523,18 @@ public abstract class SecurityReport extends ComponentReport {
         return  description.toString();
     }
 
+    /**
+     * @return names of the five label columns of this report's row
+     */
+    public String[] getRowLabels() {
+        String[] labels = new String[5];
+        for (int i = 0; i < labels.length; i++) {
+            Object obj = outputLine.get(i);
+            labels[i] = obj instanceof Aggregator ? ((Aggregator) obj).getName() : "";
+        }
+        return labels;
+    }
+
     public double getPriceScale() {
         return priceScale;
     }
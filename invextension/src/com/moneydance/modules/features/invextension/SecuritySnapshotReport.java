@@ -57,44 +57,60 @@ public final class SecuritySnapshotReport extends SecurityReport {
         int snapDateInt = dateRange.getSnapDateInt();
 
         // Dates for return calculations
-        int prevDayFromDateInt = DateUtils.getPrevBusinessDay(snapDateInt);
-        int weekFromDateInt = DateUtils.getLatestBusinessDay(DateUtils.addDaysInt(snapDateInt, -7));
-        int MonthFromDateInt = DateUtils.getLatestBusinessDay(DateUtils.addMonthsInt(snapDateInt, -1));
-        int threeMonthFromDateInt = DateUtils.getLatestBusinessDay(DateUtils.addMonthsInt(snapDateInt, -3));
-        int ytdFromDateInt = DateUtils.getStartYear(snapDateInt);
-        int oneYearFromDateInt = DateUtils.getLatestBusinessDay(DateUtils.addMonthsInt(snapDateInt, -12));
-        int threeYearFromDateInt = DateUtils.getLatestBusinessDay(DateUtils.addMonthsInt(snapDateInt, -36));
-
-        // Extractors for metrics
-        ExtractorStartPrice eStartPrice = new ExtractorStartPrice(securityAccount, fromDateInt, snapDateInt);
-        ExtractorStartPosition eStartPosition = new ExtractorStartPosition(securityAccount, fromDateInt, snapDateInt);
-        ExtractorStartValue eStartValue = new ExtractorStartValue(securityAccount, fromDateInt, snapDateInt);
-
-        ExtractorEndPrice eEndPrice = new ExtractorEndPrice(securityAccount, fromDateInt, snapDateInt);
-        ExtractorEndPosition eEndPosition = new ExtractorEndPosition(securityAccount, fromDateInt, snapDateInt);
-        ExtractorEndValue eEndValue = new ExtractorEndValue(securityAccount, fromDateInt, snapDateInt);
-
-        ExtractorLongBasis eLongBasis = new ExtractorLongBasis(securityAccount, fromDateInt, snapDateInt);
-        ExtractorShortBasis eShortBasis = new ExtractorShortBasis(securityAccount, fromDateInt, snapDateInt);
-        ExtractorIncome eIncome = new ExtractorIncome(securityAccount, fromDateInt, snapDateInt);
-
-        // Put them into a table under the appropriate names
-        simpleMetric.put(SMStartPrice, new MetricEntry<>(0L, eStartPrice));
-        simpleMetric.put(SMStartPosition, new MetricEntry<>(0L, eStartPosition));
-        simpleMetric.put(SMStartValue, new MetricEntry<>(0L, eStartValue));
-
-        simpleMetric.put(SMEndPrice, new MetricEntry<>(0L, eEndPrice));
-        simpleMetric.put(SMEndPosition, new MetricEntry<>(0L, eEndPosition));
-        simpleMetric.put(SMEndValue, new MetricEntry<>(0L, eEndValue));
+        BusinessDayCalendar calendar = reportConfig.getBusinessDayCalendar();
+        int prevDayFromDateInt = calendar.getPrevBusinessDay(snapDateInt);
+        int weekFromDateInt = calendar.getLatestBusinessDay(DateUtils.addDaysInt(snapDateInt, -7));
+        int MonthFromDateInt = calendar.getLatestBusinessDay(DateUtils.addMonthsInt(snapDateInt, -1));
+        int threeMonthFromDateInt = calendar.getLatestBusinessDay(DateUtils.addMonthsInt(snapDateInt, -3));
+        int ytdFromDateInt = calendar.getStartYear(snapDateInt);
+        int oneYearFromDateInt = calendar.getLatestBusinessDay(DateUtils.addMonthsInt(snapDateInt, -12));
+        int threeYearFromDateInt = calendar.getLatestBusinessDay(DateUtils.addMonthsInt(snapDateInt, -36));
+
+        if (securityAccount != null) {
+            // Extractors for metrics
+            ExtractorStartPrice eStartPrice = new ExtractorStartPrice(securityAccount, fromDateInt, snapDateInt);
+            ExtractorStartPosition eStartPosition = new ExtractorStartPosition(securityAccount, fromDateInt, snapDateInt);
+            ExtractorStartValue eStartValue = new ExtractorStartValue(securityAccount, fromDateInt, snapDateInt);
+
+            ExtractorEndPrice eEndPrice = new ExtractorEndPrice(securityAccount, fromDateInt, snapDateInt);
+            ExtractorEndPosition eEndPosition = new ExtractorEndPosition(securityAccount, fromDateInt, snapDateInt);
+            ExtractorEndValue eEndValue = new ExtractorEndValue(securityAccount, fromDateInt, snapDateInt);
+
+            ExtractorLongBasis eLongBasis = new ExtractorLongBasis(securityAccount, fromDateInt, snapDateInt);
+            ExtractorShortBasis eShortBasis = new ExtractorShortBasis(securityAccount, fromDateInt, snapDateInt);
+            ExtractorIncome eIncome = new ExtractorIncome(securityAccount, fromDateInt, snapDateInt);
+
+            // Put them into a table under the appropriate names
+            simpleMetric.put(SMStartPrice, new MetricEntry<>(0L, eStartPrice));
+            simpleMetric.put(SMStartPosition, new MetricEntry<>(0L, eStartPosition));
+            simpleMetric.put(SMStartValue, new MetricEntry<>(0L, eStartValue));
+
+            simpleMetric.put(SMEndPrice, new MetricEntry<>(0L, eEndPrice));
+            simpleMetric.put(SMEndPosition, new MetricEntry<>(0L, eEndPosition));
+            simpleMetric.put(SMEndValue, new MetricEntry<>(0L, eEndValue));
+
+            simpleMetric.put(SMLongBasis, new MetricEntry<>(0L, eLongBasis));
+            simpleMetric.put(SMShortBasis, new MetricEntry<>(0L, eShortBasis));
+
+            simpleMetric.put(SMIncome, new MetricEntry<>(0L, eIncome));
+
+            // These extractors return multiple values, which are exploded into values in the normal metrics
+            ExtractorPriceChanges ePriceChange = new ExtractorPriceChanges(securityAccount, fromDateInt, snapDateInt);  // x 3
+            ExtractorDividends eDividends = new ExtractorDividends(securityAccount, fromDateInt, snapDateInt);      // x 3
+            ExtractorGains eGains = new ExtractorGains(securityAccount, fromDateInt, snapDateInt);              // x 3
+
+            multipleMetrics.put(MMPriceChange, new MetricEntry<>(Arrays.asList(0L, 0L, 0.0), ePriceChange));
+            multipleMetrics.put(MMDividends, new MetricEntry<>(Arrays.asList(0L, 0.0, 0.0), eDividends));
+            multipleMetrics.put(MMGains, new MetricEntry<>(Arrays.asList(0L, 0L, 0L), eGains));
+        } else {
+            putAccumulators(SMStartPrice, SMStartPosition, SMStartValue, SMEndPrice, SMEndPosition, SMEndValue,
+                    SMLongBasis, SMShortBasis, SMIncome);
+        }
 
         simpleMetric.put(SMAbsPriceChange, new MetricEntry<>(0L, null));
         simpleMetric.put(SMAbsValueChange, new MetricEntry<>(0L, null));
         simpleMetric.put(SMPctPriceChange, new MetricEntry<>(0.0, null));
 
-        simpleMetric.put(SMLongBasis, new MetricEntry<>(0L, eLongBasis));
-        simpleMetric.put(SMShortBasis, new MetricEntry<>(0L, eShortBasis));
-
-        simpleMetric.put(SMIncome, new MetricEntry<>(0L, eIncome));
         simpleMetric.put(SMAnnualizedDividend, new MetricEntry<>(0L, null));
         simpleMetric.put(SMDividendYield, new MetricEntry<>(0.0, null));
         simpleMetric.put(SMYieldOnBasis, new MetricEntry<>(0.0, null));
@@ -103,15 +119,6 @@ public final class SecuritySnapshotReport extends SecurityReport {
         simpleMetric.put(SMUnrealizedGain, new MetricEntry<>(0L, null));
         simpleMetric.put(SMTotalGain, new MetricEntry<>(0L, null));
 
-        // These extractors return multiple values, which are exploded into values in the normal metrics
-        ExtractorPriceChanges ePriceChange = new ExtractorPriceChanges(securityAccount, fromDateInt, snapDateInt);  // x 3
-        ExtractorDividends eDividends = new ExtractorDividends(securityAccount, fromDateInt, snapDateInt);      // x 3
-        ExtractorGains eGains = new ExtractorGains(securityAccount, fromDateInt, snapDateInt);              // x 3
-
-        multipleMetrics.put(MMPriceChange, new MetricEntry<>(Arrays.asList(0L, 0L, 0.0), ePriceChange));
-        multipleMetrics.put(MMDividends, new MetricEntry<>(Arrays.asList(0L, 0.0, 0.0), eDividends));
-        multipleMetrics.put(MMGains, new MetricEntry<>(Arrays.asList(0L, 0L, 0L), eGains));
-
         // Extractors for return calculations. Cannot point to same as above, since they have state.
         ReturnWindowType windowType = ExtractorReturnBase.ReturnWindowType.DEFAULT;
         ExtractorReturnBase aggregatedDayReturn
@@ -153,13 +160,26 @@ public final class SecuritySnapshotReport extends SecurityReport {
         returnsMetric.put(RMAllReturn, new MetricEntry<>(0.0, aggregatedAllReturn));
         returnsMetric.put(RMAnnualReturn, new MetricEntry<>(0.0, aggregatedAnnualReturn));
 
-        // Do the calculations by running the extractors over the transactions in this account.
-        doCalculations(securityAccount);
-
-        // Distribute the values from extractors that return multiple values
-        explode(MMPriceChange, SMAbsPriceChange, SMAbsValueChange, SMPctPriceChange);
-        explode(MMDividends, SMAnnualizedDividend, SMDividendYield, SMYieldOnBasis);
-        explode(MMGains, SMRealizedGain, SMUnrealizedGain, SMTotalGain);
+        // Time-weighted returns
+        windowType = ExtractorReturnBase.ReturnWindowType.DEFAULT;
+        returnsMetric.put(RMTwrYTDReturn, new MetricEntry<>(0.0, new ExtractorTimeWeightedReturn(securityAccount,
+                this, ytdFromDateInt, snapDateInt, windowType)));
+        returnsMetric.put(RMTwrYearReturn, new MetricEntry<>(0.0, new ExtractorTimeWeightedReturn(securityAccount,
+                this, oneYearFromDateInt, snapDateInt, windowType)));
+        returnsMetric.put(RMTwr3YearReturn, new MetricEntry<>(0.0, new ExtractorTimeWeightedReturn(securityAccount,
+                this, threeYearFromDateInt, snapDateInt, windowType)));
+        returnsMetric.put(RMTwrAllReturn, new MetricEntry<>(0.0, new ExtractorTimeWeightedReturn(securityAccount,
+                this, Integer.MIN_VALUE, snapDateInt, ExtractorReturnBase.ReturnWindowType.ALL)));
+
+        if (securityAccount != null) {
+            // Do the calculations by running the extractors over the transactions in this account.
+            doCalculations(securityAccount);
+
+            // Distribute the values from extractors that return multiple values
+            explode(MMPriceChange, SMAbsPriceChange, SMAbsValueChange, SMPctPriceChange);
+            explode(MMDividends, SMAnnualizedDividend, SMDividendYield, SMYieldOnBasis);
+            explode(MMGains, SMRealizedGain, SMUnrealizedGain, SMTotalGain);
+        }
     }
 
     @Override
@@ -259,6 +279,11 @@ public final class SecuritySnapshotReport extends SecurityReport {
         outputSimplePrice(SMRealizedGain);
         outputSimplePrice(SMUnrealizedGain);
         outputSimplePrice(SMTotalGain);
+
+        outputReturn(RMTwrYTDReturn);
+        outputReturn(RMTwrYearReturn);
+        outputReturn(RMTwr3YearReturn);
+        outputReturn(RMTwrAllReturn);
     }
 }
 
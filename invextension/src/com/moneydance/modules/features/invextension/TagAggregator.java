@@ -0,0 +1,133 @@
+/*
+ * TagAggregator.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.moneydance.modules.features.invextension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aggregates security reports by a user-defined tag (e.g. a strategy such as
+ * "core" or "income"), tags are assigned to security accounts in ReportConfig.
+ * Securities without an assigned tag aggregate as "Untagged".
+ * Version 1.0
+ *
+ * @author Dale Furrow
+ */
+public final class TagAggregator implements Aggregator {
+    // name of aggregation method
+    static String reportingName = "Tag";
+    // column name for sorting
+    static String columnName = "Tag";
+    static final String UNTAGGED = "Untagged";
+    private String tag;
+
+    public TagAggregator(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * empty constructor for Aggregator
+     */
+    public TagAggregator() {
+    }
+
+    /**
+     * Resolves the tag of every security account once per report, so that
+     * aggregation reads tags by security ordinal rather than by name.
+     *
+     * @param securityTags tags by security account id
+     * @param currentInfo  security info for report
+     * @return tag aggregators indexed by security ordinal, one instance per tag
+     */
+    public static TagAggregator[] getTagsByOrdinal(Map<String, String> securityTags, BulkSecInfo currentInfo) {
+        ArrayList<SecurityAccountWrapper> securityAccountWrappers = currentInfo.getSecurityAccountWrappers();
+        TagAggregator[] tagsByOrdinal = new TagAggregator[securityAccountWrappers.size()];
+        HashMap<String, TagAggregator> tagAggregators = new HashMap<>();
+        for (SecurityAccountWrapper securityAccountWrapper : securityAccountWrappers) {
+            String tag = securityTags.getOrDefault(securityAccountWrapper.getSecurityAccount().getUUID(), UNTAGGED);
+            tagsByOrdinal[securityAccountWrapper.getOrdinal()] = tagAggregators.computeIfAbsent(tag, TagAggregator::new);
+        }
+        return tagsByOrdinal;
+    }
+
+    public void setName(String tag) {
+        this.tag = tag;
+    }
+
+    @Override
+    public int hashCode() {
+        return tag == null ? 0 : tag.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        TagAggregator other = (TagAggregator) obj;
+        if (tag == null) {
+            return other.tag == null;
+        } else return tag.equals(other.tag);
+    }
+
+    @Override
+    public String getName() {
+        return tag == null ? "" : tag;
+    }
+
+    @Override
+    public String getAggregateName() {
+        return getName() + " ";
+    }
+
+    @Override
+    public String getAllTypesName() {
+        return "Tags-ALL";
+    }
+
+    @Override
+    public String getColumnName() {
+        return columnName;
+    }
+
+    @Override
+    public String getReportingName() {
+        return reportingName;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+
+}
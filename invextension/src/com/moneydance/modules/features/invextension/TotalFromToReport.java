@@ -44,7 +44,8 @@ public final class TotalFromToReport extends TotalReport {
     public static final LinkedList<String> MODEL_HEADER = new LinkedList<>(Arrays.asList("InvAcct", "Security", "SecType",
             "SecSubType", "Ticker", "StartPos", "EndPos", "Start\nPrice", "End\nPrice", "Start\nValue", "End\nValue", "Buy",
             "Sell", "Short\nSell", "Cover\nShort", "Income", "Expense", "Long\nBasis", "Short\nBasis", "Realized\nGain",
-            "Unrealized\nGain", "Period\nReturn", "TotPct\nReturn", "AnnPct\nReturn", "Stub-TotPct\nReturn", "Stub-AnnPct\nReturn"));
+            "Unrealized\nGain", "Period\nReturn", "TotPct\nReturn", "AnnPct\nReturn", "Stub-TotPct\nReturn", "Stub-AnnPct\nReturn",
+            "TWR\nReturn", "Tag"));
     public static String reportTypeName = "'From-To' Report";
     private static final ColType[] COL_TYPES = new ColType[]{ColType.OBJECT,
             ColType.OBJECT, ColType.OBJECT, ColType.OBJECT, ColType.OBJECT,
@@ -52,7 +53,8 @@ public final class TotalFromToReport extends TotalReport {
             ColType.DOUBLE2, ColType.DOUBLE2, ColType.DOUBLE2, ColType.DOUBLE2,
             ColType.DOUBLE2, ColType.DOUBLE2, ColType.DOUBLE2, ColType.DOUBLE2,
             ColType.DOUBLE2, ColType.DOUBLE2, ColType.DOUBLE2, ColType.DOUBLE2,
-            ColType.DOUBLE2, ColType.PERCENT1, ColType.PERCENT1, ColType.PERCENT1, ColType.PERCENT1};
+            ColType.DOUBLE2, ColType.PERCENT1, ColType.PERCENT1, ColType.PERCENT1, ColType.PERCENT1,
+            ColType.PERCENT1, ColType.OBJECT};
 
 
     public TotalFromToReport(ReportConfig reportConfig, BulkSecInfo currentInfo) throws Exception {
@@ -64,6 +66,11 @@ public final class TotalFromToReport extends TotalReport {
         return MODEL_HEADER.indexOf("End\nValue");
     }
 
+    @Override
+    public int getReportEndDateInt() {
+        return getReportDate().getToDateInt();
+    }
+
     @Override
     public String getReportTitle() {
         StringBuilder output = new StringBuilder();
@@ -71,8 +78,11 @@ public final class TotalFromToReport extends TotalReport {
         output.append(DateUtils.convertToShort(getReportDate().getFromDateInt())).append(" To: ");
         output.append(DateUtils.convertToShort(getReportDate().getToDateInt())).append(" - ");
         output.append("Aggregate By: ").append(aggregationController.getFirstAggregator().getReportingName());
-        if (!(aggregationController.getSecondAggregator() instanceof AllAggregate)) {
-            output.append(" Then By: ").append(aggregationController.getSecondAggregator().getReportingName());
+        for (Aggregator aggregator : aggregationController.getAggregators().subList(1,
+                aggregationController.getAggregators().size())) {
+            if (!(aggregator instanceof AllAggregate)) {
+                output.append(" Then By: ").append(aggregator.getReportingName());
+            }
         }
         return output.toString();
 
@@ -31,11 +31,22 @@ package com.moneydance.modules.features.invextension;
 import com.moneydance.modules.features.invextension.CompositeReport.COMPOSITE_TYPE;
 import com.moneydance.modules.features.invextension.TotalReportOutputPane.ColType;
 
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.AbstractTableModel;
 import java.io.Serial;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
@@ -55,8 +66,13 @@ public abstract class TotalReport {
     private HashSet<SecurityReport> securityReports;
     private HashSet<CompositeReport> compositeReports;
     private final DateRange dateRange;
-    private final Boolean isHierarchy; // indicates if second aggregate is a subset of the first aggregate
     private final Boolean outputSingle; // indicates a composite report with only one security report will print
+    private boolean parallelRollUp = true; // reduce composites on the fork/join pool
+    // composites of each aggregation mode rolled up from the current leaf reports
+    private final EnumMap<AggregationController, HashSet<CompositeReport>> compositesByController =
+            new EnumMap<>(AggregationController.class);
+    private static final int ROLL_UP_THRESHOLD = 32;
+    private int rollUpThreshold = ROLL_UP_THRESHOLD; // members reduced serially within one roll-up task
     private final LinkedList<String> modelHeader;
     private LinkedList<Integer> viewHeader;
     protected ReportConfig reportConfig;
@@ -75,7 +91,6 @@ public abstract class TotalReport {
         this.viewHeader = reportConfig.getViewHeader();
         this.colTypes = colTypes;
         this.dateRange = reportConfig.getDateRange();
-        isHierarchy = aggregationController.isHierarchy();
         securityReports = new HashSet<>();
         compositeReports = new HashSet<>();
 
@@ -122,24 +137,44 @@ public abstract class TotalReport {
      * @return report table 2d array
      */
     public Object[][] getReportTable() throws NoSuchFieldException, IllegalAccessException {
-        if (securityReports.isEmpty()) {
+        return getReportTable(securityReports, compositeReports);
+    }
+
+    private Object[][] getReportTable(HashSet<SecurityReport> securityReports,
+                                      HashSet<CompositeReport> compositeReports) {
+        return getReportTable(getTableReports(securityReports, compositeReports));
+    }
+
+    /**
+     * Selects the reports shown as table rows
+     *
+     * @return reports in row order
+     */
+    private ArrayList<ComponentReport> getTableReports(HashSet<SecurityReport> securityReports,
+                                                       HashSet<CompositeReport> compositeReports) {
+        if (securityReports.isEmpty()) return new ArrayList<>();
+        HashSet<ComponentReport> allReports = new HashSet<>(securityReports);
+        if (outputSingle) {
+            allReports.addAll(compositeReports);
+        } else {
+            allReports.addAll(compositeReports.stream()
+                    .filter(compositeReport -> compositeReport
+                            .getSecurityReports().size() > 1).collect(Collectors.toList()));
+        }
+        return new ArrayList<>(allReports);
+    }
+
+    private static Object[][] getReportTable(List<ComponentReport> tableReports) {
+        if (tableReports.isEmpty()) {
             return new Object[0][0];
         } else {
-            HashSet<ComponentReport> allReports = new HashSet<>(securityReports);
-            if (outputSingle) {
-                allReports.addAll(compositeReports);
-            } else {
-                allReports.addAll(compositeReports.stream()
-                        .filter(compositeReport -> compositeReport
-                                .getSecurityReports().size() > 1).collect(Collectors.toList()));
-            }
             int i = 0;
             int cols = 0;
             Object[][] table = null;
-            for (ComponentReport componentReport : allReports) {
+            for (ComponentReport componentReport : tableReports) {
                 if (i == 0) {
                     cols = componentReport.toTableRow().length;
-                    table = new Object[allReports.size()][cols];
+                    table = new Object[tableReports.size()][cols];
                 }
                 Object[] row = componentReport.toTableRow();
                 System.arraycopy(row, 0, table[i], 0, cols);
@@ -149,6 +184,60 @@ public abstract class TotalReport {
         } // end else
     }
 
+    /**
+     * @param tableReports          reports in row order
+     * @param aggregationController aggregation mode of the reports
+     * @return grouping of each row
+     */
+    private static RowGrouping[] getRowGroupings(List<ComponentReport> tableReports,
+                                                 AggregationController aggregationController) {
+        List<Aggregator> aggregatorTypes = aggregationController.getAggregators();
+        RowGrouping[] groupings = new RowGrouping[tableReports.size()];
+        for (int i = 0; i < groupings.length; i++) {
+            groupings[i] = getRowGrouping(tableReports.get(i), aggregatorTypes);
+        }
+        return groupings;
+    }
+
+    /**
+     * Leaves group under their aggregate values down to the first level
+     * without one (as they are rolled up), composites under their specified
+     * levels.  Unspecified levels of a first-aggregate composite are its
+     * subtotal, of any other composite all values of the level.
+     *
+     * @param componentReport security report or composite
+     * @param aggregatorTypes aggregator of each level
+     * @return grouping of report's row
+     */
+    private static RowGrouping getRowGrouping(ComponentReport componentReport, List<Aggregator> aggregatorTypes) {
+        int levels = aggregatorTypes.size();
+        byte[] kinds = new byte[levels];
+        String[] names = new String[levels];
+        Arrays.fill(names, "");
+        if (componentReport instanceof SecurityReport securityReport) {
+            boolean grouped = true;
+            for (int level = 0; level < levels; level++) {
+                Aggregator aggregator = securityReport.getAggregator(aggregatorTypes.get(level));
+                grouped = grouped && aggregator != AllAggregate.getInstance();
+                kinds[level] = grouped ? RowGrouping.VALUE : RowGrouping.UNGROUPED;
+                if (grouped) names[level] = aggregator.getAggregateName().trim();
+            }
+            return new RowGrouping(kinds, names, true);
+        }
+        CompositeReport compositeReport = (CompositeReport) componentReport;
+        byte unspecified = compositeReport.getCompositeType() == COMPOSITE_TYPE.FIRST
+                ? RowGrouping.SUBTOTAL : RowGrouping.ALL;
+        for (int level = 0; level < levels; level++) {
+            if (compositeReport.isSpecified(level)) {
+                kinds[level] = RowGrouping.VALUE;
+                names[level] = compositeReport.getAggregatorValue(level).getAggregateName().trim();
+            } else {
+                kinds[level] = unspecified;
+            }
+        }
+        return new RowGrouping(kinds, names, false);
+    }
+
     /**
      * generates appropriate leaf-level Security Report
      *
@@ -173,6 +262,13 @@ public abstract class TotalReport {
      */
     public abstract int getClosedPosColumn();
 
+    /**
+     * Last date covered by the report, used to end rolling return series
+     *
+     * @return end date of report
+     */
+    public abstract int getReportEndDateInt();
+
     /**
      * Determines type of each column for GUI output.
      *
@@ -244,44 +340,348 @@ public abstract class TotalReport {
         return getModelHeader().indexOf(aggregationController.getSecondAggregator().getColumnName());
     }
 
+    /**
+     * @return column of each level of the grouping, in level order
+     */
+    public int[] getAggregateColumns() {
+        return aggregationController.getAggregators().stream()
+                .mapToInt(aggregator -> getModelHeader().indexOf(aggregator.getColumnName())).toArray();
+    }
+
     public void calcReport() {
+        applyCalculation(calculate(currentInfo, aggregationController));
+    }
+
+    /**
+     * Leaf and composite reports calculated from one set of security
+     * information, held apart from the report until applied
+     */
+    private static final class Calculation {
+        private final BulkSecInfo currentInfo;
+        private final AggregationController aggregationController;
+        private final HashSet<SecurityReport> securityReports;
+        private final HashSet<CompositeReport> compositeReports;
+
+        private Calculation(BulkSecInfo currentInfo, AggregationController aggregationController,
+                            HashSet<SecurityReport> securityReports, HashSet<CompositeReport> compositeReports) {
+            this.currentInfo = currentInfo;
+            this.aggregationController = aggregationController;
+            this.securityReports = securityReports;
+            this.compositeReports = compositeReports;
+        }
+    }
 
+    /**
+     * Calculates all reports without changing the state of this report, so
+     * that a refresh can run while the current results are displayed.
+     *
+     * @param info                  security information to report
+     * @param aggregationController aggregation mode
+     * @return calculated reports
+     */
+    private Calculation calculate(BulkSecInfo info, AggregationController aggregationController) {
         //produce all leaf-level Security Reports
-        for (InvestmentAccountWrapper invWrapper : currentInfo.getInvestmentWrappers()) {
+        HashSet<SecurityReport> leafReports = new HashSet<>();
+        TagAggregator[] tagsByOrdinal = TagAggregator.getTagsByOrdinal(reportConfig.getSecurityTags(), info);
+        for (InvestmentAccountWrapper invWrapper : info.getInvestmentWrappers()) {
             for (SecurityAccountWrapper secWrapper : invWrapper.getSecurityAccountWrappers()) {
                 SecurityReport thisReport = getLeafSecurityReport(secWrapper, dateRange);
-                securityReports.add(thisReport);
+                thisReport.setTagAggregator(tagsByOrdinal[secWrapper.getOrdinal()]);
+                leafReports.add(thisReport);
             }
         }
         LogController.logMessage(Level.FINE, String.format("Producing %d leaf security reports",
-                securityReports.size()));
+                leafReports.size()));
+
+        HashSet<CompositeReport> composites = rollUpComposites(aggregationController, leafReports);
+        solveReturns(leafReports, composites);
+        return new Calculation(info, aggregationController, leafReports, composites);
+    }
+
+    private void applyCalculation(Calculation calculation) {
+        currentInfo = calculation.currentInfo;
+        securityReports = calculation.securityReports;
+        compositeReports = calculation.compositeReports;
+        compositesByController.clear();
+        compositesByController.put(calculation.aggregationController, compositeReports);
+    }
+
+    /**
+     * Switches aggregation mode of a calculated report.  Leaf reports are kept, only
+     * the composites of the selected mode are rolled up, the first time it is shown.
+     * Modes already shown keep their composites, so switching back only swaps them
+     * in place.
+     *
+     * @param newController aggregation mode to display
+     */
+    public void setAggregationController(AggregationController newController) {
+        HashSet<CompositeReport> composites = compositesByController.get(newController);
+        if (composites == null) {
+            // leaf extractors were resolved by solveReturns, so the new mode only reads shared leaves
+            composites = rollUpComposites(newController, securityReports);
+            solveReturns(Collections.emptySet(), composites);
+            compositesByController.put(newController, composites);
+        }
+        aggregationController = newController;
+        compositeReports = composites;
+    }
 
+    /**
+     * Rolls the leaf reports up into the composites of an aggregation mode
+     *
+     * @param aggregationController aggregation mode
+     * @param securityReports       leaf reports to roll up
+     * @return all composites, including the "All Securities" composite
+     */
+    private HashSet<CompositeReport> rollUpComposites(AggregationController aggregationController,
+                                                      Collection<SecurityReport> securityReports) {
+        HashSet<CompositeReport> composites = new HashSet<>();
         // generate "All Securities" composite, add to composite reports
         CompositeReport allRept = getAllCompositeReport(dateRange, aggregationController);
-        compositeReports.add(allRept);
+        composites.add(allRept);
 
-        //generate composites and add Security Reports to them
+        // group each Security Report under its full grouping path
+        List<Aggregator> aggregatorTypes = aggregationController.getAggregators();
+        int levels = aggregatorTypes.size();
+        // member groups indexed by depth of grouping path, second-only groups apart
+        ArrayList<HashMap<CompositeReport.Key, RollUpGroup>> levelGroups = new ArrayList<>();
+        for (int level = 0; level <= levels; level++) {
+            levelGroups.add(new HashMap<>());
+        }
+        HashMap<CompositeReport.Key, RollUpGroup> secondGroups = new HashMap<>();
+        RollUpGroup allGroup = new RollUpGroup(aggregationController, COMPOSITE_TYPE.ALL, null);
         for (SecurityReport securityReport : securityReports) {
-            for (CompositeReport compositeReport : compositeReports) {
-                compositeReport.addTo(securityReport);
+            Aggregator[] aggregatorValues = aggregatorTypes.toArray(new Aggregator[0]);
+            int depth = 0;
+            while (depth < levels) {
+                Aggregator aggregator = securityReport.getAggregator(aggregatorTypes.get(depth));
+                // AllAggregate ends the path, no composites needed below it
+                if (aggregator == AllAggregate.getInstance()) break;
+                aggregatorValues[depth++] = aggregator;
+            }
+            if (depth == 0) {
+                allGroup.members.add(securityReport);
+            } else {
+                addToGroup(levelGroups.get(depth), aggregationController,
+                        depth == levels ? COMPOSITE_TYPE.BOTH : COMPOSITE_TYPE.FIRST, aggregatorValues, securityReport);
             }
-            // generate composite based on first aggregate
-            compositeReports.add(securityReport.getCompositeReport(
-                    aggregationController, COMPOSITE_TYPE.FIRST));
-            // if second AggClass isn't AllAggregate, need 1 or 2 more
-            // aggregates
-            if (securityReport.getAggregator(aggregationController.getSecondAggregator()) != AllAggregate
-                    .getInstance()) {
-                compositeReports.add(securityReport.getCompositeReport(aggregationController, COMPOSITE_TYPE.BOTH));
+        }
+
+        // roll each level up into the level above it in one bottom-up pass, the
+        // composites of a level are independent of each other and reduced in parallel
+        long startTime = System.nanoTime();
+        for (int depth = levels; depth > 0; depth--) {
+            for (CompositeReport compositeReport : rollUp(levelGroups.get(depth).values())) {
+                composites.add(compositeReport);
+                if (depth == 1) {
+                    allGroup.members.add(compositeReport);
+                    continue;
+                }
+                Aggregator[] aggregatorValues = compositeReport.getAggregatorValues();
+                aggregatorValues[depth - 1] = aggregatorTypes.get(depth - 1);
+                addToGroup(levelGroups.get(depth - 1), aggregationController, COMPOSITE_TYPE.FIRST,
+                        aggregatorValues, compositeReport);
                 // if second aggregate a subset of first, don't need
-                // second aggregate alone (line above suffices)
-                if (!isHierarchy)
-                    compositeReports.add(securityReport.getCompositeReport(aggregationController,
-                            COMPOSITE_TYPE.SECOND));
+                // second aggregate alone (first aggregate suffices)
+                if (levels == 2 && !aggregationController.isHierarchy()) {
+                    aggregatorValues = compositeReport.getAggregatorValues();
+                    aggregatorValues[0] = aggregatorTypes.get(0);
+                    addToGroup(secondGroups, aggregationController, COMPOSITE_TYPE.SECOND,
+                            aggregatorValues, compositeReport);
+                }
             }
         }
-        LogController.logMessage(Level.FINE, String.format("Producing %d composite security reports",
-                compositeReports.size()));
+        composites.addAll(rollUp(secondGroups.values()));
+        if (!allGroup.members.isEmpty()) {
+            allRept.add(rollUp(List.of(allGroup)).getFirst());
+        }
+        LogController.logMessage(Level.FINE, String.format("Producing %d composite security reports in %d ms",
+                composites.size(), (System.nanoTime() - startTime) / 1000000));
+        return composites;
+    }
+
+    /**
+     * Used to switch off parallel roll-up, so that composites can be checked
+     * against a serial roll-up
+     *
+     * @param parallelRollUp true to reduce composites in parallel
+     */
+    void setParallelRollUp(boolean parallelRollUp) {
+        this.parallelRollUp = parallelRollUp;
+    }
+
+    /**
+     * Used to split small groups too, so that the forked reduction can be
+     * checked on a small data set
+     *
+     * @param rollUpThreshold most members reduced serially within one roll-up task
+     */
+    void setRollUpThreshold(int rollUpThreshold) {
+        if (rollUpThreshold < 1) throw new IllegalArgumentException("roll-up threshold must be positive");
+        this.rollUpThreshold = rollUpThreshold;
+    }
+
+    private static void addToGroup(HashMap<CompositeReport.Key, RollUpGroup> groups,
+                                   AggregationController aggregationController, COMPOSITE_TYPE compositeType,
+                                   Aggregator[] aggregatorValues, ComponentReport member) {
+        groups.computeIfAbsent(new CompositeReport.Key(compositeType, aggregatorValues),
+                key -> new RollUpGroup(aggregationController, compositeType, aggregatorValues)).members.add(member);
+    }
+
+    /**
+     * Reduces each group of members into its composite, one task per group
+     *
+     * @param groups member groups, each member belongs to one group only
+     * @return composite for each group
+     */
+    private List<CompositeReport> rollUp(Collection<RollUpGroup> groups) {
+        ArrayList<RollUpTask> tasks = new ArrayList<>();
+        for (RollUpGroup group : groups) {
+            tasks.add(new RollUpTask(group, 0, group.members.size()));
+        }
+        if (parallelRollUp) {
+            ForkJoinPool.commonPool().submit(() -> ForkJoinTask.invokeAll(tasks)).join();
+        } else {
+            tasks.forEach(ForkJoinTask::invoke);
+        }
+        ArrayList<CompositeReport> composites = new ArrayList<>();
+        for (RollUpTask task : tasks) {
+            composites.add(task.join());
+        }
+        return composites;
+    }
+
+    /**
+     * Leaves or child composites which roll up into one composite
+     */
+    private static final class RollUpGroup {
+        private final AggregationController aggregationController;
+        private final COMPOSITE_TYPE compositeType;
+        private final Aggregator[] aggregatorValues;
+        private final ArrayList<ComponentReport> members = new ArrayList<>();
+
+        private RollUpGroup(AggregationController aggregationController, COMPOSITE_TYPE compositeType,
+                            Aggregator[] aggregatorValues) {
+            this.aggregationController = aggregationController;
+            this.compositeType = compositeType;
+            this.aggregatorValues = aggregatorValues;
+        }
+    }
+
+    /**
+     * Reduces a range of a group's members into a partial composite. Large ranges
+     * are split in two and the partial composite of the right half is merged into
+     * the left one the same way a child composite is rolled up, which relies on
+     * the merge contract of ExtractorBase.aggregateResults.
+     */
+    private final class RollUpTask extends RecursiveTask<CompositeReport> {
+        @Serial
+        private static final long serialVersionUID = 4217766285343811537L;
+        private final RollUpGroup group;
+        private final int from;
+        private final int to;
+
+        private RollUpTask(RollUpGroup group, int from, int to) {
+            this.group = group;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected CompositeReport compute() {
+            if (!parallelRollUp || to - from <= rollUpThreshold) {
+                CompositeReport compositeReport = seedComposite(group.members.get(from));
+                for (int i = from + 1; i < to; i++) {
+                    ComponentReport member = group.members.get(i);
+                    if (member instanceof CompositeReport childReport) {
+                        compositeReport.add(childReport);
+                    } else {
+                        compositeReport.add((SecurityReport) member);
+                    }
+                }
+                return compositeReport;
+            }
+            int mid = (from + to) >>> 1;
+            RollUpTask left = new RollUpTask(group, from, mid);
+            left.fork();
+            CompositeReport right = new RollUpTask(group, mid, to).compute();
+            CompositeReport compositeReport = left.join();
+            compositeReport.add(right);
+            return compositeReport;
+        }
+
+        private CompositeReport seedComposite(ComponentReport member) {
+            if (member instanceof CompositeReport childReport) {
+                return new CompositeReport(childReport, group.compositeType, group.aggregatorValues);
+            } else {
+                return new CompositeReport((SecurityReport) member, group.aggregationController,
+                        group.compositeType, group.aggregatorValues);
+            }
+        }
+    }
+
+    /**
+     * Computes all returns of leaf and composite reports once aggregation is complete,
+     * so that building the report table only reads stored results.
+     * <p/>
+     * Leaf returns read prices, rates and splits from Moneydance currencies, whose
+     * thread safety is not documented, so they are solved on the calling thread (they
+     * are normally already solved by SecurityReport.doCalculations).  Composite returns
+     * read only the merged flow indices, member values and daily valuations fixed by
+     * the leaves, none of which change once built, so they are solved in parallel;
+     * each extractor belongs to one entry and so is solved by one thread.  XIRRCache,
+     * shared by all IRR extractors, is a concurrent map.
+     *
+     * @param securityReports  leaf reports to solve
+     * @param compositeReports composite reports to solve
+     */
+    private void solveReturns(Collection<SecurityReport> securityReports,
+                              Collection<CompositeReport> compositeReports) {
+        for (SecurityReport securityReport : securityReports) {
+            securityReport.getReturnMetricEntries().forEach(SecurityReport::solveReturn);
+        }
+        ArrayList<SecurityReport.MetricEntry<Double>> returnEntries = new ArrayList<>();
+        for (CompositeReport compositeReport : compositeReports) {
+            returnEntries.addAll(compositeReport.getAggregateReport().getReturnMetricEntries());
+        }
+        long startTime = System.nanoTime();
+        ForkJoinPool.commonPool().submit(() -> returnEntries.parallelStream()
+                .forEach(SecurityReport::solveReturn)).join();
+        LogController.logMessage(Level.FINE, String.format("Solved %d returns in %d ms",
+                returnEntries.size(), (System.nanoTime() - startTime) / 1000000));
+    }
+
+    /**
+     * Generates rolling return series for every row of the report, calcReport must
+     * have been run first.
+     *
+     * @param windowMonths length of trailing window in months
+     * @return rolling return series, one per row
+     */
+    public ArrayList<RollingReturnSeries> getRollingReturns(int windowMonths) {
+        ArrayList<RollingReturnSeries> rollingReturns = new ArrayList<>();
+        for (ComponentReport componentReport : getReports()) {
+            if (componentReport instanceof CompositeReport compositeReport
+                    && !outputSingle && compositeReport.getSecurityReports().size() <= 1) continue;
+            rollingReturns.add(RollingReturnSeries.generate(componentReport, windowMonths,
+                    getReportEndDateInt(), reportConfig.useOrdinaryReturn()));
+        }
+        return rollingReturns;
+    }
+
+    /**
+     * Lists one- and three-year rolling returns of all rows for csv output
+     *
+     * @return list of csv rows
+     */
+    public ArrayList<String[]> listRollingReturns() {
+        ArrayList<String[]> rows = new ArrayList<>();
+        for (int windowMonths : new int[]{RollingReturnSeries.ONE_YEAR_MONTHS, RollingReturnSeries.THREE_YEAR_MONTHS}) {
+            for (RollingReturnSeries series : getRollingReturns(windowMonths)) {
+                rows.addAll(series.listInfo());
+            }
+        }
+        return rows;
     }
 
     public void displayReport() throws SecurityException,
@@ -291,7 +691,9 @@ public abstract class TotalReport {
     }
 
     public ReportTableModel getReportTableModel() throws NoSuchFieldException, IllegalAccessException {
-        return new ReportTableModel(getReportTable(), getModelHeader());
+        ArrayList<ComponentReport> tableReports = getTableReports(securityReports, compositeReports);
+        return new ReportTableModel(getReportTable(tableReports), getRowGroupings(tableReports, aggregationController),
+                getModelHeader());
     }
 
     public ReportConfig getReportConfig() {
@@ -305,46 +707,347 @@ public abstract class TotalReport {
     public final class ReportTableModel extends AbstractTableModel {
         @Serial
         private static final long serialVersionUID = -3662731131946834218L;
+        // row kinds, low bits select the row background, ROW_CLOSED flags a zero end value
+        public static final byte ROW_LEAF = 0;
+        public static final byte ROW_INNER_SUBTOTAL = 1;  // specific value at every aggregate level
+        public static final byte ROW_FIRST_SUBTOTAL = 2;  // subtotal of leading aggregate values
+        public static final byte ROW_SECOND_SUBTOTAL = 3; // second aggregate value, all of first
+        public static final byte ROW_GRAND_TOTAL = 4;
+        public static final byte ROW_KIND_MASK = 0x07;
+        public static final byte ROW_CLOSED = 0x08;
+
         public String[] columnNames;
-        public transient Object[][] data;
+        private final int[] levelsByColumn; // grouping level shown in each column, -1 for none
+        private transient volatile TableState state;
+        private volatile boolean returnTypeSwitched = false; // alternate return type shown
 
-        public ReportTableModel(Object[][] body, LinkedList<String> colNameList) {
+        public ReportTableModel(Object[][] body, RowGrouping[] groupings, LinkedList<String> colNameList) {
             super();
 
             assert (body != null);
 
             this.columnNames = colNameList.toArray(new String[0]);
-            this.data = body;
-        }
-
-        public void refreshReport(BulkSecInfo newCurrentInfo) throws Exception{
-            TotalReport.this.securityReports = new HashSet<>();
-            TotalReport.this.compositeReports = new HashSet<>();
-            TotalReport.this.currentInfo = newCurrentInfo;
-            TotalReport.this.calcReport();
-            Object[][] newData = getReportTable();
-            if(!isSameDimension(newData)) throw new Exception("Error on Refresh--different dimensions!");
-            for (int i = 0; i < data.length; i++){
-                Object [] row = data[i];
-                Object [] newRow = newData[i];
-                System.arraycopy(newRow, 0, row, 0, row.length);
+            this.levelsByColumn = new int[columnNames.length];
+            Arrays.fill(levelsByColumn, -1);
+            int[] aggregateColumns = getAggregateColumns();
+            for (int level = 0; level < aggregateColumns.length; level++) levelsByColumn[aggregateColumns[level]] = level;
+            this.state = createState(body, groupings);
+        }
+
+        /**
+         * Table contents published together: the cell objects, their typed
+         * columns, the grouping of each row and the row kinds.  A state is never
+         * changed once published, so every table change (setValueAt included)
+         * is one reference swap.
+         */
+        private static final class TableState {
+            private final Object[][] data;
+            private final RowGrouping[] groupings;
+            private final ReportColumns columns;
+            private final int[][] levelKeys; // [level][row], see RowGrouping.getLevelKeys
+            private final byte[] rowKinds;
+
+            private TableState(Object[][] data, RowGrouping[] groupings, ReportColumns columns, int[][] levelKeys,
+                               byte[] rowKinds) {
+                this.data = data;
+                this.groupings = groupings;
+                this.columns = columns;
+                this.levelKeys = levelKeys;
+                this.rowKinds = rowKinds;
+            }
+
+            /*
+             * state without a range of rows, sliced from this one: level keys
+             * are ranks, so the remaining rows keep their order
+             */
+            private TableState withoutRows(int start, int end) {
+                int[][] remainingKeys = new int[levelKeys.length][];
+                for (int level = 0; level < levelKeys.length; level++) {
+                    remainingKeys[level] = ReportColumns.removeRows(levelKeys[level], start, end);
+                }
+                return new TableState(ReportColumns.removeRows(data, start, end),
+                        ReportColumns.removeRows(groupings, start, end), columns.withoutRows(start, end),
+                        remainingKeys, ReportColumns.removeRows(rowKinds, start, end));
+            }
+        }
+
+        /**
+         * One table change of a refresh: the state to publish and the event
+         * describing it
+         */
+        private static final class RefreshStep {
+            private final TableState state;
+            private final int type; // TableModelEvent.UPDATE, DELETE or INSERT
+            private final int firstRow;
+            private final int lastRow;
+
+            private RefreshStep(TableState state, int type, int firstRow, int lastRow) {
+                this.state = state;
+                this.type = type;
+                this.firstRow = firstRow;
+                this.lastRow = lastRow;
+            }
+        }
+
+        /**
+         * A recalculated report prepared for publishing, with the table
+         * changes leading from the state it was prepared against
+         */
+        public final class RefreshedReport {
+            private final Calculation calculation;
+            private final TableState baseState;
+            private TableState matchedState; // same rows as base, matched rows with their new cells
+            private final ArrayList<RefreshStep> steps = new ArrayList<>();
+
+            private RefreshedReport(Calculation calculation, TableState baseState) {
+                this.calculation = calculation;
+                this.baseState = baseState;
             }
+        }
+
+        /**
+         * @return typed column values of the current data
+         */
+        public ReportColumns getColumns() {
+            return state.columns;
+        }
+
+        /**
+         * @param row model row
+         * @return row kind, see ROW_ constants
+         */
+        public byte getRowKind(int row) {
+            return state.rowKinds[row];
+        }
+
+        /**
+         * Compares two rows on one column.  Columns of the grouping compare
+         * the rows' position in the hierarchy, so that sorting on every level
+         * column places subtotals after their members; other columns compare
+         * their typed values.
+         *
+         * @param col  model column
+         * @param row1 first model row
+         * @param row2 second model row
+         * @return comparison result
+         */
+        public int compare(int col, int row1, int row2) {
+            TableState current = state;
+            int level = levelsByColumn[col];
+            if (level < 0) return current.columns.compare(col, row1, row2);
+            return Integer.compare(current.levelKeys[level][row1], current.levelKeys[level][row2]);
+        }
+
+        /**
+         * copies display values into typed columns and classifies every row once
+         * from its grouping and end value, so rendering, filtering and sorting
+         * only read stored primitives
+         *
+         * @param body      table cells, [row][column]
+         * @param groupings grouping of each row
+         * @return new table state
+         */
+        private TableState createState(Object[][] body, RowGrouping[] groupings) {
+            return createState(body, groupings, createColumns(body));
+        }
+
+        private TableState createState(Object[][] body, RowGrouping[] groupings, ReportColumns newColumns) {
+            int closedColumn = getClosedPosColumn();
+            int[] aggregateColumns = getAggregateColumns();
+            String[] lastLevelLabels = new String[body.length];
+            byte[] kinds = new byte[body.length];
+            for (int i = 0; i < body.length; i++) {
+                lastLevelLabels[i] = newColumns.getLabel(i, aggregateColumns[aggregateColumns.length - 1]);
+                kinds[i] = classifyRow(groupings[i], newColumns, i, closedColumn);
+            }
+            return new TableState(body, groupings, newColumns, RowGrouping.getLevelKeys(groupings, lastLevelLabels),
+                    kinds);
+        }
+
+        private ReportColumns createColumns(Object[][] body) {
+            boolean[] numericColumns = new boolean[columnNames.length];
+            for (int col = 0; col < numericColumns.length; col++) {
+                numericColumns[col] = colTypes[col] != ColType.OBJECT;
+            }
+            return new ReportColumns(body, numericColumns,
+                    ReportTableModel::getNumberFromObject, ReportTableModel::getLabelFromObject);
+        }
+
+        private static byte classifyRow(RowGrouping grouping, ReportColumns rowColumns, int row, int closedColumn) {
+            byte kind = classifyGrouping(grouping);
+            if (rowColumns.getNumber(row, closedColumn) == 0.0) kind |= ROW_CLOSED;
+            return kind;
+        }
+
+        private static double getNumberFromObject(Object obj) {
+            if (obj instanceof SecurityReport.MetricEntry<?> metricEntry) {
+                Double value = metricEntry.getDisplayValue();
+                return value == null ? Double.NaN : value;
+            }
+            return Double.NaN;
+        }
+
+        private static String getLabelFromObject(Object obj) {
+            try {
+                return TotalReportOutputPane.getDisplayValueFromObject(obj);
+            } catch (Exception e) {
+                LogController.logException(e, "Error reading report label: ");
+                return "";
+            }
+        }
+
+        /*
+         * composites take all values of their unspecified levels, except for
+         * subtotals of leading values, whatever the number of levels
+         */
+        private static byte classifyGrouping(RowGrouping grouping) {
+            if (grouping.isLeaf()) return ROW_LEAF;
+            int lastLevel = grouping.getLevelCount() - 1;
+            if (grouping.getKind(0) == RowGrouping.ALL) {
+                return grouping.getKind(lastLevel) == RowGrouping.ALL ? ROW_GRAND_TOTAL : ROW_SECOND_SUBTOTAL;
+            }
+            return grouping.getKind(lastLevel) == RowGrouping.SUBTOTAL ? ROW_FIRST_SUBTOTAL : ROW_INNER_SUBTOTAL;
+        }
+
+        /**
+         * Switches every return with a stored alternate between ordinary and
+         * Modified Dietz.  Only the displayed values change, nothing is recomputed.
+         */
+        public void switchReturnType() {
+            returnTypeSwitched = !returnTypeSwitched;
+            switchReturnTypes(state.data);
             fireTableDataChanged();
         }
 
-        private boolean isSameDimension(Object[][] newData){
-            boolean sameDimension = true;
-            if(newData.length != data.length){
-                return false;
-            } else {
-                for (int i = 0; i < data.length; i++)
-                    if
-                    (data[i].length != newData[i].length) {
-                        sameDimension = false;
-                        break;
+        private static void switchReturnTypes(Object[][] body) {
+            for (Object[] row : body) {
+                for (Object cell : row) {
+                    if (cell instanceof SecurityReport.MetricEntry<?> metricEntry) {
+                        SecurityReport.switchReturnType(metricEntry);
                     }
-                return  sameDimension;
+                }
+            }
+        }
+
+        @Override
+        public void fireTableDataChanged() {
+            // cells may have been changed in place (return type switch), so rebuild
+            state = createState(state.data, state.groupings);
+            super.fireTableDataChanged();
+        }
+
+        /**
+         * Recalculates the report into a separate result and works out the
+         * table changes against the current state, without changing what is
+         * displayed.  May run on any thread, at most one at a time.
+         * <p/>
+         * Rows are matched by their aggregate labels: matched rows take the new
+         * values (and are reported updated if a value changed), rows of vanished
+         * reports are deleted and rows of new reports are appended.
+         *
+         * @param newCurrentInfo reloaded security information
+         * @return report to publish
+         * @throws Exception if the new report has different columns
+         */
+        public RefreshedReport prepareRefresh(BulkSecInfo newCurrentInfo) throws Exception {
+            TableState base = state;
+            Calculation calculation = calculate(newCurrentInfo, aggregationController);
+            ArrayList<ComponentReport> tableReports = getTableReports(calculation.securityReports,
+                    calculation.compositeReports);
+            Object[][] newData = getReportTable(tableReports);
+            RowGrouping[] newGroupings = getRowGroupings(tableReports, calculation.aggregationController);
+            for (Object[] newRow : newData) {
+                if (newRow.length != columnNames.length) throw new Exception("Error on Refresh--different columns!");
+            }
+            // a switch publishes a new state, so this matches the base unless the refresh is stale
+            if (returnTypeSwitched) switchReturnTypes(newData);
+            ReportColumns newColumns = createColumns(newData);
+            String[] newKeys = newColumns.getRowKeys();
+            HashMap<String, Integer> newRowsByKey = new HashMap<>();
+            for (int i = 0; i < newKeys.length; i++) newRowsByKey.put(newKeys[i], i);
+            RefreshedReport refreshed = new RefreshedReport(calculation, base);
+
+            // matched rows take their new cells, vanished rows stay until deleted
+            String[] oldKeys = base.columns.getRowKeys();
+            Object[][] data = new Object[base.data.length][];
+            RowGrouping[] groupings = new RowGrouping[data.length];
+            boolean[] matched = new boolean[newData.length];
+            BitSet updated = new BitSet();
+            BitSet deleted = new BitSet();
+            for (int row = 0; row < data.length; row++) {
+                Integer newRow = newRowsByKey.get(oldKeys[row]);
+                if (newRow == null) {
+                    deleted.set(row);
+                    data[row] = base.data[row];
+                    groupings[row] = base.groupings[row];
+                } else {
+                    matched[newRow] = true;
+                    if (!base.columns.isRowEqual(row, newColumns, newRow)) updated.set(row);
+                    data[row] = newData[newRow];
+                    groupings[row] = newGroupings[newRow];
+                }
+            }
+            refreshed.matchedState = createState(data, groupings);
+            for (int start = updated.nextSetBit(0); start >= 0; start = updated.nextSetBit(start)) {
+                int end = updated.nextClearBit(start);
+                refreshed.steps.add(new RefreshStep(refreshed.matchedState, TableModelEvent.UPDATE, start, end - 1));
+                start = end;
+            }
+
+            // delete vanished rows, last range first so earlier rows keep their index;
+            // each step's state is sliced from the previous one, nothing is read again
+            TableState remaining = refreshed.matchedState;
+            for (int end = deleted.length() - 1; end >= 0; ) {
+                int start = deleted.previousClearBit(end) + 1;
+                remaining = remaining.withoutRows(start, end);
+                refreshed.steps.add(new RefreshStep(remaining, TableModelEvent.DELETE, start, end));
+                end = deleted.previousSetBit(start - 1);
+            }
+            data = remaining.data;
+            groupings = remaining.groupings;
+
+            // append new rows
+            int inserted = 0;
+            for (boolean isMatched : matched) if (!isMatched) inserted++;
+            if (inserted > 0) {
+                int firstInserted = data.length;
+                Object[][] extended = Arrays.copyOf(data, firstInserted + inserted);
+                RowGrouping[] extendedGroupings = Arrays.copyOf(groupings, extended.length);
+                int next = firstInserted;
+                for (int i = 0; i < newData.length; i++) {
+                    if (!matched[i]) {
+                        extendedGroupings[next] = newGroupings[i];
+                        extended[next++] = newData[i];
+                    }
+                }
+                refreshed.steps.add(new RefreshStep(createState(extended, extendedGroupings), TableModelEvent.INSERT,
+                        firstInserted, extended.length - 1));
+            }
+            return refreshed;
+        }
+
+        /**
+         * Publishes a prepared refresh, on the event dispatch thread.  Each
+         * table change swaps in its prepared state and fires its event.
+         *
+         * @param refreshed prepared report
+         * @return false if the table changed since the refresh was prepared,
+         * in which case nothing is published and the refresh must be prepared again
+         */
+        public boolean publishRefresh(RefreshedReport refreshed) {
+            if (refreshed.baseState != state
+                    || refreshed.calculation.aggregationController != aggregationController) return false;
+            applyCalculation(refreshed.calculation);
+            state = refreshed.matchedState;
+            for (RefreshStep step : refreshed.steps) {
+                state = step.state;
+                switch (step.type) {
+                    case TableModelEvent.UPDATE -> fireTableRowsUpdated(step.firstRow, step.lastRow);
+                    case TableModelEvent.DELETE -> fireTableRowsDeleted(step.firstRow, step.lastRow);
+                    default -> fireTableRowsInserted(step.firstRow, step.lastRow);
+                }
             }
+            return true;
         }
 
         @Override
@@ -354,7 +1057,7 @@ public abstract class TotalReport {
 
         @Override
         public int getRowCount() {
-            return data.length;
+            return state.data.length;
         }
 
         @Override
@@ -364,7 +1067,7 @@ public abstract class TotalReport {
 
         @Override
         public Object getValueAt(int row, int col) {
-            return data[row][col];
+            return state.data[row][col];
         }
 
         @SuppressWarnings({"rawtypes"})
@@ -384,7 +1087,12 @@ public abstract class TotalReport {
         // allows table to be editable
         @Override
         public void setValueAt(Object value, int row, int col) {
+            // copy on write: a refresh prepared against the current state must see it replaced
+            TableState current = state;
+            Object[][] data = current.data.clone();
+            data[row] = data[row].clone();
             data[row][col] = value;
+            state = createState(data, current.groupings);
             fireTableCellUpdated(row, col);
         }
     }
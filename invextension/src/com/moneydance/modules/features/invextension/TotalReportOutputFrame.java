@@ -28,6 +28,8 @@
 
 package com.moneydance.modules.features.invextension;
 
+import com.moneydance.modules.features.invextension.TotalReport.ReportTableModel;
+
 import javax.swing.*;
 import javax.swing.border.Border;
 import java.awt.*;
@@ -48,6 +50,7 @@ public final class TotalReportOutputFrame extends JFrame implements ActionListen
     public static final String SORT_ROWS = "sortRows";
     public static final String COPY_CLIPBOARD = "copyClipboard";
     public static final String SWITCH_RETURN_TYPE = "switchReturnType";
+    public static final String SWITCH_AGGREGATION = "switchAggregation";
     @Serial
     private static final long serialVersionUID = 2199471200123995601L;
     public static final int textFieldWidth = 305;
@@ -61,11 +64,15 @@ public final class TotalReportOutputFrame extends JFrame implements ActionListen
     JButton sortButton;
     JButton switchReturnTypeButton;
     JButton copyToClipboardButton;
+    JComboBox<AggregationController> aggregationBox;
     JComboBox<String> refreshTransactionsComboBox;
     String[] refreshTransactionsInterval = new String[]{"NA", "5", "10", "15", "60"};
     private final JTextArea reportStatusText = new javax.swing.JTextArea();
     private final JScrollPane reportStatusPane = new JScrollPane(reportStatusText);
     private boolean returnTypeSwitched = false;
+    private GridBagConstraints outputPaneConstraints;
+    private RefreshWorker refreshWorker; // refresh in flight, null if none
+    private boolean refreshPending; // transactions changed while a refresh was in flight
 
 
     public TotalReportOutputFrame(TotalReportOutputPane totalReportOutputPane, String frameText) {
@@ -94,6 +101,12 @@ public final class TotalReportOutputFrame extends JFrame implements ActionListen
         switchReturnTypeButton = new JButton();
         switchReturnTypes(true);
         copyToClipboardButton = new JButton("Copy Table to Clipboard");
+        JPanel aggregationPanel = new JPanel();
+        aggregationPanel.setLayout(new BoxLayout(aggregationPanel, BoxLayout.Y_AXIS));
+        JLabel aggregationLabel = new JLabel("Aggregate By  ");
+        aggregationBox = new JComboBox<>(AggregationController.values());
+        aggregationBox.setSelectedItem(totalReportOutputPane.totalReport.aggregationController);
+        aggregationBox.setToolTipText("Regroup the report without recalculating securities");
 
         refreshTransactionsComboBox = new JComboBox<>(refreshTransactionsInterval);
         refreshTransactionsComboBox.setToolTipText("Check for new prices or transactions periodically, refresh");
@@ -123,6 +136,13 @@ public final class TotalReportOutputFrame extends JFrame implements ActionListen
         copyToClipboardButton.addActionListener(this);
         copyToClipboardButton.setActionCommand(COPY_CLIPBOARD);
 
+        aggregationBox.addActionListener(this);
+        aggregationBox.setActionCommand(SWITCH_AGGREGATION);
+        aggregationPanel.add(aggregationLabel);
+        aggregationPanel.add(aggregationBox);
+        aggregationLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        aggregationBox.setAlignmentX(Component.LEFT_ALIGNMENT);
+
         hideClosedBox.addItemListener(this);
 
         reportStatusPane.setPreferredSize(new Dimension(textFieldWidth, textFieldHeight));
@@ -154,10 +174,12 @@ public final class TotalReportOutputFrame extends JFrame implements ActionListen
         c.gridx++;
         controlPanel.add(copyToClipboardButton, c);
         c.gridx++;
+        controlPanel.add(aggregationPanel, c);
+        c.gridx++;
         controlPanel.add(refreshPricesPanel, c);
         c.gridx = 0;
         c.gridy = 1;
-        c.gridwidth = 7;
+        c.gridwidth = 8;
         controlPanel.add(editInstructionLabel, c);
 
         c = new GridBagConstraints();
@@ -179,6 +201,7 @@ public final class TotalReportOutputFrame extends JFrame implements ActionListen
         c.gridwidth = 3;
         c.fill = GridBagConstraints.BOTH;
 
+        outputPaneConstraints = c;
         this.getContentPane().add(totalReportOutputPane, c);
         this.setLocation(reportConfig.getFrameInfo().getPoint());
         this.pack(); //added to accommodate field chooser
@@ -201,6 +224,31 @@ public final class TotalReportOutputFrame extends JFrame implements ActionListen
         switchReturnTypeButton.setText(buttonText);
     }
 
+    /**
+     * Regroups the report under the selected aggregation.  Only composites are
+     * rolled up again, then the output pane is replaced by one over the new rows.
+     */
+    private void switchAggregation() throws NoSuchFieldException, IllegalAccessException {
+        AggregationController aggregationController = (AggregationController) aggregationBox.getSelectedItem();
+        TotalReport totalReport = totalReportOutputPane.totalReport;
+        if (aggregationController == null || aggregationController == totalReport.aggregationController) return;
+        // composites aggregate the configured return type, so restore it on the leaves first
+        boolean reswitchReturnType = returnTypeSwitched;
+        if (reswitchReturnType) switchReturnTypes(false);
+        totalReport.setAggregationController(aggregationController);
+        TotalReportOutputPane newOutputPane = new TotalReportOutputPane(totalReport);
+        newOutputPane.closedPosHidden = totalReportOutputPane.closedPosHidden;
+        this.getContentPane().remove(totalReportOutputPane);
+        totalReportOutputPane = newOutputPane;
+        this.getContentPane().add(totalReportOutputPane, outputPaneConstraints);
+        if (reswitchReturnType) switchReturnTypes(false);
+        this.setTitle(totalReport.getReportTitle());
+        totalReportOutputPane.sortRows();
+        totalReportOutputPane.setFrozenColumns(freezeColsBox.getSelectedIndex());
+        this.getContentPane().revalidate();
+        this.repaint();
+    }
+
     public void showFrame() {
         this.setVisible(false);
         this.totalReportOutputPane.sortRows();
@@ -227,6 +275,9 @@ public final class TotalReportOutputFrame extends JFrame implements ActionListen
             if (actionCommand.equals(SWITCH_RETURN_TYPE)){
                 switchReturnTypes(false);
             }
+            if (actionCommand.equals(SWITCH_AGGREGATION)) {
+                switchAggregation();
+            }
             if (actionCommand.equals(COPY_CLIPBOARD)) {
                 totalReportOutputPane.copyTableToClipboard();
             }
@@ -299,20 +350,70 @@ public final class TotalReportOutputFrame extends JFrame implements ActionListen
     @Override
     public void propertyChange(PropertyChangeEvent evt) {
         if (evt.getPropertyName().equals("lastTransactionDate")){
+            SwingUtilities.invokeLater(this::requestRefresh);
+        }
+
+    }
+
+    /**
+     * Starts a background refresh of the report, or marks one pending while a
+     * refresh is in flight, so a burst of changes runs at most one more refresh.
+     * Called on the event dispatch thread.
+     */
+    private void requestRefresh() {
+        if (refreshWorker != null) {
+            refreshPending = true;
+            return;
+        }
+        refreshPending = false;
+        refreshWorker = new RefreshWorker(totalReportOutputPane.getModel());
+        refreshWorker.execute();
+    }
+
+    /**
+     * Reloads the data file and recalculates the report off the event
+     * dispatch thread, then publishes the result to the displayed table.
+     */
+    private final class RefreshWorker extends SwingWorker<ReportTableModel.RefreshedReport, Void> {
+        private final ReportTableModel model;
+        private long irrLookups;
+        private long irrHits;
+
+        RefreshWorker(ReportTableModel model) {
+            this.model = model;
+        }
+
+        @Override
+        protected ReportTableModel.RefreshedReport doInBackground() throws Exception {
+            MDData mdData = MDData.getInstance();
+            mdData.reloadMDData(reportConfig);
+            irrLookups = XIRRCache.getLookups();
+            irrHits = XIRRCache.getHits();
+            ReportTableModel.RefreshedReport refreshed = model.prepareRefresh(mdData.getCurrentInfo());
+            irrLookups = XIRRCache.getLookups() - irrLookups;
+            irrHits = XIRRCache.getHits() - irrHits;
+            return refreshed;
+        }
+
+        @Override
+        protected void done() {
+            refreshWorker = null;
             try {
-                MDData mdData = MDData.getInstance();
-                mdData.reloadMDData(reportConfig);
-                totalReportOutputPane.getModel().refreshReport(mdData.getCurrentInfo());
-                totalReportOutputPane.sortRows();
-                totalReportOutputPane.repaint();
-                totalReportOutputPane.sortRows();
-                reportLatestTransactionTime(mdData, false);
+                // prepared against a table since replaced or changed, so run again
+                if (model == totalReportOutputPane.getModel() && model.publishRefresh(get())) {
+                    reportLatestTransactionTime(MDData.getInstance(), false);
+                    if (irrLookups > 0) {
+                        updateStatus(String.format(" IRR results reused: %d of %d (%.0f%%)",
+                                irrHits, irrLookups, 100.0 * irrHits / irrLookups));
+                    }
+                } else {
+                    refreshPending = true;
+                }
             } catch (Exception e) {
                 LogController.logException(e, "Error on Report Output Pane: ");
             }
-
+            if (refreshPending) requestRefresh();
         }
-
     }
 
     class OutputFrameWindowAdapter extends WindowAdapter {
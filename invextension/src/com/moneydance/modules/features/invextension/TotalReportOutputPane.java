@@ -31,6 +31,7 @@ import com.moneydance.modules.features.invextension.SecurityReport.MetricEntry;
 import com.moneydance.modules.features.invextension.TotalReport.ReportTableModel;
 
 import javax.swing.*;
+import javax.swing.event.RowSorterEvent;
 import javax.swing.table.*;
 import java.awt.*;
 import java.awt.datatransfer.Clipboard;
@@ -53,9 +54,17 @@ public final class TotalReportOutputPane extends JScrollPane {
     @Serial
     private static final long serialVersionUID = 353638079867239526L;
     private static final Color LIGHT_LIGHT_GRAY = new Color(230, 230, 230);
+    // background by row kind (ReportTableModel.ROW_ constants), null for table background
+    private static final Color[] ROW_BACKGROUNDS = {null, LIGHT_LIGHT_GRAY, Color.lightGray,
+            new Color(144, 238, 144), Color.GREEN};
+    private static final Color CLOSED_FOREGROUND = new Color(100, 100, 100);
+    private static final Color SELECTED_BACKGROUND = new Color(255, 255, 153); // Light yellow
 
     private final FormattedTable lockedTable;
     private final FormattedTable scrollTable;
+    private final ReportRowSorter lockedRowSorter;
+    private final ReportRowSorter scrollRowSorter;
+    private final ClosedValueRowFilter closedValueRowFilter = new ClosedValueRowFilter();
     public int firstSort;
     public int secondSort;
     public int thirdSort = 0;
@@ -66,8 +75,7 @@ public final class TotalReportOutputPane extends JScrollPane {
     public boolean closedPosHidden;
     public int closedPosColumn;
     int frozenColumns;
-    int firstAggregateColumnIndex;
-    int secondAggregateColumnIndex;
+    private int[] contentWidths; // by model column, -1 until measured
     private final transient ReportConfig reportConfig;
     transient TotalReport totalReport;
 
@@ -83,13 +91,21 @@ public final class TotalReportOutputPane extends JScrollPane {
         closedPosColumn = totalReport.getClosedPosColumn();
         this.firstSort = totalReport.getFirstSortColumn();
         this.secondSort = totalReport.getSecondSortColumn();
-        this.firstAggregateColumnIndex = firstSort;
-        this.secondAggregateColumnIndex = secondSort;
         // create the two tables
         lockedTable = new FormattedTable(model, totalReport.getColumnTypes(), totalReport.getViewHeader());
         scrollTable = new FormattedTable(model, totalReport.getColumnTypes(), totalReport.getViewHeader());
         lockedTable.setName("lockedTable");
         scrollTable.setName("scrollTable");
+        // each table keeps its own sorter (a sorter tracks row changes for one
+        // table only), both with the same keys so that the row order matches:
+        // a sort on either one (e.g. a header click) is copied to the other
+        lockedRowSorter = new ReportRowSorter(model);
+        scrollRowSorter = new ReportRowSorter(model);
+        copySortKeys(lockedRowSorter, scrollRowSorter);
+        copySortKeys(scrollRowSorter, lockedRowSorter);
+        lockedTable.setRowSorter(lockedRowSorter);
+        scrollTable.setRowSorter(scrollRowSorter);
+        model.addTableModelListener(e -> contentWidths = null);
         lockedTable.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
         scrollTable.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
         setViewportView(scrollTable);
@@ -110,6 +126,8 @@ public final class TotalReportOutputPane extends JScrollPane {
         scrollTable.getSelectionModel().setSelectionMode(
                 ListSelectionModel.SINGLE_SELECTION);
         lockedTable.setSelectionModel(scrollTable.getSelectionModel());
+        // the shared selection follows row changes through the scroll table only
+        lockedTable.setUpdateSelectionOnSort(false);
         lockedTable.getTableHeader().setReorderingAllowed(false);
         lockedTable.getTableHeader().setResizingAllowed(false);
         lockedTable.putClientProperty("terminateEditOnFocusLost", Boolean.TRUE);
@@ -206,6 +224,7 @@ public final class TotalReportOutputPane extends JScrollPane {
             case SecurityTypeWrapper securityTypeWrapper -> outputName = securityTypeWrapper.getName();
             case SecuritySubTypeWrapper securitySubTypeWrapper -> outputName = securitySubTypeWrapper.getName();
             case CurrencyWrapper currencyWrapper -> outputName = currencyWrapper.getName();
+            case TagAggregator tagAggregator -> outputName = tagAggregator.getName();
             case null, default -> throw new Exception("invalid attempt to get name from object");
         }
         return outputName;
@@ -226,35 +245,22 @@ public final class TotalReportOutputPane extends JScrollPane {
         // strategy - get max width for cells in column and
         // make that the preferred width
         TableColumnModel columnModel = table.getColumnModel();
+        if (contentWidths == null) {
+            contentWidths = new int[model.getColumnCount()];
+            Arrays.fill(contentWidths, -1);
+        }
 
         for (int col = 0; col < table.getColumnCount(); col++) {
-            int maxwidth = 0;
-            int fontSizeIncrease = 1;
-            for (int row = 0; row < table.getRowCount(); row++) {
-                TableCellRenderer rend = table.getCellRenderer(row, col);
-                Object value = table.getValueAt(row, col);
-                Component comp = rend.getTableCellRendererComponent(table,
-                        value, false, false, row, col);
-
-                int increasedWidth = 0;
-                int preferredWidth = comp.getPreferredSize().width;
-
-                // workaround--getPreferredSize insufficient for (at least some)
-                // numbers, so set width based on larger font size
-                if (value instanceof MetricEntry) {
-                    JLabel comp1 = (JLabel) comp;
-                    Font f1 = new Font(comp1.getFont().getName(), comp1
-                            .getFont().getStyle(),
-                            comp1.getFont().getSize() + fontSizeIncrease);
-                    comp1.setFont(f1);
-                    increasedWidth = comp1.getPreferredSize().width;
-                }
-                // set to maximum of all obtained widths
-                maxwidth = maxInt(maxwidth, preferredWidth, increasedWidth);
-            } // for row
+            TableColumn column = columnModel.getColumn(col);
+            int modelColumn = column.getModelIndex();
+            if (contentWidths[modelColumn] < 0) {
+                TableCellRenderer renderer = column.getCellRenderer() != null ? column.getCellRenderer()
+                        : table.getDefaultRenderer(Object.class);
+                contentWidths[modelColumn] = getContentWidth(table, renderer, modelColumn);
+            }
+            int maxwidth = contentWidths[modelColumn];
             // following code resizes columns to the maximmum of header and
             // contents
-            TableColumn column = columnModel.getColumn(col);
             switch (option) {
 
                 case MAXCONTCOLRESIZE:
@@ -283,6 +289,51 @@ public final class TotalReportOutputPane extends JScrollPane {
         } // for col
     }
 
+    /**
+     * measures the widest formatted value of a column with one FontMetrics:
+     * every name of a label column, or the extremes of a numeric column
+     *
+     * @param table       table showing the column
+     * @param renderer    column cell renderer
+     * @param modelColumn model column
+     * @return preferred width of the column content
+     */
+    private int getContentWidth(JTable table, TableCellRenderer renderer, int modelColumn) {
+        ReportColumns columns = model.getColumns();
+        Font font = table.getFont();
+        Insets insets = renderer instanceof JComponent component ? component.getInsets() : new Insets(0, 0, 0, 0);
+        int maxwidth = 0;
+        if (columns.isNumeric(modelColumn)) {
+            // workaround--string width insufficient for (at least some)
+            // numbers, so set width based on larger font size
+            FontMetrics metrics = table.getFontMetrics(font.deriveFont(font.getSize2D() + 1));
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int row = 0; row < columns.getRowCount(); row++) {
+                double d = columns.getNumber(row, modelColumn);
+                if (Double.isNaN(d) || d == SecurityReport.UndefinedReturn) continue;
+                min = Math.min(min, d);
+                max = Math.max(max, d);
+            }
+            if (min <= max) {
+                maxwidth = Math.max(metrics.stringWidth(formatCellNumber(renderer, min)),
+                        metrics.stringWidth(formatCellNumber(renderer, max)));
+            }
+        } else {
+            FontMetrics metrics = table.getFontMetrics(font.deriveFont(Font.PLAIN));
+            for (int row = 0; row < columns.getRowCount(); row++) {
+                maxwidth = Math.max(maxwidth, metrics.stringWidth(columns.getLabel(row, modelColumn)));
+            }
+        }
+        return maxwidth + insets.left + insets.right;
+    }
+
+    private static String formatCellNumber(TableCellRenderer renderer, double d) {
+        if (renderer instanceof MetricEntryNumberRenderer numberRenderer) return numberRenderer.formatNumber(d);
+        if (renderer instanceof PercentTableCellRenderer percentRenderer) return percentRenderer.formatNumber(d);
+        return Double.toString(d);
+    }
+
     public String[] getAllColumnNames() {
 
         String[] columnNames = new String[model.getColumnCount()];
@@ -370,50 +421,94 @@ public final class TotalReportOutputPane extends JScrollPane {
 
     class ClosedValueRowFilter extends RowFilter<ReportTableModel, Integer> {
         @Override
-        @SuppressWarnings("unchecked")
         public boolean include(Entry<? extends ReportTableModel, ? extends Integer> entry) {
-            boolean result = false;
-
-            ReportTableModel reportTableModel = entry.getModel();
-            int row = entry.getIdentifier();
-            Object object = reportTableModel.getValueAt(row, closedPosColumn);
-            MetricEntry<Number> metricEntry;
-            if (object instanceof MetricEntry) {
-                metricEntry = (MetricEntry<Number>) object;
-                result = metricEntry.getDisplayValue() != 0.0;
-            }
-            return result;
+            ReportColumns columns = entry.getModel().getColumns();
+            return columns.getNumber(entry.getIdentifier(), closedPosColumn) != 0.0;
         }
     }
 
-    public void sortRows() {
+    /**
+     * Sorts report rows by their model index, comparing the typed column
+     * values (or, for grouping columns, the rows' grouping) rather than the
+     * cell objects.
+     */
+    static final class ReportRowSorter extends DefaultRowSorter<ReportTableModel, Integer> {
+
+        ReportRowSorter(ReportTableModel model) {
+            setModelWrapper(new ModelWrapper<>() {
+                @Override
+                public ReportTableModel getModel() {
+                    return model;
+                }
 
-        TableRowSorter<ReportTableModel> rowSorter = new TableRowSorter<>(this.model);
-        // apply row sorter
-        if (closedPosHidden) {
-            RowFilter<ReportTableModel, Integer> rf = new ClosedValueRowFilter();
-            rowSorter.setRowFilter(rf);
-        } else {
-            rowSorter.setRowFilter(null);
+                @Override
+                public int getColumnCount() {
+                    return model.getColumnCount();
+                }
+
+                @Override
+                public int getRowCount() {
+                    return model.getRowCount();
+                }
+
+                @Override
+                public Object getValueAt(int row, int column) {
+                    return model.getColumns().getRowId(row);
+                }
+
+                @Override
+                public Integer getIdentifier(int row) {
+                    return row;
+                }
+            });
+            for (int col = 0; col < model.getColumnCount(); col++) {
+                int column = col;
+                setComparator(col, (Integer row1, Integer row2) -> model.compare(column, row1, row2));
+            }
+            // room for the selected sorts and every level of the grouping
+            setMaxSortKeys(model.getColumnCount());
+            // refreshes update rows in place, so keep them in order and filtered
+            setSortsOnUpdates(true);
         }
 
-        // apply custom comparator for 1st 5 rows (Strings)
-        // IMPORTANT! Must implement comparator before Sortkeys!
-        rowSorter.setComparator(0, objectComp);
-        rowSorter.setComparator(1, objectComp);
-        rowSorter.setComparator(2, objectComp);
-        rowSorter.setComparator(3, objectComp);
-        rowSorter.setComparator(4, objectComp);
+        @Override
+        protected boolean useToString(int column) {
+            return false;
+        }
+    }
 
-        // Apply sortKeys
+    /**
+     * @param source sorter whose sort keys are followed
+     * @param target sorter taking the same keys whenever the source's change
+     */
+    private static void copySortKeys(RowSorter<?> source, RowSorter<?> target) {
+        source.addRowSorterListener(e -> {
+            if (e.getType() == RowSorterEvent.Type.SORT_ORDER_CHANGED
+                    && !target.getSortKeys().equals(source.getSortKeys())) {
+                target.setSortKeys(source.getSortKeys());
+            }
+        });
+    }
+
+    public void sortRows() {
+
+        RowFilter<ReportTableModel, Integer> rowFilter = closedPosHidden ? closedValueRowFilter : null;
         List<RowSorter.SortKey> sortKeys = new ArrayList<>();
         sortKeys.add(new RowSorter.SortKey(firstSort, firstOrder));
         sortKeys.add(new RowSorter.SortKey(secondSort, secondOrder));
         sortKeys.add(new RowSorter.SortKey(thirdSort, thirdOrder));
-        rowSorter.setSortKeys(sortKeys);
-
-        this.scrollTable.setRowSorter(rowSorter);
-        this.lockedTable.setRowSorter(rowSorter);
+        // remaining levels of the grouping keep subtotals after their members
+        for (int column : totalReport.getAggregateColumns()) {
+            if (column != firstSort && column != secondSort && column != thirdSort) {
+                sortKeys.add(new RowSorter.SortKey(column, SortOrder.ASCENDING));
+            }
+        }
+        for (ReportRowSorter rowSorter : List.of(lockedRowSorter, scrollRowSorter)) {
+            // apply row filter, unless unchanged (setting it re-sorts)
+            if (rowSorter.getRowFilter() != rowFilter) rowSorter.setRowFilter(rowFilter);
+            // Apply sortKeys
+            rowSorter.setSortKeys(sortKeys);
+        }
         setSortedTableHeader();
     }
 
@@ -490,59 +585,9 @@ public final class TotalReportOutputPane extends JScrollPane {
         this.lockedTable.getTableHeader().repaint();
     }
 
-    @SuppressWarnings("unchecked")
     public void switchReturnType(){
-        Class<? extends ExtractorReturnBase> clazzToChange;
-        for(int j = 0; j < model.getColumnCount(); j++){
-            Object obj = model.getValueAt(0, j);
-            if(obj instanceof MetricEntry){
-                MetricEntry<Number> metricEntry = (MetricEntry<Number>) obj;
-                ExtractorBase<?> extractor = metricEntry.extractor;
-                if(extractor != null){
-                    if(extractor.getClass().equals(ExtractorModifiedDietzReturn.class) ){
-                        clazzToChange = ExtractorModifiedDietzReturn.class;
-                        changeColumnMetricEntry(clazzToChange, j, metricEntry);
-                    } else if (extractor.getClass().equals(ExtractorOrdinaryReturn.class)){
-                        clazzToChange = ExtractorOrdinaryReturn.class;
-                        changeColumnMetricEntry(clazzToChange, j, metricEntry);
-                    }
-                }
-            }
-        }
-        model.fireTableDataChanged();
-        sortRows();
-    }
-
-    @SuppressWarnings("unchecked")
-    private void changeColumnMetricEntry(Class<? extends ExtractorReturnBase> clazzToChange,
-                                         int j, MetricEntry<Number> metricEntry) {
-        Object obj;
-        switchExtractor(metricEntry, clazzToChange);
-        for(int i = 1; i < model.getRowCount(); i++){
-            obj = model.getValueAt(i, j);
-            if(obj instanceof MetricEntry){
-                metricEntry = (MetricEntry) obj;
-                switchExtractor(metricEntry, clazzToChange);
-            }
-        }
-    }
-
-    private void switchExtractor(MetricEntry<Number> metricEntry, Class<? extends ExtractorReturnBase> extractorToSwitch) {
-        assert metricEntry.extractor != null;
-        if(extractorToSwitch.equals(ExtractorModifiedDietzReturn.class)){
-            assert metricEntry.extractor instanceof ExtractorModifiedDietzReturn;
-            ExtractorModifiedDietzReturn extractorModifiedDietzReturn = (ExtractorModifiedDietzReturn) metricEntry.extractor;
-            ExtractorOrdinaryReturn extractorOrdinaryReturn = new ExtractorOrdinaryReturn(extractorModifiedDietzReturn);
-            metricEntry.extractor = extractorOrdinaryReturn;
-            metricEntry.value = extractorOrdinaryReturn.getResult();
-
-        } else if(extractorToSwitch.equals(ExtractorOrdinaryReturn.class)){
-            assert metricEntry.extractor instanceof ExtractorOrdinaryReturn;
-            ExtractorOrdinaryReturn extractorOrdinaryReturn = (ExtractorOrdinaryReturn) metricEntry.extractor;
-            ExtractorModifiedDietzReturn extractorModifiedDietzReturn = new ExtractorModifiedDietzReturn(extractorOrdinaryReturn);
-            metricEntry.extractor = extractorModifiedDietzReturn;
-            metricEntry.value = extractorModifiedDietzReturn.getResult();
-        }
+        // the sorters re-sort themselves on the data change
+        model.switchReturnType();
     }
 
 
@@ -593,42 +638,40 @@ public final class TotalReportOutputPane extends JScrollPane {
         system.setContents(stsel, stsel);
     }
 
-    transient Comparator<Object> objectComp = (o1, o2) -> {
-        try {
-            String o1Str = getDisplayValueFromObject(o1);
-            String o2Str = getDisplayValueFromObject(o2);
-            LinkedList<String> endStrings = new LinkedList<>();
-            endStrings.add("CASH");
-            endStrings.add("CASH  "); //handles aggregate by ticker
-            endStrings.add("-ALL");
-            endStrings.add("-ALL "); //handles last row of all-aggregate
-
-            int o1Rank = -1;
-            int o2Rank = -1;
-
-            for (String string : endStrings) {
-                if (o1Str.endsWith(string))
-                    o1Rank = endStrings.indexOf(string);
-                if (o2Str.endsWith(string))
-                    o2Rank = endStrings.indexOf(string);
-            }
+    public enum ColType {OBJECT, DOUBLE0, DOUBLE2, DOUBLE3, PERCENT1}
 
-            if (o1Rank == o2Rank) {
-                return o1Str.compareTo(o2Str);
-            } else {
-                return o1Rank - o2Rank;
+    /**
+     * reads a numeric cell from the typed columns of a report table, otherwise
+     * from the cell's metric entry
+     *
+     * @return display value, NaN if undefined
+     */
+    static double getCellNumber(JTable table, Object value, int row, int column) {
+        if (table != null && table.getModel() instanceof ReportTableModel reportTableModel) {
+            ReportColumns columns = reportTableModel.getColumns();
+            int modelColumn = table.convertColumnIndexToModel(column);
+            if (columns.isNumeric(modelColumn)) {
+                return columns.getNumber(table.convertRowIndexToModel(row), modelColumn);
             }
-        } catch (Exception e) {
-            LogController.logException(e, "Error on Report Output Pane: ");
-            JOptionPane.showMessageDialog(TotalReportOutputPane.this,
-                    "Error! See " + ReportControlPanel.getOutputDirectoryPath() +
-                            " for details", "Error", JOptionPane.ERROR_MESSAGE);
-            return 0;
-
         }
-    };
+        Double d = value instanceof MetricEntry<?> metricEntry ? metricEntry.getDisplayValue() : null;
+        return d == null ? Double.NaN : d;
+    }
 
-    public enum ColType {OBJECT, DOUBLE0, DOUBLE2, DOUBLE3, PERCENT1}
+    /**
+     * reads a label cell from the typed columns of a report table, otherwise
+     * from the cell object
+     */
+    static String getCellLabel(JTable table, Object value, int row, int column) throws Exception {
+        if (table != null && table.getModel() instanceof ReportTableModel reportTableModel) {
+            ReportColumns columns = reportTableModel.getColumns();
+            int modelColumn = table.convertColumnIndexToModel(column);
+            if (!columns.isNumeric(modelColumn)) {
+                return columns.getLabel(table.convertRowIndexToModel(row), modelColumn);
+            }
+        }
+        return getDisplayValueFromObject(value);
+    }
 
     public enum ColSizeOption {NORESIZE, MAXCONTRESIZE, MAXCONTCOLRESIZE}
 
@@ -655,26 +698,20 @@ public final class TotalReportOutputPane extends JScrollPane {
                     value, isSelected, hasFocus, row, column);
 
             if (value instanceof MetricEntry) {
-                Double d = ((MetricEntry) value).getDisplayValue();
-                String text;
-                if (d == null || d.isNaN() || d.equals(SecurityReport.UndefinedReturn)) {
-                    text = "";
-                } else if (d == 0.0) {
-                    text = "-";
-                } else {
-                    text = doubleFormat.format(d);
-                }
-
+                double d = getCellNumber(table, value, row, column);
                 JLabel renderedLabel = (JLabel) cell;
-                if(d != null){
-                    renderedLabel.setHorizontalAlignment(d == 0.0 ? SwingConstants.CENTER
-                            : SwingConstants.RIGHT);
-                    renderedLabel.setForeground(d < 0 ? Color.RED : Color.BLACK);
-                }
-                renderedLabel.setText(text);
+                renderedLabel.setHorizontalAlignment(d == 0.0 ? SwingConstants.CENTER
+                        : SwingConstants.RIGHT);
+                renderedLabel.setForeground(d < 0 ? Color.RED : Color.BLACK);
+                renderedLabel.setText(formatNumber(d));
             }
             return cell;
         }
+
+        String formatNumber(double d) {
+            if (Double.isNaN(d) || d == SecurityReport.UndefinedReturn) return "";
+            return d == 0.0 ? "-" : doubleFormat.format(d);
+        }
     }
 
     static class ObjectTableCellRenderer extends DefaultTableCellRenderer {
@@ -692,7 +729,7 @@ public final class TotalReportOutputPane extends JScrollPane {
                                                        int row, int column) {
             Component cell = null;
             try {
-                String objectName = getDisplayValueFromObject(value);
+                String objectName = getCellLabel(table, value, row, column);
                 cell = super.getTableCellRendererComponent(table,
                         objectName, isSelected, hasFocus, row, column);
 
@@ -734,16 +771,18 @@ public final class TotalReportOutputPane extends JScrollPane {
             Component cell = super.getTableCellRendererComponent(table,
                     value, isSelected, hasFocus, row, column);
             if (value instanceof MetricEntry) {
-                Double d = ((MetricEntry) value).getDisplayValue();
-                String text = d == null || d.isNaN() || d.equals(SecurityReport.UndefinedReturn) ? "" : pctFormat.format(d);
-
+                double d = getCellNumber(table, value, row, column);
                 JLabel renderedLabel = (JLabel) cell;
                 renderedLabel.setHorizontalAlignment(SwingConstants.RIGHT);
-                renderedLabel.setText(text);
-                if(d!= null) renderedLabel.setForeground(d < 0 ? Color.RED : Color.BLACK);
+                renderedLabel.setText(formatNumber(d));
+                renderedLabel.setForeground(d < 0 ? Color.RED : Color.BLACK);
             }
             return cell;
         }
+
+        String formatNumber(double d) {
+            return Double.isNaN(d) || d == SecurityReport.UndefinedReturn ? "" : pctFormat.format(d);
+        }
     }
 
     private final class LockedTableSelectLastColumnCellAction extends
@@ -927,51 +966,23 @@ public final class TotalReportOutputPane extends JScrollPane {
 
         public LinkedList<Integer> getViewHeader(){ return viewHeader;}
 
+        public ReportConfig getReportConfig() {
+            return reportConfig;
+        }
+
 
         @Override
-        @SuppressWarnings("unchecked")
         public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
             Component c = super.prepareRenderer(renderer, row, column);
-            // Color row based on a cell value--overrides TableCellRenders in constructor
-            try {
-                if (!isRowSelected(row)) {
-                    c.setBackground(getBackground());
-                    int modelRow = convertRowIndexToModel(row);
-                    Object aggObj1 = getModel().getValueAt(modelRow, firstAggregateColumnIndex);
-                    Object aggObj2 = getModel().getValueAt(modelRow, secondAggregateColumnIndex);
-
-                    String aggType1 = getDisplayValueFromObject(aggObj1);
-                    String aggType2 = getDisplayValueFromObject(aggObj2);
-                    MetricEntry<Number> endValueMetricEntry = (MetricEntry<Number>) getModel().getValueAt(modelRow, closedPosColumn);
-                    String typeAggregateEnd = "-ALL";
-                    String nameAggregateEnd = " ";
-
-                    if (aggType1.endsWith(nameAggregateEnd) && aggType2.endsWith(nameAggregateEnd)) {
-                        c.setBackground(LIGHT_LIGHT_GRAY);
-                    }
-                    if (aggType1.endsWith(nameAggregateEnd + " ") && aggType2.endsWith(typeAggregateEnd)) {
-                        c.setBackground(Color.lightGray);
-                    }
-                    if (aggType1.endsWith(typeAggregateEnd) && aggType2.endsWith(nameAggregateEnd)) {
-                        c.setBackground(new Color(144, 238, 144));
-                    }
-                    if (aggType1.endsWith(typeAggregateEnd) && aggType2.endsWith(typeAggregateEnd)) {
-                        c.setBackground(Color.GREEN);
-                    }
-                    if (endValueMetricEntry.getDisplayValue() == 0.0) {
-                        c.setForeground(new Color(100, 100, 100));
-                    } else {
-                        c.setForeground(c.getForeground());
-                    }
-                } else {
-                    c.setBackground(new Color(255, 255, 153));  // Light yellow
-                }
-            } catch (Exception e) {
-                LogController.logException(e, "Error on Report Output Pane: ");
-                JOptionPane.showMessageDialog(c, "Error! See " + ReportControlPanel.getOutputDirectoryPath() +
-                        " for details", "Error", JOptionPane.ERROR_MESSAGE);
+            // Color row based on its precomputed kind--overrides TableCellRenders in constructor
+            if (!isRowSelected(row)) {
+                byte rowKind = model.getRowKind(convertRowIndexToModel(row));
+                Color background = ROW_BACKGROUNDS[rowKind & ReportTableModel.ROW_KIND_MASK];
+                c.setBackground(background == null ? getBackground() : background);
+                if ((rowKind & ReportTableModel.ROW_CLOSED) != 0) c.setForeground(CLOSED_FOREGROUND);
+            } else {
+                c.setBackground(SELECTED_BACKGROUND);
             }
-
             return c;
         }
 
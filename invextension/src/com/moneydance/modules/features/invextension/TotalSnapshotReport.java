@@ -48,7 +48,7 @@ public final class TotalSnapshotReport extends TotalReport {
             "TR\n1Mth", "TR\n3Mth", "TR\nYTD", "TR\n1Year", "TR\n3Year",
             "TR\nALL", "AnnRet\nAll", "Long\nBasis", "Short\nBasis", "Income",
             "Ann.\nDiv", "Div\nYield", "Yield On\nBasis", "Rlzd\nGain", "Unrlzd\nGain",
-            "Total\nGain"));
+            "Total\nGain", "TWR\nYTD", "TWR\n1Year", "TWR\n3Year", "TWR\nALL", "Tag"));
     public static String reportTypeName = "Snapshot Report";
     private static final ColType[] COL_TYPES = new ColType[]{ColType.OBJECT, ColType.OBJECT, ColType.OBJECT,
             ColType.OBJECT, ColType.OBJECT, ColType.DOUBLE2, ColType.DOUBLE3, ColType.DOUBLE2,
@@ -56,7 +56,8 @@ public final class TotalSnapshotReport extends TotalReport {
             ColType.PERCENT1, ColType.PERCENT1, ColType.PERCENT1, ColType.PERCENT1, ColType.PERCENT1,
             ColType.PERCENT1, ColType.PERCENT1, ColType.DOUBLE2, ColType.DOUBLE2, ColType.DOUBLE2,
             ColType.DOUBLE2, ColType.PERCENT1, ColType.PERCENT1, ColType.DOUBLE2, ColType.DOUBLE2,
-            ColType.DOUBLE2};
+            ColType.DOUBLE2, ColType.PERCENT1, ColType.PERCENT1, ColType.PERCENT1, ColType.PERCENT1,
+            ColType.OBJECT};
 
     public TotalSnapshotReport(ReportConfig reportConfig, BulkSecInfo currentInfo) throws Exception {
         super(reportConfig, currentInfo, COL_TYPES, MODEL_HEADER);
@@ -67,14 +68,22 @@ public final class TotalSnapshotReport extends TotalReport {
         return getModelHeader().indexOf("End\nValue");
     }
 
+    @Override
+    public int getReportEndDateInt() {
+        return getReportDate().getSnapDateInt();
+    }
+
     @Override
     public String getReportTitle() {
         StringBuilder output = new StringBuilder();
         output.append("Investment Performance Snapshot: ");
         output.append(DateUtils.convertToShort(getReportDate().getSnapDateInt()));
         output.append(" -- Aggregate By: ").append(aggregationController.getFirstAggregator().getReportingName());
-        if (!(aggregationController.getSecondAggregator() instanceof AllAggregate)) {
-            output.append(" Then By: ").append(aggregationController.getSecondAggregator().getReportingName());
+        for (Aggregator aggregator : aggregationController.getAggregators().subList(1,
+                aggregationController.getAggregators().size())) {
+            if (!(aggregator instanceof AllAggregate)) {
+                output.append(" Then By: ").append(aggregator.getReportingName());
+            }
         }
 
         return output.toString();
@@ -165,6 +165,14 @@ public final class TransactionValues implements Comparable<TransactionValues> {
             this.shortBasis = -initBal;
         }
         this.secQuantity = (-this.buy - this.coverShort - this.sell - this.shortSell) * 100;
+        if (invAcctWrapper.hasReportingCurrency()) {
+            // quantity stays in account currency units, cash is priced in the reporting currency
+            double conversionRate = invAcctWrapper.getReportingConversionRate(firstDateInt);
+            convertToReportingCurrency(conversionRate);
+            this.longBasis = Math.round(this.longBasis * conversionRate);
+            this.shortBasis = Math.round(this.shortBasis * conversionRate);
+            this.mktPrice = Math.round(conversionRate * 100);
+        }
 
         this.position = this.secQuantity;
         // OpenValue
@@ -222,13 +230,18 @@ public final class TransactionValues implements Comparable<TransactionValues> {
                 this.secQuantity = this.secQuantity + thisSplit.splitSecQuantity;
                 this.idMap.put(thisSplit.getSplitId(), this.txnID);
             }
+            InvestmentAccountWrapper invAcctWrapper = securityAccountWrapper.getInvAcctWrapper();
+            if (invAcctWrapper.hasReportingCurrency()) {
+                convertToReportingCurrency(invAcctWrapper.getReportingConversionRate(this.dateInt));
+            }
 
             //fill in rest of transValues
             TransactionValues prevTransLine = prevTransLines.isEmpty() ? null :
                     prevTransLines.lastEntry().getValue();
             CurrencyType cur = this.referenceAccount.getCurrencyType();
             int currentDateInt = this.parentTxn.getDateInt();
-            double currentRate = cur.getRate(null, currentDateInt);
+            FxRateCache fxRateCache = securityAccountWrapper.getFxRateCache();
+            double currentRate = fxRateCache.getRate(cur, currentDateInt);
             int prevDateInt = prevTransLine == null ? Integer.MIN_VALUE
                     : prevTransLine.parentTxn.getDateInt();
             double splitAdjust = cur.adjustRateForSplitsInt(prevDateInt, currentRate, currentDateInt) / currentRate;
@@ -239,7 +252,9 @@ public final class TransactionValues implements Comparable<TransactionValues> {
                 adjPrevMktPrc = Math.round(prevTransLine.mktPrice / splitAdjust);
             }
             // mktPrice (Set to 1 if cur is null: Implies (Cash) Investment Account
-            this.mktPrice = Math.round(1 / cur.getRate(null, currentDateInt) * 100);
+            CurrencyType reportingCurrency = invAcctWrapper.getBulkSecInfo().getReportingCurrency();
+            this.mktPrice = reportingCurrency == null ? Math.round(1 / currentRate * 100)
+                    : Math.round(fxRateCache.getRate(reportingCurrency, currentDateInt) / currentRate * 100);
 
             // position
             if (prevTransLine == null) { // first transaction (buy || shortSell)
@@ -505,6 +520,23 @@ public final class TransactionValues implements Comparable<TransactionValues> {
         }
     }
 
+    /**
+     * Converts the cash amounts of this transaction from account currency to the
+     * reporting currency, at the rate of the transaction date
+     *
+     * @param conversionRate factor from account to reporting currency
+     */
+    private void convertToReportingCurrency(double conversionRate) {
+        this.buy = Math.round(this.buy * conversionRate);
+        this.sell = Math.round(this.sell * conversionRate);
+        this.shortSell = Math.round(this.shortSell * conversionRate);
+        this.coverShort = Math.round(this.coverShort * conversionRate);
+        this.commission = Math.round(this.commission * conversionRate);
+        this.income = Math.round(this.income * conversionRate);
+        this.expense = Math.round(this.expense * conversionRate);
+        this.transfer = Math.round(this.transfer * conversionRate);
+    }
+
     private void throwInitialTransactionException(InvestTxnType transactionType) throws InitialTransactionException {
         String errorString = "Error in investment account: " + securityAccountWrapper.getInvestmentAccountName() +
                 " Security: " + securityAccountWrapper.getName() + " must start with either a Buy, BuyXfer or Short, " +
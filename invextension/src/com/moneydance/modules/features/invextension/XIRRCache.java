@@ -0,0 +1,117 @@
+/*
+ * XIRRCache.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the last XIRR solution for each report row, so that a refreshed report
+ * reuses the result for rows whose flows did not change, and starts the search
+ * for changed rows from their previous root.
+ */
+public final class XIRRCache {
+    private static final int MAX_ENTRIES = 10000;
+    private static final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private static final AtomicLong lookups = new AtomicLong();
+    private static final AtomicLong hits = new AtomicLong();
+
+    private XIRRCache() {
+    }
+
+    /**
+     * Calculate XIRR of the first n flows, reusing the cached result for the row if
+     * its flows and window are unchanged.
+     *
+     * @param rowKey identifies report row and return window
+     * @param n      number of flows
+     * @param guess  estimate used if the row has no previous root
+     * @param values cash flows
+     * @param dates  excel dates of flows
+     * @return result of search
+     */
+    public static double xirr(String rowKey, int n, double guess, double[] values, double[] dates) {
+        int hash = hash(n, values, dates);
+        Entry previous = entries.get(rowKey);
+        lookups.incrementAndGet();
+        if (previous != null && previous.matches(hash, n, values, dates)) {
+            hits.incrementAndGet();
+            return previous.result;
+        }
+        double result = Double.NaN;
+        if (previous != null && !Double.isNaN(previous.result)) {
+            // XIRR searches for 1 + rate
+            result = XIRR.xirr(new XIRRData(n, Math.max(previous.result + 1, 0.01), values, dates));
+        }
+        if (Double.isNaN(result)) {
+            result = XIRR.xirr(new XIRRData(n, guess, values, dates));
+        }
+        if (entries.size() >= MAX_ENTRIES) entries.clear();
+        entries.put(rowKey, new Entry(hash, Arrays.copyOf(values, n), Arrays.copyOf(dates, n), result));
+        return result;
+    }
+
+    public static long getLookups() {
+        return lookups.get();
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    private static int hash(int n, double[] values, double[] dates) {
+        int result = n;
+        for (int i = 0; i < n; i++) {
+            result = 31 * result + Double.hashCode(values[i]);
+            result = 31 * result + Double.hashCode(dates[i]);
+        }
+        return result;
+    }
+
+    private static final class Entry {
+        private final int hash;
+        private final double[] values;
+        private final double[] dates;
+        private final double result;
+
+        private Entry(int hash, double[] values, double[] dates, double result) {
+            this.hash = hash;
+            this.values = values;
+            this.dates = dates;
+            this.result = result;
+        }
+
+        private boolean matches(int hash, int n, double[] values, double[] dates) {
+            return this.hash == hash && this.values.length == n
+                    && Arrays.equals(this.values, 0, n, values, 0, n)
+                    && Arrays.equals(this.dates, 0, n, dates, 0, n);
+        }
+    }
+}
@@ -35,7 +35,13 @@ import org.junit.runners.Suite.SuiteClasses;
 //NOTE: If tests won't run, workaround as follows:
 // Remove JUnit.jar from build path, and add back
 @RunWith(Suite.class)
-@SuiteClasses({BulkSecInfoTest.class, ReportProdTest.class, ConsistencyTest.class})
+@SuiteClasses({
+        BulkSecInfoTest.class, ReportProdTest.class, ConsistencyTest.class,
+        CashFlowIndexTest.class, DailyValuationTest.class, ExtractorTimeWeightedReturnTest.class,
+        RollingReturnSeriesTest.class, XIRRCacheTest.class, RowGroupingTest.class,
+        TagAggregatorTest.class, FxRateSeriesTest.class, FxRateCacheTest.class,
+        DateUtilsTest.class, BusinessDayCalendarTest.class, ReportColumnsTest.class,
+        ReportTableModelTest.class})
 public class AllTests {
 
 
@@ -0,0 +1,109 @@
+/*
+ * BusinessDayCalendarTest.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks holiday rules against published exchange calendars and the
+ * constant-time lookups against a day-by-day scan
+ */
+public class BusinessDayCalendarTest {
+
+    private static void checkHolidays(HolidayCalendar holidayCalendar, int year, Integer... expected) {
+        BusinessDayCalendar calendar = new BusinessDayCalendar(holidayCalendar, Collections.emptySet());
+        TreeSet<Integer> holidays = new TreeSet<>();
+        for (int dateInt = year * 10000 + 101; dateInt <= year * 10000 + 1231; dateInt = DateUtils.addDaysInt(dateInt, 1)) {
+            if (DateUtils.getDayOfWeek(DateUtils.toEpochDay(dateInt)) < 6 && !calendar.isBusinessDay(dateInt)) {
+                holidays.add(dateInt);
+            }
+        }
+        assertEquals(holidayCalendar + " " + year, new TreeSet<>(Arrays.asList(expected)), holidays);
+    }
+
+    @Test
+    public void testHolidayRules() {
+        checkHolidays(HolidayCalendar.NYSE, 2024, 20240101, 20240115, 20240219, 20240329, 20240527, 20240619,
+                20240704, 20240902, 20241128, 20241225);
+        // Saturday New Year not observed, Sunday Juneteenth and Christmas observed Monday
+        checkHolidays(HolidayCalendar.NYSE, 2022, 20220117, 20220221, 20220415, 20220530, 20220620,
+                20220704, 20220905, 20221124, 20221226);
+        checkHolidays(HolidayCalendar.TSX, 2024, 20240101, 20240219, 20240329, 20240520, 20240701, 20240805,
+                20240902, 20241014, 20241225, 20241226);
+        checkHolidays(HolidayCalendar.LSE, 2024, 20240101, 20240329, 20240401, 20240506, 20240527, 20240826,
+                20241225, 20241226);
+        // Christmas on Saturday, both holidays move to following Monday and Tuesday
+        checkHolidays(HolidayCalendar.LSE, 2021, 20210101, 20210402, 20210405, 20210503, 20210531, 20210830,
+                20211227, 20211228);
+        checkHolidays(HolidayCalendar.USER_LIST, 2024);
+    }
+
+    @Test
+    public void testUserHolidays() {
+        List<Integer> userHolidays = Arrays.asList(20240102, 20240103);
+        BusinessDayCalendar calendar = new BusinessDayCalendar(HolidayCalendar.NYSE, userHolidays);
+        assertFalse(calendar.isBusinessDay(20240102));
+        assertEquals(20231229, calendar.getPrevBusinessDay(20240104));
+        assertEquals(20240104, calendar.getNextBusinessDay(20231229));
+        assertEquals(new TreeSet<>(userHolidays), calendar.getUserHolidays());
+    }
+
+    @Test
+    public void testLookupsMatchScan() {
+        for (HolidayCalendar holidayCalendar : HolidayCalendar.values()) {
+            BusinessDayCalendar calendar = new BusinessDayCalendar(holidayCalendar, Collections.emptySet());
+            int startDateInt = 19691215;
+            int count = 0;
+            for (int dateInt = startDateInt; dateInt <= 21010115; dateInt = DateUtils.addDaysInt(dateInt, 1)) {
+                int prev = DateUtils.addDaysInt(dateInt, -1);
+                while (!calendar.isBusinessDay(prev)) prev = DateUtils.addDaysInt(prev, -1);
+                int next = DateUtils.addDaysInt(dateInt, 1);
+                while (!calendar.isBusinessDay(next)) next = DateUtils.addDaysInt(next, 1);
+                assertEquals(prev, calendar.getPrevBusinessDay(dateInt));
+                assertEquals(next, calendar.getNextBusinessDay(dateInt));
+                assertEquals(calendar.isBusinessDay(dateInt) ? dateInt : prev, calendar.getLatestBusinessDay(dateInt));
+                if (dateInt >= 19700101 && dateInt <= 21001231) {
+                    if (calendar.isBusinessDay(dateInt)) count++;
+                    assertEquals(count, calendar.getBusinessDaysBetween(19700101, dateInt)
+                            + (calendar.isBusinessDay(19700101) ? 1 : 0));
+                }
+            }
+            assertTrue(count > 250 * 130);
+        }
+    }
+}
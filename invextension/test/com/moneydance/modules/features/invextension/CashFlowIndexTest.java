@@ -0,0 +1,118 @@
+/*
+ * CashFlowIndexTest.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks CashFlowIndex window sums against a direct walk over the flows
+ */
+public class CashFlowIndexTest {
+    private static final int[] WINDOW_DATES = {20080101, 20090315, 20090601, 20091231, 20100104, 20100601, 20111231};
+
+    @Test
+    public void testWindowSums() {
+        Random random = new Random(20100601L);
+        TreeMap<Integer, Long> collapsed = new TreeMap<>();
+        CashFlowIndex.Builder builder = new CashFlowIndex.Builder();
+        int dateInt = 20080102;
+        for (int i = 0; i < 500; i++) {
+            dateInt = DateUtils.addDaysInt(dateInt, random.nextInt(4)); // repeats collapse to one date
+            long flow = random.nextInt(2000000) - 1000000;
+            builder.add(dateInt, flow);
+            collapsed.merge(dateInt, flow, Long::sum);
+        }
+        CashFlowIndex index = builder.build();
+        assertEquals(collapsed.size(), index.size());
+
+        for (int startDateInt : WINDOW_DATES) {
+            for (int endDateInt : WINDOW_DATES) {
+                if (endDateInt < startDateInt) continue;
+                long sum = 0;
+                long weighted = 0;
+                for (Integer flowDateInt : collapsed.subMap(startDateInt, false, endDateInt, true).keySet()) {
+                    long flow = collapsed.get(flowDateInt);
+                    sum += flow;
+                    weighted += DateUtils.getDaysBetween(flowDateInt, endDateInt) * flow;
+                }
+                int lo = index.indexAfter(startDateInt);
+                int hi = index.indexAfter(endDateInt);
+                assertEquals(sum, index.sumFlows(lo, hi));
+                assertEquals(weighted, index.sumWeightedFlows(lo, hi, endDateInt));
+            }
+        }
+    }
+
+    @Test
+    public void testUnorderedBuild() {
+        CashFlowIndex index = new CashFlowIndex.Builder()
+                .add(20100105, 10).add(20100101, 5).add(20100105, 7).add(20100103, -2).build();
+        assertEquals(3, index.size());
+        assertEquals(20100101, index.getDate(0));
+        assertEquals(20100103, index.getDate(1));
+        assertEquals(20100105, index.getDate(2));
+        assertEquals(17, index.getFlow(2));
+        assertEquals(20, index.sumFlows(0, index.size()));
+    }
+
+    @Test
+    public void testMergeSlices() {
+        Random random = new Random(20090601L);
+        TreeMap<Integer, Long> collapsed = new TreeMap<>();
+        CashFlowIndex.Merger merger = new CashFlowIndex.Merger();
+        for (int member = 0; member < 7; member++) {
+            CashFlowIndex.Builder builder = new CashFlowIndex.Builder();
+            int dateInt = 20080102;
+            for (int i = 0; i < 50; i++) {
+                dateInt = DateUtils.addDaysInt(dateInt, 1 + random.nextInt(10));
+                builder.add(dateInt, random.nextInt(20000) - 10000);
+            }
+            CashFlowIndex index = builder.build();
+            int lo = index.indexAfter(20090315);
+            int hi = index.indexAfter(20091231);
+            for (int i = lo; i < hi; i++) {
+                collapsed.merge(index.getDate(i), index.getFlow(i), Long::sum);
+            }
+            merger.add(index, lo, hi);
+        }
+        CashFlowIndex merged = merger.build();
+        assertEquals(collapsed.size(), merged.size());
+        int i = 0;
+        for (Integer dateInt : collapsed.keySet()) {
+            assertEquals((int) dateInt, merged.getDate(i));
+            assertEquals((long) collapsed.get(dateInt), merged.getFlow(i));
+            i++;
+        }
+    }
+}
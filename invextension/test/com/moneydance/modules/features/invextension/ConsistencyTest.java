@@ -37,8 +37,11 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Generates 3 tests:
@@ -81,15 +84,16 @@ public class ConsistencyTest {
      */
     private static LinkedHashMap<String, Integer> getRetDateMap(BulkSecInfo currentInfo) {
         LinkedHashMap<String, Integer> retDateMap = new LinkedHashMap<>();
-        int firstDateInt = DateUtils.getPrevBusinessDay(currentInfo.getFirstDateInt());
-        int fromDateInt = DateUtils.getPrevBusinessDay(firstDateInt);
-        int prevFromDateInt = DateUtils.getPrevBusinessDay(toDateInt);
-        int wkFromDateInt = DateUtils.getLatestBusinessDay(DateUtils.addDaysInt(toDateInt, -7));
-        int mnthFromDateInt = DateUtils.getLatestBusinessDay(DateUtils.addMonthsInt(toDateInt, -1));
-        int threeMnthFromDateInt = DateUtils.getLatestBusinessDay(DateUtils.addMonthsInt(toDateInt, -3));
-        int oneYearFromDateInt = DateUtils.getLatestBusinessDay(DateUtils.addMonthsInt(toDateInt, -12));
-        int threeYearFromDateInt = DateUtils.getLatestBusinessDay(DateUtils.addMonthsInt(toDateInt, -36));
-        int ytdFromDateInt = DateUtils.getStartYear(toDateInt);
+        BusinessDayCalendar calendar = currentInfo.getBusinessDayCalendar();
+        int firstDateInt = calendar.getPrevBusinessDay(currentInfo.getFirstDateInt());
+        int fromDateInt = calendar.getPrevBusinessDay(firstDateInt);
+        int prevFromDateInt = calendar.getPrevBusinessDay(toDateInt);
+        int wkFromDateInt = calendar.getLatestBusinessDay(DateUtils.addDaysInt(toDateInt, -7));
+        int mnthFromDateInt = calendar.getLatestBusinessDay(DateUtils.addMonthsInt(toDateInt, -1));
+        int threeMnthFromDateInt = calendar.getLatestBusinessDay(DateUtils.addMonthsInt(toDateInt, -3));
+        int oneYearFromDateInt = calendar.getLatestBusinessDay(DateUtils.addMonthsInt(toDateInt, -12));
+        int threeYearFromDateInt = calendar.getLatestBusinessDay(DateUtils.addMonthsInt(toDateInt, -36));
+        int ytdFromDateInt = calendar.getStartYear(toDateInt);
 
         retDateMap.put("PREV", prevFromDateInt);
         retDateMap.put("1Wk", wkFromDateInt);
@@ -243,4 +247,117 @@ public class ConsistencyTest {
         assertFalse(errorFound);
     }
 
+    /**
+     * Tests that composites rolled up in parallel are the same as composites
+     * rolled up serially, for every aggregation mode.  The parallel report
+     * splits every group down to single members, so that the forked
+     * reduction runs on this small data set.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testParallelRollUpAgainstSerial() throws Exception {
+        for (AggregationController aggregationController : AggregationController.values()) {
+            ReportConfig reportConfig = new ReportConfig(TotalSnapshotReport.class, "Test Report",
+                    true, false, aggregationController, true, numFrozenColumns, closedPosHidden,
+                    ReportConfig.getDefaultViewHeader(TotalSnapshotReport.MODEL_HEADER),
+                    ReportConfig.getDefaultExcludedAccounts(), ReportConfig.getDefaultInvestmentExpenseAccounts(),
+                    ReportConfig.getDefaultInvestmentIncomeAccounts(), dateRange);
+            TotalSnapshotReport serialReport = new TotalSnapshotReport(reportConfig, currentInfo);
+            serialReport.setParallelRollUp(false);
+            serialReport.calcReport();
+            TotalSnapshotReport parallelReport = new TotalSnapshotReport(reportConfig, currentInfo);
+            parallelReport.setRollUpThreshold(1);
+            parallelReport.calcReport();
+
+            assertEquals(aggregationController.name(), getSortedRows(serialReport.getReportTable()),
+                    getSortedRows(parallelReport.getReportTable()));
+        }
+        System.out.println("Finished Test of Parallel Roll-Up to Serial Roll-Up");
+    }
+
+    @Test
+    public void testSwitchAggregationAgainstFreshReport() throws Exception {
+        AggregationController[] aggregationControllers = AggregationController.values();
+        TotalSnapshotReport switchedReport = new TotalSnapshotReport(getSnapshotConfig(aggregationControllers[0]),
+                currentInfo);
+        switchedReport.calcReport();
+        for (int i = aggregationControllers.length - 1; i >= 0; i--) {
+            AggregationController aggregationController = aggregationControllers[i];
+            switchedReport.setAggregationController(aggregationController);
+            TotalSnapshotReport freshReport = new TotalSnapshotReport(getSnapshotConfig(aggregationController),
+                    currentInfo);
+            freshReport.calcReport();
+
+            assertEquals(aggregationController.name(), getSortedRows(freshReport.getReportTable()),
+                    getSortedRows(switchedReport.getReportTable()));
+        }
+        System.out.println("Finished Test of Switched Aggregation to Fresh Report");
+    }
+
+    @Test
+    public void testContributionsAddToCompositeReturn() throws Exception {
+        TotalSnapshotReport report = new TotalSnapshotReport(getSnapshotConfig(AggregationController.INVACCT),
+                currentInfo);
+        report.calcReport();
+        int checked = 0;
+        for (CompositeReport compositeReport : report.getCompositeReports()) {
+            for (MetricEntry<Double> entry : compositeReport.getAggregateReport().getReturnMetricEntries()) {
+                if (!(entry.extractor instanceof ExtractorModifiedDietzReturn extractor)) continue;
+                LinkedHashMap<String, Double> contributions = extractor.getContributions();
+                if (contributions.isEmpty()) continue;
+                double sum = contributions.values().stream().mapToDouble(Double::doubleValue).sum();
+                assertEquals(compositeReport.getName(), entry.value, sum, 1e-9);
+                checked++;
+            }
+        }
+        assertFalse(checked == 0);
+        System.out.println("Finished Test of Return Contributions, " + checked + " returns checked");
+    }
+
+    @Test
+    public void testNoContributionsForZeroStartValue() throws Exception {
+        // window opens a year before the first transaction, so every composite starts at zero value
+        int earlyFromDateInt = DateUtils.addMonthsInt(currentInfo.getFirstDateInt(), -12);
+        ReportConfig reportConfig = new ReportConfig(TotalFromToReport.class, "Test Report",
+                true, false, AggregationController.INVACCT, rptOutputSingle, numFrozenColumns, closedPosHidden,
+                ReportConfig.getDefaultViewHeader(TotalFromToReport.MODEL_HEADER),
+                ReportConfig.getDefaultExcludedAccounts(), ReportConfig.getDefaultInvestmentExpenseAccounts(),
+                ReportConfig.getDefaultInvestmentIncomeAccounts(),
+                new DateRange(earlyFromDateInt, toDateInt, toDateInt));
+        TotalFromToReport report = new TotalFromToReport(reportConfig, currentInfo);
+        report.calcReport();
+        int checked = 0;
+        for (CompositeReport compositeReport : report.getCompositeReports()) {
+            for (MetricEntry<Double> entry : compositeReport.getAggregateReport().getReturnMetricEntries()) {
+                if (!(entry.extractor instanceof ExtractorModifiedDietzReturn extractor)
+                        || extractor.returnWindowType != ExtractorReturnBase.ReturnWindowType.DEFAULT) continue;
+                assertEquals(compositeReport.getName(), SecurityReport.UndefinedReturn, extractor.getResult());
+                assertTrue(compositeReport.getName(), extractor.getContributions().isEmpty());
+                assertFalse(compositeReport.getName(), extractor.getAuditString().contains("Top Contributors"));
+                checked++;
+            }
+        }
+        assertFalse(checked == 0);
+        System.out.println("Finished Test of Zero Start Value Contributions, " + checked + " returns checked");
+    }
+
+    private ReportConfig getSnapshotConfig(AggregationController aggregationController) throws Exception {
+        return new ReportConfig(TotalSnapshotReport.class, "Test Report",
+                true, false, aggregationController, true, numFrozenColumns, closedPosHidden,
+                ReportConfig.getDefaultViewHeader(TotalSnapshotReport.MODEL_HEADER),
+                ReportConfig.getDefaultExcludedAccounts(), ReportConfig.getDefaultInvestmentExpenseAccounts(),
+                ReportConfig.getDefaultInvestmentIncomeAccounts(), dateRange);
+    }
+
+    @NotNull
+    private static List<String> getSortedRows(Object[][] reportTable) {
+        ArrayList<String> rows = new ArrayList<>();
+        for (ReportLine reportLine : ReportProdTest.readObjArrayIntoRptLine(reportTable)) {
+            rows.add(String.join("\t", reportLine.getRow()));
+        }
+        Collections.sort(rows);
+        return rows;
+    }
+
 }
@@ -0,0 +1,86 @@
+/*
+ * DailyValuationTest.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks daily valuation against values computed by hand, for a security
+ * which is bought mid-window and split 2:1
+ */
+public class DailyValuationTest {
+    static final int SPLIT_DATE_INT = 20100120;
+    // 100 shares held from 12/31, 100 more bought 1/15; positions and prices scaled as ExtractorBase.qXp
+    static final int[] POSITION_DATES = {20091231, 20100115};
+    static final long[] POSITIONS = {1000000, 2000000};
+    // 2:1 split of positions held from before the split date
+    static final DailyValuation.PositionAdjuster SPLIT_ADJUSTER = (position, referenceDateInt, dateInt) ->
+            referenceDateInt < SPLIT_DATE_INT && dateInt >= SPLIT_DATE_INT ? 2 * position : position;
+
+    /**
+     * @return valuation of security from 12/31/2009 through 1/31/2010
+     */
+    static DailyValuation getSplitValuation() {
+        long[] prices = new long[32];
+        Arrays.fill(prices, 0, 11, 1000);   // 12/31 - 1/10
+        Arrays.fill(prices, 11, 20, 1100);  // 1/11 - 1/19
+        Arrays.fill(prices, 20, 25, 575);   // 1/20 - 1/24, after split
+        Arrays.fill(prices, 25, 32, 600);   // 1/25 - 1/31
+        int[] adjustDays = {20, 21}; // split date and day after
+        return DailyValuation.build(POSITION_DATES, POSITIONS, prices, 10000, adjustDays, SPLIT_ADJUSTER);
+    }
+
+    @Test
+    public void testValuesAcrossFlowAndSplit() {
+        DailyValuation valuation = getSplitValuation();
+        assertEquals(20091231, valuation.getFirstDateInt());
+        assertEquals(20100131, valuation.getLastDateInt());
+        assertEquals(0, valuation.getValue(20091230));
+        assertEquals(100000, valuation.getValue(20100101));
+        assertEquals(110000, valuation.getValue(20100114));
+        assertEquals(220000, valuation.getValue(20100115));
+        assertEquals(220000, valuation.getValue(20100119));
+        assertEquals(230000, valuation.getValue(20100120));
+        assertEquals(240000, valuation.getValue(20100131));
+    }
+
+    @Test
+    public void testValueAfterLastDate() {
+        DailyValuation valuation = getSplitValuation();
+        assertTrue(valuation.covers(20100131));
+        assertEquals(240000, valuation.getValue(20100201));
+        assertEquals(240000, valuation.getValue(20151231));
+        assertEquals(0, DailyValuation.EMPTY.getValue(20100101));
+    }
+}
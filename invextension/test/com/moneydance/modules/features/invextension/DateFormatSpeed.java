@@ -0,0 +1,89 @@
+/*
+ * DateFormatSpeed.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * Micro-benchmark of date formatting for a one million row export: time and
+ * bytes allocated per call, formatter per call (previous implementation)
+ * against the cached formatters in DateUtils
+ */
+public class DateFormatSpeed {
+    private static final int ROWS = 1_000_000;
+    private static final int RUNS = 5;
+    private static final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int[] dateInts = new int[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            dateInts[i] = DateUtils.fromEpochDay(10000 + i % 12000);
+        }
+        for (int run = 0; run < RUNS; run++) {
+            boolean report = run == RUNS - 1; // earlier runs are warm-up
+            measure("short, new SimpleDateFormat", dateInts, DateFormatSpeed::legacyShort, report);
+            measure("short, cached DateTimeFormatter", dateInts, DateUtils::convertToShort, report);
+            measure("standard, new SimpleDateFormat", dateInts, DateFormatSpeed::legacyStandard, report);
+            measure("standard, char[] formatter", dateInts, DateUtils::convertToStandard, report);
+        }
+    }
+
+    private static void measure(String name, int[] dateInts, IntFunction<String> formatter, boolean report) {
+        long threadId = Thread.currentThread().getId();
+        long checksum = 0;
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        for (int dateInt : dateInts) {
+            checksum += formatter.apply(dateInt).length();
+        }
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+        if (report) {
+            System.out.printf("%-34s %8.1f ns/call %8.1f bytes/call (checksum %d)%n", name,
+                    (double) nanos / dateInts.length, (double) bytes / dateInts.length, checksum);
+        }
+    }
+
+    private static String legacyShort(int dateInt) {
+        Date date = DateUtils.convertToDate(dateInt);
+        SimpleDateFormat sdf = new SimpleDateFormat(DateUtils.SHORT_DATE_PATTERN, Locale.getDefault());
+        return sdf.format(date);
+    }
+
+    private static String legacyStandard(int dateInt) {
+        Date date = DateUtils.convertToDate(dateInt);
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        return sdf.format(date);
+    }
+}
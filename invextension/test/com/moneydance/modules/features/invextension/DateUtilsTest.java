@@ -0,0 +1,115 @@
+/*
+ * DateUtilsTest.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks integer date arithmetic against java.time over a wide range of dates
+ */
+public class DateUtilsTest {
+    private static final long FIRST_EPOCH_DAY = LocalDate.of(1600, 1, 1).toEpochDay();
+    private static final long LAST_EPOCH_DAY = LocalDate.of(2400, 12, 31).toEpochDay();
+    private static final int SAMPLES = 200000;
+
+    private static int toDateInt(LocalDate date) {
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    private static LocalDate randomDate(Random random) {
+        return LocalDate.ofEpochDay(FIRST_EPOCH_DAY + (long) (random.nextDouble() * (LAST_EPOCH_DAY - FIRST_EPOCH_DAY)));
+    }
+
+    @Test
+    public void testEpochDayRoundTrip() {
+        for (long epochDay = FIRST_EPOCH_DAY; epochDay <= LAST_EPOCH_DAY; epochDay++) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            assertEquals(epochDay, DateUtils.toEpochDay(toDateInt(date)));
+            assertEquals(toDateInt(date), DateUtils.fromEpochDay(epochDay));
+        }
+    }
+
+    @Test
+    public void testAddDaysInt() {
+        Random random = new Random(41);
+        for (int i = 0; i < SAMPLES; i++) {
+            LocalDate date = randomDate(random);
+            int days = random.nextInt(40000) - 20000;
+            assertEquals(toDateInt(date.plusDays(days)), DateUtils.addDaysInt(toDateInt(date), days));
+        }
+    }
+
+    @Test
+    public void testAddMonthsInt() {
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            LocalDate date = randomDate(random);
+            int months = random.nextInt(1200) - 600;
+            assertEquals(toDateInt(date.plusMonths(months)), DateUtils.addMonthsInt(toDateInt(date), months));
+        }
+        assertEquals(20240229, DateUtils.addMonthsInt(20240131, 1));
+        assertEquals(20230228, DateUtils.addMonthsInt(20240229, -12));
+    }
+
+    @Test
+    public void testDaysBetweenAndExcelDate() {
+        Random random = new Random(43);
+        LocalDate excelStart = LocalDate.of(1899, 12, 31);
+        for (int i = 0; i < SAMPLES; i++) {
+            LocalDate date1 = randomDate(random);
+            LocalDate date2 = randomDate(random);
+            assertEquals(Math.abs(ChronoUnit.DAYS.between(date1, date2)),
+                    DateUtils.getDaysBetween(toDateInt(date1), toDateInt(date2)));
+            if (date1.isAfter(excelStart)) {
+                assertEquals(ChronoUnit.DAYS.between(excelStart, date1), DateUtils.getExcelDateValue(toDateInt(date1)));
+            }
+        }
+        assertEquals(39447L, DateUtils.getExcelDateValue(20080101));
+    }
+
+    @Test
+    public void testFormatting() {
+        Random random = new Random(44);
+        SimpleDateFormat shortFormat = new SimpleDateFormat(DateUtils.SHORT_DATE_PATTERN, Locale.getDefault());
+        for (int i = 0; i < 20000; i++) {
+            LocalDate date = LocalDate.ofEpochDay(-25000 + random.nextInt(80000));
+            int dateInt = toDateInt(date);
+            assertEquals(date.toString(), DateUtils.convertToStandard(dateInt));
+            assertEquals(shortFormat.format(DateUtils.convertToDate(dateInt)), DateUtils.convertToShort(dateInt));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * ExtractorTimeWeightedReturnTest.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks time-weighted returns against returns computed by hand, for a security
+ * with a purchase, a dividend and a 2:1 split in the window, and for that security
+ * aggregated with another held throughout
+ */
+public class ExtractorTimeWeightedReturnTest {
+    private static final int START_DATE_INT = 20100101;
+    private static final int END_DATE_INT = 20100131;
+    // buy of 100 shares at 11.00 on 1/15, dividend of 20.00 on 1/25
+    private static final CashFlowIndex CAPITAL_FLOWS = new CashFlowIndex.Builder().add(20100115, 110000).build();
+    private static final CashFlowIndex INCOME_FLOWS = new CashFlowIndex.Builder().add(20100125, 2000).build();
+
+    private static double linkReturns(CashFlowIndex capitalFlows, CashFlowIndex incomeFlows,
+                                      DailyValuation... valuations) {
+        return ExtractorTimeWeightedReturn.linkReturns(START_DATE_INT, END_DATE_INT,
+                capitalFlows, capitalFlows.indexAfter(START_DATE_INT), capitalFlows.indexAfter(END_DATE_INT),
+                incomeFlows, incomeFlows.indexAfter(START_DATE_INT), incomeFlows.indexAfter(END_DATE_INT),
+                Arrays.asList(valuations));
+    }
+
+    @Test
+    public void testSecurityReturn() {
+        // 1/1 - 1/15: (220000 - 110000) / 100000 = 1.10
+        // 1/15 - 1/25: (240000 + 2000) / 220000 = 1.10, split leaves value unchanged
+        // 1/25 - 1/31: 240000 / 240000 = 1.00
+        double twr = linkReturns(CAPITAL_FLOWS, INCOME_FLOWS, DailyValuationTest.getSplitValuation());
+        assertEquals(0.21, twr, 1e-12);
+    }
+
+    @Test
+    public void testCompositeReturn() {
+        // 50 shares held throughout, 20.00 until 1/20 and 21.00 after
+        long[] prices = new long[32];
+        Arrays.fill(prices, 0, 20, 2000);
+        Arrays.fill(prices, 20, 32, 2100);
+        DailyValuation other = DailyValuation.build(new int[]{20091231}, new long[]{500000}, prices, 10000,
+                new int[0], (position, referenceDateInt, dateInt) -> position);
+        CashFlowIndex.Merger capitalMerger = new CashFlowIndex.Merger();
+        capitalMerger.add(CAPITAL_FLOWS, 0, CAPITAL_FLOWS.size()).add(CashFlowIndex.EMPTY, 0, 0);
+        CashFlowIndex.Merger incomeMerger = new CashFlowIndex.Merger();
+        incomeMerger.add(INCOME_FLOWS, 0, INCOME_FLOWS.size()).add(CashFlowIndex.EMPTY, 0, 0);
+
+        // 1/1 - 1/15: (320000 - 110000) / 200000 = 1.05
+        // 1/15 - 1/25: (345000 + 2000) / 320000 = 1.084375
+        // 1/25 - 1/31: 345000 / 345000 = 1.00
+        double twr = linkReturns(capitalMerger.build(), incomeMerger.build(),
+                DailyValuationTest.getSplitValuation(), other);
+        assertEquals(1.05 * 1.084375 - 1.0, twr, 1e-12);
+    }
+
+    @Test
+    public void testNothingHeld() {
+        double twr = ExtractorTimeWeightedReturn.linkReturns(20000101, 20000131, CashFlowIndex.EMPTY, 0, 0,
+                CashFlowIndex.EMPTY, 0, 0, Collections.singletonList(DailyValuationTest.getSplitValuation()));
+        assertEquals(SecurityReport.UndefinedReturn, twr, 0.0);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * FxRateCacheTest.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import com.infinitekind.moneydance.model.Account;
+import com.infinitekind.moneydance.model.CurrencyType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks a report in a reporting currency against the same report in account
+ * currency: transaction amounts and prices are converted at the rate of their
+ * date, and over a window without flows the return in reporting currency is
+ * the account currency return compounded with the change in exchange rate.
+ */
+public class FxRateCacheTest {
+    private static final String REPORTING_CURRENCY_ID = "EUR";
+    private static final int endDateInt = 20100601;
+    private BulkSecInfo accountInfo;
+    private BulkSecInfo reportingInfo;
+
+    @Before
+    public void setUp() throws Exception {
+        accountInfo = BulkSecInfoTest.getBaseSecurityInfoAvgCost();
+        BulkSecInfoTest.MDFileInfo mdFileInfo = BulkSecInfoTest.loadRootAccountFromFolder();
+        Account root = mdFileInfo.getRootAccount();
+        ReportConfig reportConfig = ReportConfig.getStandardReportConfig(TotalFromToReport.class);
+        reportConfig.setAllExpenseAccountsToInvestment(root);
+        reportConfig.setAllIncomeAccountsToInvestment(root);
+        reportConfig.setReportingCurrencyId(REPORTING_CURRENCY_ID);
+        reportingInfo = new BulkSecInfo(mdFileInfo.getAccountBook(), reportConfig);
+        assertNotNull(REPORTING_CURRENCY_ID + " missing from test file", reportingInfo.getReportingCurrency());
+    }
+
+    private static HashMap<String, SecurityReport> getLeavesById(BulkSecInfo info) throws Exception {
+        ReportConfig reportConfig = new ReportConfig(TotalSnapshotReport.class, "Test Report",
+                true, false, AggregationController.INVACCT, false, 5, true,
+                ReportConfig.getDefaultViewHeader(TotalSnapshotReport.MODEL_HEADER),
+                ReportConfig.getDefaultExcludedAccounts(), ReportConfig.getDefaultInvestmentExpenseAccounts(),
+                ReportConfig.getDefaultInvestmentIncomeAccounts(), new DateRange(endDateInt, endDateInt, endDateInt));
+        reportConfig.setAllExpenseAccountsToInvestment(info.getRoot());
+        TotalSnapshotReport snapshotReport = new TotalSnapshotReport(reportConfig, info);
+        snapshotReport.calcReport();
+        HashMap<String, SecurityReport> leaves = new HashMap<>();
+        for (SecurityReport securityReport : snapshotReport.getSecurityReports()) {
+            leaves.put(getId(securityReport.getSecurityAccountWrapper()), securityReport);
+        }
+        return leaves;
+    }
+
+    private static String getId(SecurityAccountWrapper securityAccountWrapper) {
+        return securityAccountWrapper.getInvestmentAccountName() + ":" + securityAccountWrapper.getName();
+    }
+
+    private static HashMap<String, SecurityAccountWrapper> getWrappersById(BulkSecInfo info) {
+        HashMap<String, SecurityAccountWrapper> wrappers = new HashMap<>();
+        for (SecurityAccountWrapper securityAccountWrapper : info.getSecurityAccountWrappers()) {
+            wrappers.put(getId(securityAccountWrapper), securityAccountWrapper);
+        }
+        return wrappers;
+    }
+
+    /**
+     * @return factor from the account's currency to the reporting currency
+     */
+    private double getConversionRate(SecurityAccountWrapper reportingWrapper, int dateInt) {
+        CurrencyType reportingCurrency = reportingInfo.getReportingCurrency();
+        return reportingInfo.getFxRateCache().getConversionRate(
+                reportingWrapper.getInvAcctWrapper().getAccountCurrency(), reportingCurrency, dateInt);
+    }
+
+    @Test
+    public void testTransactionsConverted() {
+        HashMap<String, SecurityAccountWrapper> reportingWrappers = getWrappersById(reportingInfo);
+        int checked = 0;
+        for (Map.Entry<String, SecurityAccountWrapper> entry : getWrappersById(accountInfo).entrySet()) {
+            SecurityAccountWrapper reportingWrapper = reportingWrappers.get(entry.getKey());
+            Map<String, TransactionValues> reportingTransactions = reportingWrapper.getTransactionValues();
+            for (Map.Entry<String, TransactionValues> transaction : entry.getValue().getTransactionValues()
+                    .entrySet()) {
+                TransactionValues accountValues = transaction.getValue();
+                TransactionValues reportingValues = reportingTransactions.get(transaction.getKey());
+                String label = entry.getKey() + " " + transaction.getKey();
+                double rate = getConversionRate(reportingWrapper, accountValues.getDateInt());
+                assertEquals(label, Math.round(accountValues.getBuy() * rate), reportingValues.getBuy());
+                assertEquals(label, Math.round(accountValues.getSell() * rate), reportingValues.getSell());
+                assertEquals(label, Math.round(accountValues.getIncome() * rate), reportingValues.getIncome());
+                assertEquals(label, Math.round(accountValues.getExpense() * rate), reportingValues.getExpense());
+                assertEquals(label, accountValues.getPosition(), reportingValues.getPosition());
+                // prices are rounded to cents in either currency
+                assertEquals(label, accountValues.getMktPrice() * rate, reportingValues.getMktPrice(), rate + 1.0);
+                checked++;
+            }
+        }
+        assertTrue(checked > 0);
+    }
+
+    @Test
+    public void testPricesConverted() {
+        HashMap<String, SecurityAccountWrapper> reportingWrappers = getWrappersById(reportingInfo);
+        int checked = 0;
+        for (Map.Entry<String, SecurityAccountWrapper> entry : getWrappersById(accountInfo).entrySet()) {
+            SecurityAccountWrapper reportingWrapper = reportingWrappers.get(entry.getKey());
+            for (int dateInt = accountInfo.getFirstDateInt(); dateInt <= endDateInt;
+                 dateInt = DateUtils.addMonthsInt(dateInt, 1)) {
+                double rate = getConversionRate(reportingWrapper, dateInt);
+                assertEquals(entry.getKey() + " " + dateInt, entry.getValue().getPrice(dateInt) * rate,
+                        reportingWrapper.getPrice(dateInt), rate + 1.0);
+                checked++;
+            }
+        }
+        assertTrue(checked > 0);
+    }
+
+    @Test
+    public void testReturnsConverted() throws Exception {
+        HashMap<String, SecurityReport> reportingLeaves = getLeavesById(reportingInfo);
+        int checked = 0;
+        for (Map.Entry<String, SecurityReport> entry : getLeavesById(accountInfo).entrySet()) {
+            SecurityReport reportingLeaf = reportingLeaves.get(entry.getKey());
+            SecurityAccountWrapper reportingWrapper = reportingLeaf.getSecurityAccountWrapper();
+            for (int startDateInt = accountInfo.getFirstDateInt(); startDateInt < endDateInt;
+                 startDateInt = DateUtils.addMonthsInt(startDateInt, 1)) {
+                int windowEndDateInt = DateUtils.addMonthsInt(startDateInt, 1);
+                if (hasTransactions(reportingWrapper, startDateInt, windowEndDateInt)) continue;
+                double accountReturn = getReturn(entry.getValue(), startDateInt, windowEndDateInt);
+                double reportingReturn = getReturn(reportingLeaf, startDateInt, windowEndDateInt);
+                if (Double.isNaN(accountReturn)) continue;
+                double rateChange = getConversionRate(reportingWrapper, windowEndDateInt)
+                        / getConversionRate(reportingWrapper, startDateInt);
+                // prices are rounded to cents in either currency
+                double tolerance = (1.0 + accountReturn) * (1.0 / reportingWrapper.getPrice(startDateInt)
+                        + 1.0 / reportingWrapper.getPrice(windowEndDateInt)) + 1e-9;
+                assertEquals(entry.getKey() + " " + startDateInt, (1.0 + accountReturn) * rateChange,
+                        1.0 + reportingReturn, tolerance);
+                checked++;
+            }
+        }
+        assertTrue(checked > 0);
+    }
+
+    private static boolean hasTransactions(SecurityAccountWrapper securityAccountWrapper, int startDateInt,
+                                           int endDateInt) {
+        return securityAccountWrapper.getTransactionValues().values().stream()
+                .anyMatch(transaction -> startDateInt < transaction.getDateInt()
+                        && transaction.getDateInt() <= endDateInt);
+    }
+
+    private static double getReturn(SecurityReport securityReport, int startDateInt, int endDateInt) {
+        SecurityAccountWrapper securityAccount = securityReport.getSecurityAccountWrapper();
+        ExtractorReturnBase extractor = ExtractorReturnBase.factory(securityAccount, securityReport,
+                startDateInt, endDateInt, ExtractorReturnBase.ReturnWindowType.DEFAULT, false);
+        for (TransactionValues transaction : securityAccount.getTransactionValues().values()) {
+            extractor.processNextTransaction(transaction, transaction.getDateInt());
+        }
+        return extractor.getResult();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * FxRateSeriesTest.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks binary search lookup of FX rates against a sorted map
+ */
+public class FxRateSeriesTest {
+
+    @Test
+    public void testLookupMatchesFloorEntry() {
+        Random random = new Random(7);
+        TreeMap<Integer, Double> expected = new TreeMap<>();
+        while (expected.size() < 200) {
+            expected.put(DateUtils.addDaysInt(20000101, random.nextInt(7000)), 0.5 + random.nextDouble());
+        }
+        int[] dateInts = expected.keySet().stream().mapToInt(Integer::intValue).toArray();
+        double[] rates = expected.values().stream().mapToDouble(Double::doubleValue).toArray();
+        FxRateSeries series = new FxRateSeries(dateInts, rates, 1.25);
+
+        for (int day = -10; day < 7100; day++) {
+            int dateInt = DateUtils.addDaysInt(20000101, day);
+            Map.Entry<Integer, Double> floor = expected.floorEntry(dateInt);
+            assertEquals(floor == null ? 1.25 : floor.getValue(), series.getRate(dateInt), 0.0);
+            assertEquals(floor == null ? rates[0] : floor.getValue(), series.getPriceRate(dateInt), 0.0);
+        }
+    }
+
+    @Test
+    public void testDailyRatesMatchLookup() {
+        FxRateSeries series = new FxRateSeries(new int[]{20100105, 20100106, 20100120},
+                new double[]{1.1, 1.2, 1.3}, 0.9);
+        for (int firstDateInt : new int[]{20091225, 20100105, 20100110, 20100201}) {
+            double[] rates = series.getDailyRates(firstDateInt, 40, false);
+            double[] priceRates = series.getDailyRates(firstDateInt, 40, true);
+            for (int day = 0; day < 40; day++) {
+                int dateInt = DateUtils.addDaysInt(firstDateInt, day);
+                assertEquals(series.getRate(dateInt), rates[day], 0.0);
+                assertEquals(series.getPriceRate(dateInt), priceRates[day], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testNoSnapshots() {
+        FxRateSeries series = new FxRateSeries(new int[0], new double[0], 0.8);
+        assertEquals(0.8, series.getRate(20150101), 0.0);
+        assertEquals(0.8, series.getPriceRate(20150101), 0.0);
+        assertEquals(0.8, series.getDailyRates(20150101, 3, true)[2], 0.0);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * ReportColumnsSpeed.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.Random;
+
+/**
+ * Micro-benchmark of a 5,000 row by 80 column report: reading every numeric
+ * cell and sorting on a number and a label column, unwrapping cell objects
+ * (previous implementation) against the typed ReportColumns
+ */
+public class ReportColumnsSpeed {
+    private static final int ROWS = 5_000;
+    private static final int COLUMNS = 80;
+    private static final int LABEL_COLUMNS = 5;
+    private static final int RUNS = 10;
+    private static final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // stands in for SecurityReport.MetricEntry: a long value scaled on every read
+    private static final class Cell {
+        final Long value;
+        final Double scalingFactor;
+
+        Cell(long value, double scalingFactor) {
+            this.value = value;
+            this.scalingFactor = scalingFactor;
+        }
+
+        Double getDisplayValue() {
+            return value / scalingFactor;
+        }
+    }
+
+    public static void main(String[] args) {
+        Object[][] data = createData();
+        boolean[] numericColumns = new boolean[COLUMNS];
+        for (int col = LABEL_COLUMNS; col < COLUMNS; col++) numericColumns[col] = true;
+
+        ReportColumns columns = null;
+        for (int run = 0; run < RUNS; run++) {
+            boolean report = run == RUNS - 1; // earlier runs are warm-up
+            long threadId = Thread.currentThread().getId();
+            long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+            long startNanos = System.nanoTime();
+            columns = new ReportColumns(data, numericColumns, o -> ((Cell) o).getDisplayValue(), o -> (String) o);
+            long nanos = System.nanoTime() - startNanos;
+            long bytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+            if (report) {
+                System.out.printf("%-30s %10.3f ms %12.1f bytes/cell%n", "build columns", nanos / 1e6,
+                        (double) bytes / (ROWS * COLUMNS));
+            }
+
+            final ReportColumns typed = columns;
+            measure("read cells, unwrap", report, () -> {
+                double sum = 0.0;
+                for (Object[] row : data) {
+                    for (int col = LABEL_COLUMNS; col < COLUMNS; col++) sum += ((Cell) row[col]).getDisplayValue();
+                }
+                return (long) sum;
+            });
+            measure("read cells, typed", report, () -> {
+                double sum = 0.0;
+                for (int row = 0; row < ROWS; row++) {
+                    for (int col = LABEL_COLUMNS; col < COLUMNS; col++) sum += typed.getNumber(row, col);
+                }
+                return (long) sum;
+            });
+            int numberColumn = COLUMNS - 1;
+            measure("sort number, unwrap", report, () -> sortRows((row1, row2) ->
+                    ((Cell) data[row1][numberColumn]).getDisplayValue()
+                            .compareTo(((Cell) data[row2][numberColumn]).getDisplayValue())));
+            measure("sort number, typed", report, () -> sortRows(typed.getComparator(numberColumn)));
+            measure("sort label, unwrap", report, () -> sortRows((row1, row2) ->
+                    legacyLabelCompare(data[row1][1], data[row2][1])));
+            measure("sort label, typed", report, () -> sortRows(typed.getComparator(1)));
+        }
+        System.out.printf("cell objects retained: %d, typed values: %d%n", (long) ROWS * COLUMNS,
+                (long) columns.getRowCount() * columns.getColumnCount());
+    }
+
+    private interface Task {
+        long run();
+    }
+
+    private static void measure(String name, boolean report, Task task) {
+        long threadId = Thread.currentThread().getId();
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        long checksum = task.run();
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+        if (report) {
+            System.out.printf("%-30s %10.3f ms %12d bytes (checksum %d)%n", name, nanos / 1e6, bytes, checksum);
+        }
+    }
+
+    private static long sortRows(Comparator<Integer> comparator) {
+        Integer[] rows = new Integer[ROWS];
+        for (int row = 0; row < ROWS; row++) rows[row] = (row * 7919) % ROWS;
+        Arrays.sort(rows, comparator);
+        return rows[0] + rows[ROWS - 1];
+    }
+
+    // previous label comparator of the report output pane
+    private static int legacyLabelCompare(Object o1, Object o2) {
+        String o1Str = (String) o1;
+        String o2Str = (String) o2;
+        LinkedList<String> endStrings = new LinkedList<>();
+        endStrings.add("CASH");
+        endStrings.add("CASH  ");
+        endStrings.add("-ALL");
+        endStrings.add("-ALL ");
+        int o1Rank = -1;
+        int o2Rank = -1;
+        for (String string : endStrings) {
+            if (o1Str.endsWith(string)) o1Rank = endStrings.indexOf(string);
+            if (o2Str.endsWith(string)) o2Rank = endStrings.indexOf(string);
+        }
+        return o1Rank == o2Rank ? o1Str.compareTo(o2Str) : o1Rank - o2Rank;
+    }
+
+    private static Object[][] createData() {
+        Random random = new Random(42);
+        Object[][] data = new Object[ROWS][COLUMNS];
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < LABEL_COLUMNS; col++) {
+                int group = random.nextInt(200);
+                data[row][col] = group == 0 ? "Account-ALL" : group == 1 ? "Account~CASH" : "Security " + group;
+            }
+            for (int col = LABEL_COLUMNS; col < COLUMNS; col++) {
+                data[row][col] = new Cell(random.nextInt(10_000_000) - 1_000_000, 10_000.0);
+            }
+        }
+        return data;
+    }
+}
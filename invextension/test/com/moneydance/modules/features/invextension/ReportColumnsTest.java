@@ -0,0 +1,122 @@
+/*
+ * ReportColumnsTest.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks typed column values and row comparisons of the report table
+ */
+public class ReportColumnsTest {
+    private static final Object[][] DATA = {
+            {"Brokerage-ALL", 3.0},
+            {"Brokerage~CASH", 1.0},
+            {"Zeta", null},
+            {"Alpha", -2.5},
+            {"All-ALL ", 7.0},
+    };
+
+    private static ReportColumns createColumns() {
+        return new ReportColumns(DATA, new boolean[]{false, true},
+                o -> o == null ? Double.NaN : (Double) o, o -> (String) o);
+    }
+
+    @Test
+    public void testValues() {
+        ReportColumns columns = createColumns();
+        assertEquals(5, columns.getRowCount());
+        assertEquals(2, columns.getColumnCount());
+        assertEquals("Zeta", columns.getLabel(2, 0));
+        assertEquals(-2.5, columns.getNumber(3, 1), 0.0);
+        assertEquals(Double.NaN, columns.getNumber(2, 1), 0.0);
+        assertEquals(Integer.valueOf(4), columns.getRowId(4));
+    }
+
+    @Test
+    public void testRowKeys() {
+        ReportColumns columns = new ReportColumns(new Object[][]{{"A", "X", 1.0}, {"A", "Y", 2.0}, {"A", "X", 3.0}},
+                new boolean[]{false, false, true}, o -> (Double) o, o -> (String) o);
+        String[] keys = columns.getRowKeys();
+        assertEquals(3, Arrays.stream(keys).distinct().count());
+        ReportColumns reordered = new ReportColumns(new Object[][]{{"A", "Y", 2.0}, {"A", "X", 1.0}},
+                new boolean[]{false, false, true}, o -> (Double) o, o -> (String) o);
+        assertEquals(keys[1], reordered.getRowKeys()[0]);
+        assertEquals(keys[0], reordered.getRowKeys()[1]);
+    }
+
+    @Test
+    public void testRowEquality() {
+        ReportColumns columns = createColumns();
+        ReportColumns changed = new ReportColumns(new Object[][]{{"Alpha", -2.5}, {"Zeta", 1.0}},
+                new boolean[]{false, true}, o -> o == null ? Double.NaN : (Double) o, o -> (String) o);
+        assertTrue(columns.isRowEqual(3, changed, 0));
+        assertFalse(columns.isRowEqual(2, changed, 1));
+        assertTrue(columns.isRowEqual(2, createColumns(), 2));
+    }
+
+    @Test
+    public void testLabelOrder() {
+        ReportColumns columns = createColumns();
+        Integer[] rows = {0, 1, 2, 3, 4};
+        Arrays.sort(rows, columns.getComparator(0));
+        assertArrayEquals(new Integer[]{3, 2, 1, 0, 4}, rows);
+    }
+
+    @Test
+    public void testNumberOrder() {
+        ReportColumns columns = createColumns();
+        Integer[] rows = {0, 1, 2, 3, 4};
+        Arrays.sort(rows, columns.getComparator(1));
+        assertArrayEquals(new Integer[]{3, 1, 0, 4, 2}, rows);
+    }
+
+    @Test
+    public void testWithoutRows() {
+        ReportColumns columns = createColumns().withoutRows(1, 2);
+        ReportColumns rebuilt = new ReportColumns(new Object[][]{DATA[0], DATA[3], DATA[4]},
+                new boolean[]{false, true}, o -> o == null ? Double.NaN : (Double) o, o -> (String) o);
+        assertEquals(3, columns.getRowCount());
+        assertEquals(Integer.valueOf(2), columns.getRowId(2));
+        for (int row = 0; row < 3; row++) assertTrue(columns.isRowEqual(row, rebuilt, row));
+        for (int col = 0; col < 2; col++) {
+            Integer[] rows = {0, 1, 2};
+            Integer[] rebuiltRows = {0, 1, 2};
+            Arrays.sort(rows, columns.getComparator(col));
+            Arrays.sort(rebuiltRows, rebuilt.getComparator(col));
+            assertArrayEquals(rebuiltRows, rows);
+        }
+    }
+}
@@ -33,9 +33,13 @@ import org.junit.Test;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import com.moneydance.modules.features.invextension.SecurityReport.MetricEntry;
 
@@ -83,20 +87,25 @@ public class ReportProdTest {
     /**
      * Compares ArrayLists of report lines, returns true if error is found
      *
-     * @param compRpt   comparison report generated from md data
-     * @param baseRpt   base report from saved csv files
-     * @param decPlaces number of decimal places to check for numbers
+     * @param compRpt     comparison report generated from md data
+     * @param baseRpt     base report from saved csv files
+     * @param baseColumns column of base report for each report column, -1 if not stored
+     * @param decPlaces   number of decimal places to check for numbers
      * @return true if error found
      */
     private static boolean compareReports(String info,
                                           ArrayList<ReportLine> compRpt, ArrayList<ReportLine> baseRpt,
-                                          int decPlaces) {
+                                          int[] baseColumns, int decPlaces) {
         boolean errorFound = false;
         System.out.println("Comparing Report-- " + info);
+        if (compRpt.size() != baseRpt.size()) {
+            System.out.println("Row count differs-- Test = " + compRpt.size() + " Should = " + baseRpt.size());
+            return true;
+        }
         for (int i = 0; i < compRpt.size(); i++) {
             ReportLine compLine = compRpt.get(i);
             ReportLine baseLine = baseRpt.get(i);
-            if (ReportLine.compareRptLines(compLine, baseLine, decPlaces,
+            if (ReportLine.compareRptLines(compLine, baseLine, baseColumns, decPlaces,
                     BulkSecInfoTest.limitComparisonToMinDigits)) {
                 errorFound = true;
             }
@@ -129,6 +138,95 @@ public class ReportProdTest {
 
 
 
+    /**
+     * Matches report columns to the columns of a stored file by name, so that
+     * a base file written before columns were added still checks the columns
+     * it holds.  Columns missing from the file are listed; run main to
+     * regenerate the files.
+     *
+     * @param readFile    stored file, header in first row
+     * @param modelHeader report column names
+     * @return column of stored file for each report column, -1 if not stored
+     */
+    private static int[] getBaseColumns(File readFile, LinkedList<String> modelHeader) {
+        ArrayList<String[]> inputStrAL = IOUtils.readCSVIntoArrayList(readFile);
+        assert inputStrAL != null;
+        List<String> baseHeader = Arrays.asList(inputStrAL.get(0));
+        int[] baseColumns = new int[modelHeader.size()];
+        int matched = 0;
+        for (int col = 0; col < baseColumns.length; col++) {
+            baseColumns[col] = baseHeader.indexOf(modelHeader.get(col).replace('\n', ' '));
+            if (baseColumns[col] < 0) {
+                System.out.println("Column not in " + readFile.getName() + ", not checked: "
+                        + modelHeader.get(col).replace('\n', ' '));
+            } else {
+                matched++;
+            }
+        }
+        assertEquals("Columns of " + readFile.getName() + " missing from report", baseHeader.size(), matched);
+        return baseColumns;
+    }
+
+    private static TotalFromToReport getFromToReport(BulkSecInfo info) throws Exception {
+        AggregationController aggregationController = AggregationController.INVACCT;
+        ReportConfig reportConfig = new ReportConfig(TotalFromToReport.class, "Test Report",
+                true, false, aggregationController, rptOutputSingle, numFrozenColumns, closedPosHidden,
+                ReportConfig.getDefaultViewHeader(TotalFromToReport.MODEL_HEADER),
+                ReportConfig.getDefaultExcludedAccounts(), ReportConfig.getDefaultInvestmentExpenseAccounts(),
+                ReportConfig.getDefaultInvestmentIncomeAccounts(),  dateRange);
+        reportConfig.setAllExpenseAccountsToInvestment(info.getRoot());
+        reportConfig.setAllIncomeAccountsToInvestment(info.getRoot());
+        TotalFromToReport fromToReport = new TotalFromToReport(reportConfig, info);
+        fromToReport.calcReport();
+        return fromToReport;
+    }
+
+    private static TotalSnapshotReport getSnapReport(BulkSecInfo info) throws Exception {
+        AggregationController aggregationController = AggregationController.INVACCT;
+        ReportConfig reportConfig = new ReportConfig(TotalFromToReport.class, "Test Report",
+                true, false, aggregationController, rptOutputSingle, numFrozenColumns, closedPosHidden,
+                ReportConfig.getDefaultViewHeader(TotalSnapshotReport.MODEL_HEADER),
+                ReportConfig.getDefaultExcludedAccounts(), ReportConfig.getDefaultInvestmentExpenseAccounts(),
+                ReportConfig.getDefaultInvestmentIncomeAccounts(), dateRange);
+        reportConfig.setAllExpenseAccountsToInvestment(info.getRoot());
+        TotalSnapshotReport snapshotReport = new TotalSnapshotReport(reportConfig, info);
+        snapshotReport.calcReport();
+        return snapshotReport;
+    }
+
+    /**
+     * Writes generated report to CSV in the form of the stored base files
+     *
+     * @param header      model header of report
+     * @param reportTable generated report
+     * @param outputFile  file to be written
+     */
+    private static void writeRptLinesToCSV(LinkedList<String> header, Object[][] reportTable, File outputFile) {
+        StringBuffer headerLine = new StringBuffer(String.join(",", header).replace('\n', ' '));
+        ArrayList<String[]> rows = new ArrayList<>();
+        for (ReportLine reportLine : readObjArrayIntoRptLine(reportTable)) {
+            String[] row = reportLine.getRow().clone();
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] == null) row[i] = "";
+            }
+            rows.add(row);
+        }
+        IOUtils.writeArrayListToCSV(headerLine, rows, outputFile);
+    }
+
+    /**
+     * Regenerates stored CSV base files from the stored MD file, for use when
+     * columns are added to the reports.  Check the differences before committing!
+     *
+     * @param args unused
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        BulkSecInfo info = BulkSecInfoTest.getBaseSecurityInfoAvgCost();
+        writeRptLinesToCSV(TotalFromToReport.MODEL_HEADER, getFromToReport(info).getReportTable(), ftBaseFile);
+        writeRptLinesToCSV(TotalSnapshotReport.MODEL_HEADER, getSnapReport(info).getReportTable(), snapBaseFile);
+    }
+
     @Before
     public void setUp() throws Exception {
         currentInfo = BulkSecInfoTest.getBaseSecurityInfoAvgCost();
@@ -144,20 +242,12 @@ public class ReportProdTest {
     @Test
     public void testGetFromToReport() throws Exception {
         boolean errorFound;
-        AggregationController aggregationController = AggregationController.INVACCT;
-        ReportConfig reportConfig = new ReportConfig(TotalFromToReport.class, "Test Report",
-                true, false, aggregationController, rptOutputSingle, numFrozenColumns, closedPosHidden,
-                ReportConfig.getDefaultViewHeader(TotalFromToReport.MODEL_HEADER),
-                ReportConfig.getDefaultExcludedAccounts(), ReportConfig.getDefaultInvestmentExpenseAccounts(),
-                ReportConfig.getDefaultInvestmentIncomeAccounts(),  dateRange);
-        reportConfig.setAllExpenseAccountsToInvestment(currentInfo.getRoot());
-        reportConfig.setAllIncomeAccountsToInvestment(currentInfo.getRoot());
-        TotalFromToReport fromToReport = new TotalFromToReport(reportConfig, currentInfo);
-        fromToReport.calcReport();
+        TotalFromToReport fromToReport = getFromToReport(currentInfo);
         Object[][] ftObj = fromToReport.getReportTable();
         ArrayList<ReportLine> ftTest = readObjArrayIntoRptLine(ftObj);
         ArrayList<ReportLine> ftBase = readCSVIntoRptLine(ftBaseFile);
-        errorFound = compareReports("From/To Report", ftTest, ftBase, BulkSecInfoTest.numDigitsToCompare);
+        errorFound = compareReports("From/To Report", ftTest, ftBase,
+                getBaseColumns(ftBaseFile, TotalFromToReport.MODEL_HEADER), BulkSecInfoTest.numDigitsToCompare);
 
         String msg = errorFound ? " -- Errors Found!" : " -- No Errors Found";
         System.out.println("Finished From/To Report Test " + msg);
@@ -180,19 +270,11 @@ public class ReportProdTest {
     @Test
     public void testGetSnapReport() throws Exception {
         boolean errorFound;
-        AggregationController aggregationController = AggregationController.INVACCT;
-        ReportConfig reportConfig = new ReportConfig(TotalFromToReport.class, "Test Report",
-                true, false, aggregationController, rptOutputSingle, numFrozenColumns, closedPosHidden,
-                ReportConfig.getDefaultViewHeader(TotalSnapshotReport.MODEL_HEADER),
-                ReportConfig.getDefaultExcludedAccounts(), ReportConfig.getDefaultInvestmentExpenseAccounts(),
-                ReportConfig.getDefaultInvestmentIncomeAccounts(), dateRange);
-        reportConfig.setAllExpenseAccountsToInvestment(currentInfo.getRoot());
-        TotalSnapshotReport snapshotReport = new TotalSnapshotReport(reportConfig, currentInfo);
-        snapshotReport.calcReport();
-        Object[][] snapObj = snapshotReport.getReportTable();
+        Object[][] snapObj = getSnapReport(currentInfo).getReportTable();
         ArrayList<ReportLine> snapTest = readObjArrayIntoRptLine(snapObj);
         ArrayList<ReportLine> snapBase = readCSVIntoRptLine(snapBaseFile);
-        errorFound = compareReports("Snapshot Report", snapTest, snapBase, BulkSecInfoTest.numDigitsToCompare);
+        errorFound = compareReports("Snapshot Report", snapTest, snapBase,
+                getBaseColumns(snapBaseFile, TotalSnapshotReport.MODEL_HEADER), BulkSecInfoTest.numDigitsToCompare);
 
         String msg = errorFound ? " -- Errors Found!" : " -- No Errors Found";
         System.out.println("Finished Snap Report Test " + msg);
@@ -400,18 +482,27 @@ public class ReportProdTest {
          *
          * @param compRpt        report to be compared
          * @param baseRpt        base report
+         * @param baseColumns    column of base report for each report column, -1 if not stored
          * @param decPlaces      precision used for comparison
          * @param limitPrecision boolean (whether to limit precision)
          * @return pass/fail of test
          */
-        private static boolean compareRptLines(ReportLine compRpt,
-                                               ReportLine baseRpt, int decPlaces, boolean limitPrecision) {
+        private static boolean compareRptLines(ReportLine compRpt, ReportLine baseRpt, int[] baseColumns,
+                                               int decPlaces, boolean limitPrecision) {
             boolean errorFound = false;
+            if (compRpt.getRow().length != baseColumns.length) {
+                System.out.println("Column count differs-- Acct: " + compRpt.getRow()[0]
+                        + " Security: " + compRpt.getRow()[1]
+                        + " Test = " + compRpt.getRow().length
+                        + " Should = " + baseColumns.length);
+                return true;
+            }
             for (int i = 0; i < compRpt.getRow().length; i++) {
+                if (baseColumns[i] < 0) continue;
                 String compStr = compRpt.getRow()[i];
-                String baseStr = baseRpt.getRow()[i];
+                String baseStr = baseRpt.getRow()[baseColumns[i]];
                 if (!BulkSecInfoTest.similarElements(compStr, baseStr, decPlaces, limitPrecision)) {
-                    printErrorMessage(compRpt, baseRpt, i);
+                    printErrorMessage(compRpt, baseRpt, i, baseColumns[i]);
                     errorFound = true;
                 }
             }
@@ -423,12 +514,12 @@ public class ReportProdTest {
         }
 
         private static void printErrorMessage(ReportLine compRpt,
-                                              ReportLine baseRpt, int i) {
+                                              ReportLine baseRpt, int i, int baseColumn) {
             System.out.println("Error at " + i + " member of report line"
                     + "-- Acct: " + compRpt.getRow()[0]
                     + " Security: " + compRpt.getRow()[1]
                     + " Test = " + compRpt.getRow()[i]
-                    + " Should = " + baseRpt.getRow()[i]);
+                    + " Should = " + baseRpt.getRow()[baseColumn]);
         }
 
         public boolean isObjectAggregator(Object o) {
@@ -447,6 +538,8 @@ public class ReportProdTest {
                 outputName = ((SecuritySubTypeWrapper) o).getName();
             } else if (o instanceof CurrencyWrapper) {
                 outputName = ((CurrencyWrapper) o).getName();
+            } else if (o instanceof TagAggregator) {
+                outputName = ((TagAggregator) o).getName();
             } else {
                 try {
                     throw new Exception("invalid attempt to get name from object");
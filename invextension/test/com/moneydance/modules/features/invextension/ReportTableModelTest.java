@@ -0,0 +1,95 @@
+/*
+ * ReportTableModelTest.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import com.moneydance.modules.features.invextension.TotalReport.ReportTableModel;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a prepared refresh is published only onto the table state it
+ * was prepared against.
+ */
+public class ReportTableModelTest {
+    private static final int endDateInt = 20100601;
+    private static BulkSecInfo currentInfo;
+
+    @Before
+    public void setUp() throws Exception {
+        currentInfo = BulkSecInfoTest.getBaseSecurityInfoAvgCost();
+    }
+
+    private static ReportTableModel getModel() throws Exception {
+        ReportConfig reportConfig = new ReportConfig(TotalSnapshotReport.class, "Test Report",
+                true, false, AggregationController.INVACCT, true, 5, true,
+                ReportConfig.getDefaultViewHeader(TotalSnapshotReport.MODEL_HEADER),
+                ReportConfig.getDefaultExcludedAccounts(), ReportConfig.getDefaultInvestmentExpenseAccounts(),
+                ReportConfig.getDefaultInvestmentIncomeAccounts(), new DateRange(endDateInt, endDateInt, endDateInt));
+        reportConfig.setAllExpenseAccountsToInvestment(currentInfo.getRoot());
+        TotalSnapshotReport snapshotReport = new TotalSnapshotReport(reportConfig, currentInfo);
+        snapshotReport.calcReport();
+        return snapshotReport.getReportTableModel();
+    }
+
+    @Test
+    public void testRefreshPublishedOnce() throws Exception {
+        ReportTableModel model = getModel();
+        int rowCount = model.getRowCount();
+        ReportTableModel.RefreshedReport refreshed = model.prepareRefresh(currentInfo);
+        assertTrue(model.publishRefresh(refreshed));
+        assertEquals(rowCount, model.getRowCount());
+        // publishing replaced the state the refresh was prepared against
+        assertFalse(model.publishRefresh(refreshed));
+    }
+
+    @Test
+    public void testStaleRefreshRejected() throws Exception {
+        ReportTableModel model = getModel();
+        ReportTableModel.RefreshedReport refreshed = model.prepareRefresh(currentInfo);
+        model.switchReturnType();
+        assertFalse(model.publishRefresh(refreshed));
+        assertTrue(model.publishRefresh(model.prepareRefresh(currentInfo)));
+    }
+
+    @Test
+    public void testEditedCellMakesRefreshStale() throws Exception {
+        ReportTableModel model = getModel();
+        ReportTableModel.RefreshedReport refreshed = model.prepareRefresh(currentInfo);
+        int col = model.getColumnCount() - 1;
+        Object edited = model.getValueAt(1, col);
+        model.setValueAt(edited, 0, col);
+        assertSame(edited, model.getValueAt(0, col));
+        assertFalse(model.publishRefresh(refreshed));
+    }
+}
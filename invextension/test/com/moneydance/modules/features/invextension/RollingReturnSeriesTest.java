@@ -0,0 +1,133 @@
+/*
+ * RollingReturnSeriesTest.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks rolling returns, which slide one set of flows over all sample windows,
+ * against return extractors built from scratch for the window of each sample.
+ */
+public class RollingReturnSeriesTest {
+    private static final int endDateInt = 20100601;
+    private static final int[] windowMonthsToTest = {3, RollingReturnSeries.ONE_YEAR_MONTHS};
+    private static final int sampleStep = 4; // months between samples checked
+    private static BulkSecInfo currentInfo;
+
+    @Before
+    public void setUp() throws Exception {
+        currentInfo = BulkSecInfoTest.getBaseSecurityInfoAvgCost();
+    }
+
+    private static TotalSnapshotReport getSnapReport() throws Exception {
+        ReportConfig reportConfig = new ReportConfig(TotalSnapshotReport.class, "Test Report",
+                true, false, AggregationController.INVACCT, false, 5, true,
+                ReportConfig.getDefaultViewHeader(TotalSnapshotReport.MODEL_HEADER),
+                ReportConfig.getDefaultExcludedAccounts(), ReportConfig.getDefaultInvestmentExpenseAccounts(),
+                ReportConfig.getDefaultInvestmentIncomeAccounts(), new DateRange(endDateInt, endDateInt, endDateInt));
+        reportConfig.setAllExpenseAccountsToInvestment(currentInfo.getRoot());
+        TotalSnapshotReport snapshotReport = new TotalSnapshotReport(reportConfig, currentInfo);
+        snapshotReport.calcReport();
+        return snapshotReport;
+    }
+
+    /**
+     * Computes return of one window from scratch: one extractor per security run over all
+     * of its transactions, aggregated for a composite row.
+     */
+    private static double getExtractorReturn(ComponentReport componentReport, int startDateInt, int sampleEndDateInt,
+                                             boolean useOrdinary) {
+        ArrayList<SecurityReport> securityReports = new ArrayList<>();
+        SecurityReport rowReport;
+        if (componentReport instanceof CompositeReport compositeReport) {
+            rowReport = compositeReport.getAggregateReport();
+            securityReports.addAll(compositeReport.getSecurityReports());
+        } else {
+            rowReport = (SecurityReport) componentReport;
+            securityReports.add(rowReport);
+        }
+        ArrayList<ExtractorReturnBase> extractors = new ArrayList<>();
+        for (SecurityReport securityReport : securityReports) {
+            SecurityAccountWrapper securityAccount = securityReport.getSecurityAccountWrapper();
+            ExtractorReturnBase extractor = ExtractorReturnBase.factory(securityAccount, securityReport,
+                    startDateInt, sampleEndDateInt, ExtractorReturnBase.ReturnWindowType.DEFAULT, useOrdinary);
+            for (TransactionValues transaction : securityAccount.getTransactionValues().values()) {
+                extractor.processNextTransaction(transaction, transaction.getDateInt());
+            }
+            extractor.getResult();
+            extractors.add(extractor);
+        }
+        if (!(componentReport instanceof CompositeReport)) {
+            return extractors.get(0).getResult();
+        }
+        ExtractorReturnBase aggregate = ExtractorReturnBase.factory(null, rowReport, startDateInt,
+                sampleEndDateInt, ExtractorReturnBase.ReturnWindowType.DEFAULT, useOrdinary);
+        for (ExtractorReturnBase extractor : extractors) {
+            aggregate.aggregateResults(extractor);
+        }
+        return aggregate.getResult();
+    }
+
+    private static void checkSeries(boolean useOrdinary) throws Exception {
+        int samplesChecked = 0;
+        for (ComponentReport componentReport : getSnapReport().getReports()) {
+            for (int windowMonths : windowMonthsToTest) {
+                RollingReturnSeries series = RollingReturnSeries.generate(componentReport, windowMonths,
+                        endDateInt, useOrdinary);
+                for (int i = series.size() - 1; i >= 0; i -= sampleStep) {
+                    int sampleEndDateInt = series.getDate(i);
+                    int startDateInt = currentInfo.getBusinessDayCalendar()
+                            .getLatestBusinessDay(DateUtils.addMonthsInt(sampleEndDateInt, -windowMonths));
+                    double expected = getExtractorReturn(componentReport, startDateInt, sampleEndDateInt,
+                            useOrdinary);
+                    assertEquals(String.join(" ", series.getLabels()) + " " + windowMonths + " months to "
+                            + sampleEndDateInt, expected, series.getReturn(i), 1e-9);
+                    samplesChecked++;
+                }
+            }
+        }
+        assertTrue(samplesChecked > 0);
+    }
+
+    @Test
+    public void testModifiedDietzMatchesExtractors() throws Exception {
+        checkSeries(false);
+    }
+
+    @Test
+    public void testOrdinaryMatchesExtractors() throws Exception {
+        checkSeries(true);
+    }
+}
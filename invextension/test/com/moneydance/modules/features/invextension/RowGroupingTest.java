@@ -0,0 +1,96 @@
+/*
+ * RowGroupingTest.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that sorting on every level's keys orders a three-level grouping
+ * (account, type, ticker) with each subtotal after the rows it totals
+ */
+public class RowGroupingTest {
+    private static final byte V = RowGrouping.VALUE;
+    private static final byte U = RowGrouping.UNGROUPED;
+    private static final byte S = RowGrouping.SUBTOTAL;
+    private static final byte A = RowGrouping.ALL;
+
+    private static final RowGrouping[] GROUPINGS = {
+            leaf("A", "Stock", "DELL"),
+            leaf("A", "Stock", "IBM"),
+            composite(new byte[]{V, V, V}, "A", "Stock", "DELL"),
+            composite(new byte[]{V, V, S}, "A", "Stock", ""),
+            leaf("A", "Bond", "T"),
+            composite(new byte[]{V, S, S}, "A", "", ""),
+            leaf("B", "Stock", "DELL"),
+            composite(new byte[]{V, S, S}, "B", "", ""),
+            new RowGrouping(new byte[]{V, U, U}, new String[]{"A", "", ""}, true),
+            composite(new byte[]{A, A, A}, "", "", ""),
+    };
+    // labels in the ticker column
+    private static final String[] LAST_LEVEL_LABELS = {"DELL", "IBM", "DELL ", "Tickers-ALL", "T",
+            "Tickers-ALL", "DELL", "Tickers-ALL", "Misc", "Tickers-ALL"};
+
+    private static RowGrouping leaf(String... names) {
+        return new RowGrouping(new byte[]{V, V, V}, names, true);
+    }
+
+    private static RowGrouping composite(byte[] kinds, String... names) {
+        return new RowGrouping(kinds, names, false);
+    }
+
+    @Test
+    public void testHierarchyOrder() {
+        int[][] keys = RowGrouping.getLevelKeys(GROUPINGS, LAST_LEVEL_LABELS);
+        assertEquals(3, keys.length);
+        Comparator<Integer> order = Comparator.comparingInt(row -> keys[0][row]);
+        order = order.thenComparingInt(row -> keys[1][row]).thenComparingInt(row -> keys[2][row]);
+        Integer[] rows = new Integer[GROUPINGS.length];
+        for (int row = 0; row < rows.length; row++) rows[row] = row;
+        Arrays.sort(rows, order);
+        // bond before stock, ungrouped leaves before the account subtotal,
+        // leaves before their composite
+        assertArrayEquals(new Integer[]{4, 0, 2, 1, 3, 8, 5, 6, 7, 9}, rows);
+    }
+
+    @Test
+    public void testLeadingLevelsIgnoreLeafLabels() {
+        int[][] keys = RowGrouping.getLevelKeys(GROUPINGS, LAST_LEVEL_LABELS);
+        // rows of one account share the first level key, whatever their kind
+        assertEquals(keys[0][0], keys[0][5]);
+        assertEquals(keys[0][4], keys[0][8]);
+        assertEquals(keys[1][0], keys[1][2]);
+        assertEquals(0, RowGrouping.getLevelKeys(new RowGrouping[0], new String[0]).length);
+    }
+}
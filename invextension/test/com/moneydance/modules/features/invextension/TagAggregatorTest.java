@@ -0,0 +1,143 @@
+/*
+ * TagAggregatorTest.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that security tags survive being saved with the report
+ * configuration, resolve by security ordinal and group securities in the
+ * TAG aggregation, untagged securities included
+ */
+public class TagAggregatorTest {
+    private static final String CORE = "Core";
+    private static final String INCOME = "Income";
+    private BulkSecInfo currentInfo;
+
+    @Before
+    public void setUp() throws Exception {
+        currentInfo = BulkSecInfoTest.getBaseSecurityInfoAvgCost();
+    }
+
+    private static ReportConfig getSnapshotConfig(AggregationController aggregationController) throws Exception {
+        return new ReportConfig(TotalSnapshotReport.class, "Test Report",
+                true, false, aggregationController, true, ConsistencyTest.numFrozenColumns,
+                ConsistencyTest.closedPosHidden, ReportConfig.getDefaultViewHeader(TotalSnapshotReport.MODEL_HEADER),
+                ReportConfig.getDefaultExcludedAccounts(), ReportConfig.getDefaultInvestmentExpenseAccounts(),
+                ReportConfig.getDefaultInvestmentIncomeAccounts(), ConsistencyTest.dateRange);
+    }
+
+    /**
+     * Tags the first two security accounts as core and the third as income,
+     * leaving the others untagged
+     */
+    private ReportConfig getTaggedConfig(AggregationController aggregationController) throws Exception {
+        ReportConfig reportConfig = getSnapshotConfig(aggregationController);
+        ArrayList<SecurityAccountWrapper> wrappers = currentInfo.getSecurityAccountWrappers();
+        assertTrue(wrappers.size() > 3);
+        reportConfig.setSecurityTag(wrappers.get(0).getSecurityAccount().getUUID(), CORE);
+        reportConfig.setSecurityTag(wrappers.get(1).getSecurityAccount().getUUID(), " " + CORE + " ");
+        reportConfig.setSecurityTag(wrappers.get(2).getSecurityAccount().getUUID(), INCOME);
+        return reportConfig;
+    }
+
+    @Test
+    public void testTagMapRoundTrip() throws Exception {
+        ReportConfig reportConfig = getSnapshotConfig(AggregationController.TAG);
+        reportConfig.setSecurityTag("id-1", "core, growth");
+        reportConfig.setSecurityTag("id-2", "a=b");
+        reportConfig.setSecurityTag("id-3", "  income  ");
+        reportConfig.setSecurityTag("id-4", "speculative");
+        reportConfig.setSecurityTag("id-4", "   ");
+        reportConfig.setSecurityTag("id-5", null);
+        HashMap<String, String> securityTags = reportConfig.getSecurityTags();
+        // delimiters are replaced and blanks trimmed, blank tags remove the assignment
+        assertEquals("core  growth", securityTags.get("id-1"));
+        assertEquals("a b", securityTags.get("id-2"));
+        assertEquals("income", securityTags.get("id-3"));
+        assertEquals(3, securityTags.size());
+
+        String prefString = ReportConfig.tagMapToString(securityTags);
+        assertEquals(securityTags, ReportConfig.stringToTagMap(prefString));
+        assertTrue(ReportConfig.stringToTagMap("").isEmpty());
+        assertTrue(ReportConfig.stringToTagMap(ReportConfig.tagMapToString(new HashMap<>())).isEmpty());
+        // pairs without id or tag are dropped
+        assertEquals(1, ReportConfig.stringToTagMap("=x,id-6=,id-7=core").size());
+    }
+
+    @Test
+    public void testTagsByOrdinal() throws Exception {
+        ReportConfig reportConfig = getTaggedConfig(AggregationController.TAG);
+        TagAggregator[] tagsByOrdinal = TagAggregator.getTagsByOrdinal(reportConfig.getSecurityTags(), currentInfo);
+        ArrayList<SecurityAccountWrapper> wrappers = currentInfo.getSecurityAccountWrappers();
+        assertEquals(wrappers.size(), tagsByOrdinal.length);
+        TagAggregator core = tagsByOrdinal[wrappers.get(0).getOrdinal()];
+        assertEquals(CORE, core.getName());
+        assertSame(core, tagsByOrdinal[wrappers.get(1).getOrdinal()]);
+        assertEquals(INCOME, tagsByOrdinal[wrappers.get(2).getOrdinal()].getName());
+        for (int i = 3; i < wrappers.size(); i++) {
+            assertEquals(TagAggregator.UNTAGGED, tagsByOrdinal[wrappers.get(i).getOrdinal()].getName());
+        }
+    }
+
+    @Test
+    public void testTagAggregation() throws Exception {
+        TotalSnapshotReport report = new TotalSnapshotReport(getTaggedConfig(AggregationController.TAG), currentInfo);
+        report.calcReport();
+        HashMap<String, HashSet<SecurityReport>> leavesByTag = new HashMap<>();
+        for (SecurityReport securityReport : report.getSecurityReports()) {
+            leavesByTag.computeIfAbsent(securityReport.getTagAggregator().getName(), tag -> new HashSet<>())
+                    .add(securityReport);
+        }
+        assertEquals(2, leavesByTag.get(CORE).size());
+        assertEquals(1, leavesByTag.get(INCOME).size());
+        assertFalse(leavesByTag.get(TagAggregator.UNTAGGED).isEmpty());
+
+        // each tag subtotal holds exactly the securities with its tag
+        HashSet<String> subtotalTags = new HashSet<>();
+        for (CompositeReport compositeReport : report.getCompositeReports()) {
+            if (compositeReport.getCompositeType() != CompositeReport.COMPOSITE_TYPE.FIRST) continue;
+            String tag = compositeReport.getAggregatorValue(0).getName();
+            assertTrue(subtotalTags.add(tag));
+            assertEquals(tag, leavesByTag.get(tag), compositeReport.getSecurityReports());
+            assertEquals(tag + "  ", compositeReport.getLevelName(0));
+        }
+        assertEquals(leavesByTag.keySet(), subtotalTags);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * XIRRCacheTest.java
+ * Copyright (c) 2026, Dale K. Furrow
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.moneydance.modules.features.invextension;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that cached and warm-started XIRR results agree with a direct solve
+ */
+public class XIRRCacheTest {
+    private static final double[] DATES = {39448, 39630, 39814, 40000, 40179};
+
+    @Test
+    public void testReuseAndWarmStart() {
+        double[] values = {-10000, -2500, 400, 300, 14500};
+        double expected = XIRR.xirr(new XIRRData(values.length, 1.1, values.clone(), DATES.clone()));
+
+        long hits = XIRRCache.getHits();
+        double first = XIRRCache.xirr("XIRRCacheTest", values.length, 1.1, values, DATES);
+        double second = XIRRCache.xirr("XIRRCacheTest", values.length, 1.1, values.clone(), DATES.clone());
+        assertEquals(expected, first, 1e-9);
+        assertEquals(first, second, 0.0);
+        assertEquals(hits + 1, XIRRCache.getHits());
+
+        // changed flow is solved again, starting from previous root
+        values[4] = 16000;
+        double changedExpected = XIRR.xirr(new XIRRData(values.length, 1.1, values.clone(), DATES.clone()));
+        double changed = XIRRCache.xirr("XIRRCacheTest", values.length, 1.1, values, DATES);
+        assertEquals(changedExpected, changed, 1e-7);
+        assertEquals(hits + 1, XIRRCache.getHits());
+    }
+}